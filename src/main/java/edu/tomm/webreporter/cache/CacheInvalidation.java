@@ -0,0 +1,103 @@
+package edu.tomm.webreporter.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Invalidation of a cache entry, or of a whole region when there is no key, to apply on the other nodes of the cluster.
+ */
+public final class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Kind of cache region.
+     */
+    public enum Type {
+        /** A Hibernate entity region, keyed by entity id. */
+        ENTITY,
+        /** A Hibernate collection region, keyed by owner id. */
+        COLLECTION,
+        /** A Spring cache, keyed by cache key. */
+        CACHE,
+        /** All the Hibernate query regions, without key. */
+        QUERY,
+    }
+
+    private final Type type;
+
+    private final String region;
+
+    private final String key;
+
+    @JsonCreator
+    public CacheInvalidation(@JsonProperty("type") Type type, @JsonProperty("region") String region, @JsonProperty("key") String key) {
+        this.type = Objects.requireNonNull(type);
+        this.region = region;
+        this.key = key;
+    }
+
+    public static CacheInvalidation entity(String entityName, Object id) {
+        return new CacheInvalidation(Type.ENTITY, entityName, String.valueOf(id));
+    }
+
+    public static CacheInvalidation collection(String role, Object ownerId) {
+        return new CacheInvalidation(Type.COLLECTION, role, String.valueOf(ownerId));
+    }
+
+    public static CacheInvalidation cache(String cacheName, Object key) {
+        return new CacheInvalidation(Type.CACHE, cacheName, String.valueOf(key));
+    }
+
+    public static CacheInvalidation queries() {
+        return new CacheInvalidation(Type.QUERY, null, null);
+    }
+
+    /**
+     * @return the invalidation of the whole region of this invalidation.
+     */
+    public CacheInvalidation withoutKey() {
+        return key == null ? this : new CacheInvalidation(type, region, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return type == that.type && Objects.equals(region, that.region) && Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, region, key);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CacheInvalidation{" +
+            "type=" + type +
+            ", region='" + region + "'" +
+            ", key='" + key + "'" +
+            "}";
+    }
+}
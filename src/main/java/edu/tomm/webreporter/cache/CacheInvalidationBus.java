@@ -0,0 +1,20 @@
+package edu.tomm.webreporter.cache;
+
+import java.util.Collection;
+
+/**
+ * Broadcasts invalidations of the local caches to the other nodes of the cluster, which apply them with
+ * {@link CacheInvalidationHandler}. The node publishing an invalidation is expected to have already applied it.
+ * <p>
+ * The implementation is selected with the {@value #BUS_PROPERTY} property.
+ */
+public interface CacheInvalidationBus {
+    String BUS_PROPERTY = "application.cache.invalidation.bus";
+
+    /**
+     * Publish invalidations to the other nodes. When called in a transaction, they are only delivered if it commits.
+     *
+     * @param invalidations the invalidations to publish.
+     */
+    void publish(Collection<CacheInvalidation> invalidations);
+}
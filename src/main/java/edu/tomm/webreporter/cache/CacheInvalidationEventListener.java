@@ -0,0 +1,122 @@
+package edu.tomm.webreporter.cache;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Hibernate listener collecting the second-level cache entries made stale by the writes of a transaction, and publishing
+ * them on the {@link CacheInvalidationBus} once all the writes are flushed, right before the commit.
+ * <p>
+ * Inserts, updates and deletes also invalidate the query regions, whose update timestamps are local to each node.
+ */
+public class CacheInvalidationEventListener
+    implements
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CacheInvalidationBus cacheInvalidationBus;
+
+    private final transient Map<EventSource, Set<CacheInvalidation>> pendingInvalidations = new ConcurrentHashMap<>();
+
+    public CacheInvalidationEventListener(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), CacheInvalidation.queries());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getPersister().canWriteToCache()) {
+            record(event.getSession(), CacheInvalidation.entity(event.getPersister().getEntityName(), event.getId()));
+        }
+        record(event.getSession(), CacheInvalidation.queries());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getPersister().canWriteToCache()) {
+            record(event.getSession(), CacheInvalidation.entity(event.getPersister().getEntityName(), event.getId()));
+        }
+        record(event.getSession(), CacheInvalidation.queries());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        onCollectionChange(event);
+    }
+
+    private void onCollectionChange(AbstractCollectionEvent event) {
+        String role = event.getCollection().getRole();
+        if (role == null || event.getAffectedOwnerIdOrNull() == null) {
+            return;
+        }
+        CollectionPersister persister = event.getSession().getFactory().getMetamodel().collectionPersister(role);
+        if (persister.hasCache()) {
+            record(event.getSession(), CacheInvalidation.collection(role, event.getAffectedOwnerIdOrNull()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, CacheInvalidation invalidation) {
+        Set<CacheInvalidation> invalidations = pendingInvalidations.get(session);
+        if (invalidations == null) {
+            invalidations = new LinkedHashSet<>();
+            pendingInvalidations.put(session, invalidations);
+            BeforeTransactionCompletionProcess publication = this::publish;
+            AfterTransactionCompletionProcess cleanup = (success, completedSession) -> pendingInvalidations.remove(completedSession);
+            session.getActionQueue().registerProcess(publication);
+            session.getActionQueue().registerProcess(cleanup);
+        }
+        invalidations.add(invalidation);
+    }
+
+    private void publish(Object session) {
+        Set<CacheInvalidation> invalidations = pendingInvalidations.remove(session);
+        if (invalidations != null && !invalidations.isEmpty()) {
+            cacheInvalidationBus.publish(invalidations);
+        }
+    }
+}
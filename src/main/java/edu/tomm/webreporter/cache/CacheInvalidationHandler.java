@@ -0,0 +1,108 @@
+package edu.tomm.webreporter.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies to the local caches the invalidations received from the other nodes of the cluster.
+ */
+@Component
+public class CacheInvalidationHandler {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationHandler.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationHandler(EntityManagerFactory entityManagerFactory, CacheManager cacheManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Evict the invalidated entries, or regions, from the local caches.
+     *
+     * @param invalidations the invalidations to apply.
+     */
+    public void apply(Collection<CacheInvalidation> invalidations) {
+        log.debug("Applying {} cache invalidations", invalidations.size());
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        org.hibernate.Cache secondLevelCache = sessionFactory.getCache();
+        for (CacheInvalidation invalidation : invalidations) {
+            String region = invalidation.getRegion();
+            String key = invalidation.getKey();
+            switch (invalidation.getType()) {
+                case ENTITY:
+                    if (key == null) {
+                        secondLevelCache.evictEntityData(region);
+                    } else {
+                        Type identifierType = sessionFactory.getMetamodel().entityPersister(region).getIdentifierType();
+                        secondLevelCache.evictEntityData(region, toIdentifier(identifierType, key));
+                    }
+                    break;
+                case COLLECTION:
+                    if (key == null) {
+                        secondLevelCache.evictCollectionData(region);
+                    } else {
+                        Type identifierType = sessionFactory
+                            .getMetamodel()
+                            .collectionPersister(region)
+                            .getOwnerEntityPersister()
+                            .getIdentifierType();
+                        secondLevelCache.evictCollectionData(region, toIdentifier(identifierType, key));
+                    }
+                    break;
+                case CACHE:
+                    Cache cache = cacheManager.getCache(region);
+                    if (cache == null) {
+                        break;
+                    }
+                    if (key == null) {
+                        cache.clear();
+                    } else {
+                        cache.evict(key);
+                    }
+                    break;
+                case QUERY:
+                    secondLevelCache.evictQueryRegions();
+                    break;
+                default:
+                    log.warn("Ignoring unsupported cache invalidation {}", invalidation);
+            }
+        }
+    }
+
+    /**
+     * Clear all the local caches, when invalidations may have been missed.
+     */
+    public void clearAll() {
+        log.info("Clearing all the local caches");
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache().evictAllRegions();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static Serializable toIdentifier(Type identifierType, String key) {
+        Class<?> identifierClass = identifierType.getReturnedClass();
+        if (Long.class.equals(identifierClass)) {
+            return Long.valueOf(key);
+        }
+        if (Integer.class.equals(identifierClass)) {
+            return Integer.valueOf(key);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,18 @@
+package edu.tomm.webreporter.cache;
+
+import java.util.Collection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link CacheInvalidationBus} of a single node deployment, which has no other node to notify.
+ */
+@Component
+@ConditionalOnProperty(name = CacheInvalidationBus.BUS_PROPERTY, havingValue = "none", matchIfMissing = true)
+public class NoOpCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publish(Collection<CacheInvalidation> invalidations) {
+        // Nothing to do, the local caches are already up to date
+    }
+}
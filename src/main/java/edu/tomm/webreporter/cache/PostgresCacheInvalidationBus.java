@@ -0,0 +1,138 @@
+package edu.tomm.webreporter.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link CacheInvalidationBus} based on PostgreSQL {@code LISTEN}/{@code NOTIFY}, which needs no other infrastructure than
+ * the database shared by the nodes.
+ * <p>
+ * Invalidations are sent with {@code pg_notify} in the current transaction, so PostgreSQL only delivers them if it
+ * commits. Each node listens with a {@link PostgresNotificationListener}, and clears all its caches after reconnecting,
+ * as notifications sent while it was disconnected are lost.
+ */
+@Component
+@ConditionalOnProperty(name = CacheInvalidationBus.BUS_PROPERTY, havingValue = "postgresql")
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus, SmartLifecycle {
+
+    private static final TypeReference<List<CacheInvalidation>> INVALIDATIONS_TYPE = new TypeReference<>() {};
+
+    private final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheInvalidationHandler cacheInvalidationHandler;
+
+    private final String channel;
+
+    private final PostgresNotificationListener listener;
+
+    public PostgresCacheInvalidationBus(
+        DataSourceProperties dataSourceProperties,
+        JdbcTemplate jdbcTemplate,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        CacheInvalidationHandler cacheInvalidationHandler
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.cacheInvalidationHandler = cacheInvalidationHandler;
+        this.channel = applicationProperties.getCache().getInvalidation().getChannel();
+        this.listener = new PostgresNotificationListener(dataSourceProperties, channel, this::receive, cacheInvalidationHandler::clearAll);
+    }
+
+    @Override
+    @Transactional
+    public void publish(Collection<CacheInvalidation> invalidations) {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        String payload = toPayload(invalidations);
+        log.debug("Publishing {} cache invalidations", invalidations.size());
+        jdbcTemplate.query("select pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+    }
+
+    private String toPayload(Collection<CacheInvalidation> invalidations) {
+        try {
+            String payload = writePayload(invalidations);
+            if (payload.getBytes(StandardCharsets.UTF_8).length < PostgresNotificationListener.MAX_PAYLOAD_BYTES) {
+                return payload;
+            }
+            // Too many keys: invalidate their whole regions instead, whose number is bounded
+            Collection<CacheInvalidation> regions = new LinkedHashSet<>();
+            invalidations.forEach(invalidation -> regions.add(invalidation.withoutKey()));
+            return writePayload(regions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cache invalidations", e);
+        }
+    }
+
+    private String writePayload(Collection<CacheInvalidation> invalidations) throws JsonProcessingException {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("origin", nodeId);
+        payload.put("invalidations", invalidations);
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    private void receive(String payload) {
+        try {
+            JsonNode message = objectMapper.readTree(payload);
+            if (nodeId.equals(message.path("origin").asText())) {
+                return;
+            }
+            List<CacheInvalidation> invalidations = objectMapper.convertValue(message.path("invalidations"), INVALIDATIONS_TYPE);
+            cacheInvalidationHandler.apply(invalidations);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Could not read cache invalidations, clearing all the caches: {}", e.getMessage());
+            cacheInvalidationHandler.clearAll();
+        } catch (RuntimeException e) {
+            log.warn("Could not apply cache invalidations, clearing all the caches", e);
+            cacheInvalidationHandler.clearAll();
+        }
+    }
+
+    /**
+     * @return whether the node is currently listening to the invalidations of the other nodes.
+     */
+    public boolean isListening() {
+        return listener.isListening();
+    }
+
+    @Override
+    public void start() {
+        listener.start("cache-invalidation-listener");
+    }
+
+    @Override
+    public void stop() {
+        listener.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return listener.isRunning();
+    }
+}
@@ -0,0 +1,149 @@
+package edu.tomm.webreporter.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+/**
+ * Listener of the PostgreSQL notifications of a channel, on a dedicated connection outside of the connection pool,
+ * polled by its own daemon thread.
+ * <p>
+ * Notifications sent while the listener is disconnected are lost: it reconnects after a delay, then runs its reconnect
+ * callback so that the missed notifications can be made up for.
+ */
+public class PostgresNotificationListener {
+
+    /**
+     * PostgreSQL rejects notification payloads of 8000 bytes or more.
+     */
+    public static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final Logger log = LoggerFactory.getLogger(PostgresNotificationListener.class);
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final String channel;
+
+    private final Consumer<String> onNotification;
+
+    private final Runnable onReconnect;
+
+    private volatile boolean running;
+
+    private volatile boolean listening;
+
+    private Thread listenerThread;
+
+    /**
+     * @param dataSourceProperties the properties of the database to connect to.
+     * @param channel the channel to listen to, which must be a lower case SQL identifier.
+     * @param onNotification the callback receiving the payload of each notification, on the listener thread.
+     * @param onReconnect the callback run after reconnecting, on the listener thread.
+     * @throws IllegalArgumentException if the channel is not a lower case SQL identifier.
+     */
+    public PostgresNotificationListener(
+        DataSourceProperties dataSourceProperties,
+        String channel,
+        Consumer<String> onNotification,
+        Runnable onReconnect
+    ) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.onNotification = onNotification;
+        this.onReconnect = onReconnect;
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (
+                Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword()
+                )
+            ) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                listening = true;
+                if (connectedBefore) {
+                    onReconnect.run();
+                }
+                connectedBefore = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (running) {
+                    log.warn("Listener of {} disconnected, reconnecting in {} ms: {}", channel, RECONNECT_DELAY_MILLIS, e.getMessage());
+                    try {
+                        Thread.sleep(RECONNECT_DELAY_MILLIS);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+        listening = false;
+    }
+
+    /**
+     * @return whether the channel is currently listened to.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    public synchronized void start(String threadName) {
+        if (running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, threadName);
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            try {
+                listenerThread.join(2L * POLL_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listenerThread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Invalidation of the local caches across the nodes of a cluster.
+ */
+package edu.tomm.webreporter.cache;
@@ -1,5 +1,8 @@
 package edu.tomm.webreporter.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +13,568 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Security security = new Security();
+
+    private final ReportCount reportCount = new ReportCount();
+
+    private final Cache cache = new Cache();
+
+    private final ReportStream reportStream = new ReportStream();
+
+    private final ReportOutbox reportOutbox = new ReportOutbox();
+
+    private final ReportStats reportStats = new ReportStats();
+
+    private final ReportPartition reportPartition = new ReportPartition();
+
+    private final ReportArchive reportArchive = new ReportArchive();
+
+    private final Jobs jobs = new Jobs();
+
     // jhipster-needle-application-properties-property
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public ReportCount getReportCount() {
+        return reportCount;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public ReportStream getReportStream() {
+        return reportStream;
+    }
+
+    public ReportOutbox getReportOutbox() {
+        return reportOutbox;
+    }
+
+    public ReportStats getReportStats() {
+        return reportStats;
+    }
+
+    public ReportPartition getReportPartition() {
+        return reportPartition;
+    }
+
+    public ReportArchive getReportArchive() {
+        return reportArchive;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Security {
+
+        private final TokenCache tokenCache = new TokenCache();
+
+        public TokenCache getTokenCache() {
+            return tokenCache;
+        }
+
+        /**
+         * Cache of already verified JWTs, so that clients reusing the same bearer token skip the signature check.
+         */
+        public static class TokenCache {
+
+            private boolean enabled = true;
+
+            private int maxEntries = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    /**
+     * Cache of the results of {@code GET /api/reports/count}, per criteria, invalidated by every report write.
+     */
+    public static class ReportCount {
+
+        private Duration ttl = Duration.ofSeconds(5);
+
+        private int maxEntries = 1000;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Server-Sent Events feed of the report changes, {@code GET /api/reports/stream}.
+     */
+    public static class ReportStream {
+
+        /**
+         * Maximum number of events waiting to be sent to a subscriber, which is disconnected when it is exceeded.
+         */
+        private int bufferSize = 256;
+
+        /**
+         * Number of threads writing the events to the subscribers.
+         */
+        private int senderThreads = 2;
+
+        /**
+         * Duration after which a subscription is closed, and must be renewed by the client.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Interval of the comments sent to keep idle subscriptions open through proxies, and detect closed ones.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+    }
+
+    /**
+     * Transactional outbox of the report changes, and its relay to the in-process consumers.
+     */
+    public static class ReportOutbox {
+
+        /**
+         * Whether this node relays the outbox. Several nodes can relay it concurrently.
+         */
+        private boolean relayEnabled = true;
+
+        private int batchSize = 500;
+
+        /**
+         * Delay between two polls of the outbox, when the previous one did not fill a batch.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Number of failed deliveries after which an event is left in the outbox.
+         */
+        private int maxAttempts = 10;
+
+        /**
+         * PostgreSQL notification channel broadcasting the relayed changes to every node, with the {@code postgresql}
+         * bus.
+         */
+        private String channel = "report_changes";
+
+        public boolean isRelayEnabled() {
+            return relayEnabled;
+        }
+
+        public void setRelayEnabled(boolean relayEnabled) {
+            this.relayEnabled = relayEnabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Report statistics, {@code GET /api/reports/stats}, and their rollups on PostgreSQL.
+     */
+    public static class ReportStats {
+
+        /**
+         * Delay between two folds of the pending rollup deltas into the rollups. It is read by {@code @Scheduled}, which
+         * only accepts the ISO-8601 notation, such as {@code PT10S}.
+         */
+        private Duration foldInterval = Duration.ofSeconds(10);
+
+        public Duration getFoldInterval() {
+            return foldInterval;
+        }
+
+        public void setFoldInterval(Duration foldInterval) {
+            this.foldInterval = foldInterval;
+        }
+    }
+
+    /**
+     * Monthly partitions of the {@code report} table on PostgreSQL, maintained daily.
+     */
+    public static class ReportPartition {
+
+        /**
+         * Number of partitions created ahead of the current month.
+         */
+        private int monthsAhead = 3;
+
+        /**
+         * Number of months after which the partitions expire, when all their reports are older. {@code 0} keeps the
+         * reports forever.
+         */
+        private int retentionMonths = 0;
+
+        /**
+         * Whether the expired partitions are dropped, instead of being detached and kept as standalone tables.
+         */
+        private boolean dropExpired = false;
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public boolean isDropExpired() {
+            return dropExpired;
+        }
+
+        public void setDropExpired(boolean dropExpired) {
+            this.dropExpired = dropExpired;
+        }
+    }
+
+    public static class ReportArchive {
+
+        /**
+         * Whether the reports older than {@code max-age} are moved to the archive.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the archive segments, which must be shared by all the nodes.
+         */
+        private String directory = "report-archive";
+
+        /**
+         * Age after which the reports are moved to the archive.
+         */
+        private Duration maxAge = Duration.ofDays(365);
+
+        /**
+         * Maximum number of reports per segment, all of them being moved in a single transaction.
+         */
+        private int segmentSize = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+    }
+
+    /**
+     * Background jobs, {@code /api/jobs}, run by a bounded pool of workers on each node.
+     */
+    public static class Jobs {
+
+        /**
+         * Whether this node runs jobs. Several nodes can run jobs concurrently, each job on a single node at a time.
+         */
+        private boolean runnerEnabled = true;
+
+        /**
+         * Number of jobs run concurrently by this node, each on its own thread.
+         */
+        private int workers = 2;
+
+        /**
+         * Delay between two polls of the queued jobs, when all were claimed or the workers were all busy.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Time without a chunk after which a running job is considered abandoned by its node, and resumed by another
+         * one from its last checkpoint. It must exceed the duration of the longest chunk.
+         */
+        private Duration staleAfter = Duration.ofMinutes(2);
+
+        public boolean isRunnerEnabled() {
+            return runnerEnabled;
+        }
+
+        public void setRunnerEnabled(boolean runnerEnabled) {
+            this.runnerEnabled = runnerEnabled;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getStaleAfter() {
+            return staleAfter;
+        }
+
+        public void setStaleAfter(Duration staleAfter) {
+            this.staleAfter = staleAfter;
+        }
+    }
+
+    /**
+     * Per-region configuration of the Ehcache caches, overriding the {@code jhipster.cache.ehcache} defaults.
+     */
+    public static class Cache {
+
+        /**
+         * Directory of the disk tier, which is only available when it is set.
+         */
+        private String diskPath;
+
+        /**
+         * Configuration of the regions, by cache name.
+         */
+        private final Map<String, Region> regions = new HashMap<>();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        /**
+         * Whether the hit ratio metrics of the query cache regions are collected, see {@link QueryCacheMetrics}. This
+         * enables the Hibernate statistics, which are updated by every statement.
+         */
+        private boolean queryCacheMetrics = false;
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public boolean isQueryCacheMetrics() {
+            return queryCacheMetrics;
+        }
+
+        public void setQueryCacheMetrics(boolean queryCacheMetrics) {
+            this.queryCacheMetrics = queryCacheMetrics;
+        }
+
+        /**
+         * Propagation of the cache invalidations to the other nodes of a cluster.
+         */
+        public static class Invalidation {
+
+            /**
+             * Implementation of the invalidation bus: {@code none} for a single node, or {@code postgresql}.
+             */
+            private String bus = "none";
+
+            /**
+             * PostgreSQL notification channel of the {@code postgresql} bus.
+             */
+            private String channel = "cache_invalidation";
+
+            public String getBus() {
+                return bus;
+            }
+
+            public void setBus(String bus) {
+                this.bus = bus;
+            }
+
+            public String getChannel() {
+                return channel;
+            }
+
+            public void setChannel(String channel) {
+                this.channel = channel;
+            }
+        }
+
+        /**
+         * Resource tiers and expiry of a region. Unset values fall back to the {@code jhipster.cache.ehcache} defaults,
+         * unset tiers are not used.
+         */
+        public static class Region {
+
+            private Long heapEntries;
+
+            private Long offHeapMb;
+
+            private Long diskMb;
+
+            private Duration timeToLive;
+
+            private Duration timeToIdle;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public Long getOffHeapMb() {
+                return offHeapMb;
+            }
+
+            public void setOffHeapMb(Long offHeapMb) {
+                this.offHeapMb = offHeapMb;
+            }
+
+            public Long getDiskMb() {
+                return diskMb;
+            }
+
+            public void setDiskMb(Long diskMb) {
+                this.diskMb = diskMb;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -1,11 +1,25 @@
 package edu.tomm.webreporter.config;
 
+import edu.tomm.webreporter.repository.ReportRepositoryWithQueryCache;
+import java.io.File;
 import java.time.Duration;
+import java.util.List;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
@@ -21,23 +35,48 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
-
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
+
+    /**
+     * Cache manager with a disk persistence service, only needed when a disk tier is configured: otherwise Spring Boot
+     * creates the cache manager. The {@link JCacheManagerCustomizer} beans are applied as Spring Boot would.
+     */
+    @Bean
+    @ConditionalOnProperty("application.cache.disk-path")
+    public javax.cache.CacheManager diskPersistentCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(
+            provider.getDefaultURI(),
+            new DefaultConfiguration(
+                provider.getDefaultClassLoader(),
+                new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskPath()))
+            )
+        );
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
     }
 
     @Bean
     public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
-        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            // The statistics only feed the query cache metrics, and are off unless these are enabled
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, cacheProperties.isQueryCacheMetrics());
+        };
+    }
+
+    @Bean
+    public QueryCacheMetrics queryCacheMetrics(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new QueryCacheMetrics(
+            entityManagerFactory,
+            List.of(ReportRepositoryWithQueryCache.COUNT_QUERY_REGION, ReportRepositoryWithQueryCache.PAGE_QUERY_REGION)
+        );
     }
 
     @Bean
@@ -50,16 +89,78 @@ public class CacheConfiguration {
             createCache(cm, edu.tomm.webreporter.domain.User.class.getName() + ".authorities");
             createCache(cm, edu.tomm.webreporter.domain.Report.class.getName());
             // jhipster-needle-ehcache-add-entry
+            createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            createCache(cm, ReportRepositoryWithQueryCache.COUNT_QUERY_REGION);
+            createCache(cm, ReportRepositoryWithQueryCache.PAGE_QUERY_REGION);
+            // Update timestamps must outlive every query result, or stale results would be considered up to date
+            createCache(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, ExpiryPolicyBuilder.noExpiration());
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, null);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, ExpiryPolicy<Object, Object> expiryPolicy) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, cacheConfiguration(cacheName, expiryPolicy));
+        }
+    }
+
+    /**
+     * Build the configuration of a cache from its {@code application.cache.regions} entry, if any, and from the
+     * {@code jhipster.cache.ehcache} defaults.
+     * <p>
+     * Entries expire {@code time-to-live} after they are created or updated, and, when {@code time-to-idle} is set,
+     * {@code time-to-idle} after they are last read.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration(
+        String cacheName,
+        ExpiryPolicy<Object, Object> expiryPolicy
+    ) {
+        ApplicationProperties.Cache.Region region = cacheProperties
+            .getRegions()
+            .getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(
+            region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries()
+        );
+        if (region.getOffHeapMb() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapMb(), MemoryUnit.MB);
         }
+        if (region.getDiskMb() != null) {
+            if (cacheProperties.getDiskPath() == null) {
+                throw new IllegalStateException("The disk tier of cache " + cacheName + " requires application.cache.disk-path");
+            }
+            resourcePools = resourcePools.disk(region.getDiskMb(), MemoryUnit.MB, false);
+        }
+
+        if (expiryPolicy == null) {
+            Duration timeToLive = region.getTimeToLive();
+            if (timeToLive == null && region.getTimeToIdle() == null) {
+                timeToLive = Duration.ofSeconds(ehcache.getTimeToLiveSeconds());
+            }
+            ExpiryPolicyBuilder<Object, Object> expiry = ExpiryPolicyBuilder.expiry();
+            if (timeToLive != null) {
+                expiry = expiry.create(timeToLive).update(timeToLive);
+            } else {
+                expiry = expiry.create(region.getTimeToIdle()).update(region.getTimeToIdle());
+            }
+            if (region.getTimeToIdle() != null) {
+                expiry = expiry.access(region.getTimeToIdle());
+            }
+            expiryPolicy = expiry.build();
+        }
+
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                .withExpiry(expiryPolicy)
+                .build()
+        );
     }
 
     @Autowired(required = false)
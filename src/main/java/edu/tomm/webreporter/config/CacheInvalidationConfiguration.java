@@ -0,0 +1,39 @@
+package edu.tomm.webreporter.config;
+
+import edu.tomm.webreporter.cache.CacheInvalidationBus;
+import edu.tomm.webreporter.cache.CacheInvalidationEventListener;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the second-level cache entries made stale by each transaction on the {@link CacheInvalidationBus}, when the
+ * application runs as a cluster.
+ */
+@Configuration
+@ConditionalOnExpression("'${" + CacheInvalidationBus.BUS_PROPERTY + ":none}' != 'none'")
+public class CacheInvalidationConfiguration {
+
+    @Bean
+    public CacheInvalidationEventListener cacheInvalidationEventListener(
+        EntityManagerFactory entityManagerFactory,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
+        CacheInvalidationEventListener listener = new CacheInvalidationEventListener(cacheInvalidationBus);
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+        return listener;
+    }
+}
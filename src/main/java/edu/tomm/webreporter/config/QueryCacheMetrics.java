@@ -0,0 +1,82 @@
+package edu.tomm.webreporter.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Hit and miss counts, and hit ratio, of regions of the Hibernate query cache, read from the Hibernate statistics.
+ * <p>
+ * The statistics are only enabled with {@code application.cache.query-cache-metrics}, otherwise all the meters stay at
+ * zero.
+ */
+public class QueryCacheMetrics implements MeterBinder {
+
+    public static final String GETS_METER_NAME = "hibernate.query.cache.gets";
+    public static final String GETS_METER_DESCRIPTION = "Indicates lookups of a region of the query cache.";
+    public static final String GETS_METER_BASE_UNIT = "lookups";
+    public static final String HIT_RATIO_METER_NAME = "hibernate.query.cache.hit.ratio";
+    public static final String HIT_RATIO_METER_DESCRIPTION =
+        "Indicates the ratio of lookups of a region of the query cache which are hits.";
+    public static final String REGION_DIMENSION = "region";
+    public static final String RESULT_DIMENSION = "result";
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private final List<String> regions;
+
+    public QueryCacheMetrics(ObjectProvider<EntityManagerFactory> entityManagerFactory, List<String> regions) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.regions = regions;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : regions) {
+            FunctionCounter
+                .builder(GETS_METER_NAME, this, metrics -> metrics.count(region, CacheRegionStatistics::getHitCount))
+                .baseUnit(GETS_METER_BASE_UNIT)
+                .description(GETS_METER_DESCRIPTION)
+                .tags(REGION_DIMENSION, region, RESULT_DIMENSION, "hit")
+                .register(registry);
+            FunctionCounter
+                .builder(GETS_METER_NAME, this, metrics -> metrics.count(region, CacheRegionStatistics::getMissCount))
+                .baseUnit(GETS_METER_BASE_UNIT)
+                .description(GETS_METER_DESCRIPTION)
+                .tags(REGION_DIMENSION, region, RESULT_DIMENSION, "miss")
+                .register(registry);
+            Gauge
+                .builder(HIT_RATIO_METER_NAME, this, metrics -> metrics.hitRatio(region))
+                .description(HIT_RATIO_METER_DESCRIPTION)
+                .tag(REGION_DIMENSION, region)
+                .register(registry);
+        }
+    }
+
+    private double hitRatio(String region) {
+        long hits = count(region, CacheRegionStatistics::getHitCount);
+        long lookups = hits + count(region, CacheRegionStatistics::getMissCount);
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    private long count(String region, ToLongFunction<CacheRegionStatistics> counter) {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory == null || !factory.isOpen()) {
+            return 0;
+        }
+        Statistics statistics = factory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return 0;
+        }
+        CacheRegionStatistics regionStatistics = statistics.getQueryRegionStatistics(region);
+        return regionStatistics == null ? 0 : counter.applyAsLong(regionStatistics);
+    }
+}
@@ -0,0 +1,72 @@
+package edu.tomm.webreporter.config.liquibase;
+
+import edu.tomm.webreporter.domain.IpAddresses;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Liquibase change filling {@code report.ip_address_bytes} from {@code report.ip_address} for the existing reports,
+ * with the same parser as the application, see {@link IpAddresses}.
+ */
+public class ReportIpAddressBytesBackfill implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private long updatedCount;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (
+            PreparedStatement select = connection.prepareStatement("select id, ip_address from report where ip_address_bytes is null");
+            PreparedStatement update = connection.prepareStatement("update report set ip_address_bytes = ? where id = ?")
+        ) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    byte[] ipAddressBytes = IpAddresses.toBytes(rows.getString(2));
+                    if (ipAddressBytes == null) {
+                        continue;
+                    }
+                    update.setBytes(1, ipAddressBytes);
+                    update.setLong(2, rows.getLong(1));
+                    update.addBatch();
+                    if (++updatedCount % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+            }
+            update.executeBatch();
+        } catch (SQLException e) {
+            throw new CustomChangeException("Could not backfill report.ip_address_bytes", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Filled ip_address_bytes of " + updatedCount + " reports";
+    }
+
+    @Override
+    public void setUp() {
+        // Nothing to set up
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // No resource needed
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
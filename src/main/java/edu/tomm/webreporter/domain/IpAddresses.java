@@ -0,0 +1,227 @@
+package edu.tomm.webreporter.domain;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * Binary form of the IP addresses: 16 bytes in network order, IPv4 addresses being mapped to {@code ::ffff:0:0/96}.
+ * <p>
+ * Both address families are compared as unsigned bytes, so that a CIDR block is the contiguous range of its first and
+ * last addresses, and an IPv4 block of prefix length {@code n} is the IPv6 block of prefix length {@code 96 + n}.
+ */
+public final class IpAddresses {
+
+    public static final int LENGTH = 16;
+
+    public static final int BITS = LENGTH * 8;
+
+    /**
+     * Prefix length of the IPv4-mapped block {@code ::ffff:0:0/96}.
+     */
+    public static final int IPV4_MAPPED_PREFIX_LENGTH = 96;
+
+    private IpAddresses() {}
+
+    /**
+     * Parse an IP address literal. Host names are never resolved.
+     *
+     * @param address the IPv4 dotted-quad or IPv6 address, surrounding spaces are ignored.
+     * @return the binary form of the address, or {@code null} if it is not an IP address literal.
+     */
+    public static byte[] toBytes(String address) {
+        if (address == null) {
+            return null;
+        }
+        String literal = address.trim();
+        if (literal.indexOf(':') >= 0) {
+            return parseIpv6(literal);
+        }
+        return parseIpv4(literal);
+    }
+
+    private static byte[] parseIpv6(String literal) {
+        int scope = literal.indexOf('%');
+        String address = scope < 0 ? literal : literal.substring(0, scope);
+        // Only hexadecimal digits, colons and dots reach InetAddress, which would look up anything else as a host name
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != ':' && c != '.') {
+                return null;
+            }
+        }
+        try {
+            return toBytes(InetAddress.getByName(address).getAddress());
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseIpv4(String literal) {
+        byte[] bytes = new byte[LENGTH];
+        bytes[10] = (byte) 0xff;
+        bytes[11] = (byte) 0xff;
+        int octet = 0;
+        int value = -1;
+        for (int i = 0; i <= literal.length(); i++) {
+            char c = i < literal.length() ? literal.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else if (c == '.' && value >= 0 && octet < 4) {
+                bytes[12 + octet++] = (byte) value;
+                value = -1;
+            } else {
+                return null;
+            }
+        }
+        return octet == 4 ? bytes : null;
+    }
+
+    private static byte[] toBytes(byte[] address) {
+        if (address.length == LENGTH) {
+            return address;
+        }
+        byte[] bytes = new byte[LENGTH];
+        bytes[10] = (byte) 0xff;
+        bytes[11] = (byte) 0xff;
+        System.arraycopy(address, 0, bytes, 12, 4);
+        return bytes;
+    }
+
+    /**
+     * @return whether the address is an IPv4 address mapped to {@code ::ffff:0:0/96}.
+     */
+    public static boolean isIpv4Mapped(byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xff && address[11] == (byte) 0xff;
+    }
+
+    /**
+     * Parse a CIDR block, such as {@code 10.20.0.0/16} or {@code 2001:db8::/32}. A single address is a block of one.
+     *
+     * @param cidr the CIDR block.
+     * @return the range of the addresses of the block.
+     * @throws IllegalArgumentException if the block is not valid.
+     */
+    public static Range parseCidr(String cidr) {
+        String block = cidr == null ? "" : cidr.trim();
+        int slash = block.indexOf('/');
+        byte[] address = toBytes(slash < 0 ? block : block.substring(0, slash));
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+        }
+        int offset = isIpv4Mapped(address) && block.indexOf(':') < 0 ? IPV4_MAPPED_PREFIX_LENGTH : 0;
+        int prefixLength = BITS;
+        if (slash >= 0) {
+            try {
+                prefixLength = offset + Integer.parseInt(block.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CIDR block: " + cidr, e);
+            }
+            if (prefixLength < offset || prefixLength > BITS) {
+                throw new IllegalArgumentException("Invalid CIDR prefix length: " + cidr);
+            }
+        }
+        return new Range(address, prefixLength);
+    }
+
+    /**
+     * Format a block as CIDR, in the IPv4 notation for the IPv4-mapped blocks.
+     *
+     * @param prefix an address of the block.
+     * @param prefixLength the prefix length of the block, in the IPv6 address space.
+     * @return the CIDR notation of the block.
+     */
+    public static String toCidr(byte[] prefix, int prefixLength) {
+        byte[] first = new Range(prefix, prefixLength).getFirst();
+        try {
+            if (prefixLength >= IPV4_MAPPED_PREFIX_LENGTH && isIpv4Mapped(first)) {
+                String address = InetAddress.getByAddress(Arrays.copyOfRange(first, 12, LENGTH)).getHostAddress();
+                return address + '/' + (prefixLength - IPV4_MAPPED_PREFIX_LENGTH);
+            }
+            return InetAddress.getByAddress(first).getHostAddress() + '/' + prefixLength;
+        } catch (UnknownHostException e) {
+            // Only thrown for an address of an illegal length
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The addresses of a CIDR block, from {@link #getFirst()} to {@link #getLast()} inclusive.
+     */
+    public static final class Range {
+
+        private final byte[] first;
+
+        private final byte[] last;
+
+        private final int prefixLength;
+
+        public Range(byte[] address, int prefixLength) {
+            this.first = new byte[LENGTH];
+            this.last = new byte[LENGTH];
+            this.prefixLength = prefixLength;
+            for (int i = 0; i < LENGTH; i++) {
+                int bits = Math.max(0, Math.min(8, prefixLength - i * 8));
+                int mask = (0xff << (8 - bits)) & 0xff;
+                first[i] = (byte) (address[i] & mask);
+                last[i] = (byte) (address[i] | ~mask);
+            }
+        }
+
+        public byte[] getFirst() {
+            return first.clone();
+        }
+
+        public byte[] getLast() {
+            return last.clone();
+        }
+
+        /**
+         * @return the prefix length of the block, in the IPv6 address space.
+         */
+        public int getPrefixLength() {
+            return prefixLength;
+        }
+
+        /**
+         * @return whether the block is made of IPv4 addresses, its IPv4 prefix length being {@code prefixLength - 96}.
+         */
+        public boolean isIpv4() {
+            return prefixLength >= IPV4_MAPPED_PREFIX_LENGTH && isIpv4Mapped(first);
+        }
+
+        public boolean contains(byte[] address) {
+            return address != null && Arrays.compareUnsigned(first, address) <= 0 && Arrays.compareUnsigned(address, last) <= 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Range)) {
+                return false;
+            }
+            Range range = (Range) o;
+            return prefixLength == range.prefixLength && Arrays.equals(first, range.first);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(first) + prefixLength;
+        }
+
+        @Override
+        public String toString() {
+            return toCidr(first, prefixLength);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package edu.tomm.webreporter.domain;
+
+import edu.tomm.webreporter.domain.enumeration.JobStatus;
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+
+/**
+ * A long-running operation, executed in the background by chunks. The checkpoint saved with each chunk lets any node
+ * resume the job where it stopped.
+ */
+@Entity
+@Table(name = "job")
+public class Job implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Type of the job, selecting the handler executing it.
+     */
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "type", length = 50, nullable = false)
+    private String type;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16, nullable = false)
+    private JobStatus status = JobStatus.QUEUED;
+
+    /**
+     * Parameters of the job, as written by its handler.
+     */
+    @Lob
+    @Type(type = "org.hibernate.type.TextType")
+    @Column(name = "parameters")
+    private String parameters;
+
+    /**
+     * Position of the job after its last chunk, as written by its handler, or {@code null} before the first chunk.
+     */
+    @Size(max = 255)
+    @Column(name = "checkpoint")
+    private String checkpoint;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    /**
+     * Estimated number of items to process, or {@code null} when unknown.
+     */
+    @Column(name = "total_count")
+    private Long totalCount;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested;
+
+    /**
+     * Node running the job, or {@code null} when it is not running.
+     */
+    @Size(max = 64)
+    @Column(name = "owner", length = 64)
+    private String owner;
+
+    /**
+     * Time of the last chunk of a running job: a job whose node stopped without releasing it is resumed by another
+     * node once its heartbeat is stale.
+     */
+    @Column(name = "heartbeat_date")
+    private Instant heartbeatDate;
+
+    /**
+     * Error of a failed job, or what a completed job left undone.
+     */
+    @Size(max = 1000)
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "created_by", length = 50, nullable = false, updatable = false)
+    private String createdBy;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private Instant createdDate = Instant.now();
+
+    @Column(name = "started_date")
+    private Instant startedDate;
+
+    @Column(name = "finished_date")
+    private Instant finishedDate;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public Job id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return this.type;
+    }
+
+    public Job type(String type) {
+        this.setType(type);
+        return this;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public JobStatus getStatus() {
+        return this.status;
+    }
+
+    public Job status(JobStatus status) {
+        this.setStatus(status);
+        return this;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public String getParameters() {
+        return this.parameters;
+    }
+
+    public Job parameters(String parameters) {
+        this.setParameters(parameters);
+        return this;
+    }
+
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    public String getCheckpoint() {
+        return this.checkpoint;
+    }
+
+    public Job checkpoint(String checkpoint) {
+        this.setCheckpoint(checkpoint);
+        return this;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public long getProcessedCount() {
+        return this.processedCount;
+    }
+
+    public void setProcessedCount(long processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public Long getTotalCount() {
+        return this.totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public boolean isCancelRequested() {
+        return this.cancelRequested;
+    }
+
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    public String getOwner() {
+        return this.owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getHeartbeatDate() {
+        return this.heartbeatDate;
+    }
+
+    public void setHeartbeatDate(Instant heartbeatDate) {
+        this.heartbeatDate = heartbeatDate;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getCreatedBy() {
+        return this.createdBy;
+    }
+
+    public Job createdBy(String createdBy) {
+        this.setCreatedBy(createdBy);
+        return this;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getStartedDate() {
+        return this.startedDate;
+    }
+
+    public void setStartedDate(Instant startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public Instant getFinishedDate() {
+        return this.finishedDate;
+    }
+
+    public void setFinishedDate(Instant finishedDate) {
+        this.finishedDate = finishedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Job)) {
+            return false;
+        }
+        return id != null && id.equals(((Job) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Job{" +
+            "id=" + getId() +
+            ", type='" + getType() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", checkpoint='" + getCheckpoint() + "'" +
+            ", processedCount=" + getProcessedCount() +
+            ", totalCount=" + getTotalCount() +
+            ", cancelRequested='" + isCancelRequested() + "'" +
+            ", owner='" + getOwner() + "'" +
+            ", createdBy='" + getCreatedBy() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,53 @@
+package edu.tomm.webreporter.domain;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Identifier generator shared by the entities, allocating ids in blocks from the {@code sequence_generator} sequence
+ * with the {@code pooled-lo} optimizer.
+ * <p>
+ * Each {@code nextval} reserves the block {@code [value, value + blockSize)} for the calling node, so several nodes
+ * can share the sequence without collisions, and only one round trip is needed per block. The block size is read
+ * from the {@value #BLOCK_SIZE_SETTING} Hibernate setting and must be equal to the increment of the database
+ * sequence, which is aligned by Liquibase from the {@code idBlockSize} changelog parameter.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "edu.tomm.webreporter.domain.PooledSequenceGenerator";
+
+    public static final String SEQUENCE_NAME = "sequence_generator";
+
+    public static final String BLOCK_SIZE_SETTING = "webreporter.id.block_size";
+
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        ConfigurationService configurationService = serviceRegistry.getService(ConfigurationService.class);
+        String blockSizeSetting = configurationService.getSetting(
+            BLOCK_SIZE_SETTING,
+            StandardConverters.STRING,
+            String.valueOf(DEFAULT_BLOCK_SIZE)
+        );
+        int blockSize;
+        try {
+            blockSize = Integer.parseInt(blockSizeSetting.trim());
+        } catch (NumberFormatException e) {
+            throw new MappingException("Invalid " + BLOCK_SIZE_SETTING + ": " + blockSizeSetting, e);
+        }
+        if (blockSize < 1) {
+            throw new MappingException("Invalid " + BLOCK_SIZE_SETTING + ": " + blockSize);
+        }
+        params.putIfAbsent(SEQUENCE_PARAM, SEQUENCE_NAME);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
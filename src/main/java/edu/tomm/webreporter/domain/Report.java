@@ -1,10 +1,12 @@
 package edu.tomm.webreporter.domain;
 
 import java.io.Serializable;
+import java.time.Instant;
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 /**
  * A Report.
@@ -19,7 +21,7 @@ public class Report implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
     @Column(name = "id")
     private Long id;
 
@@ -35,10 +37,27 @@ public class Report implements Serializable {
     @Column(name = "ip_address", nullable = false)
     private String ipAddress;
 
+    /**
+     * Binary form of {@link #ipAddress}, see {@link IpAddresses}, or {@code null} when it is not an IP address literal.
+     * Derived from it by {@link #setIpAddress(String)}.
+     */
+    @Column(name = "ip_address_bytes", length = IpAddresses.LENGTH)
+    private byte[] ipAddressBytes;
+
     @ManyToOne(optional = false)
     @NotNull
     private User user;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Time of the creation of the report, set when it is first persisted unless already set, and never updated.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -91,6 +110,11 @@ public class Report implements Serializable {
 
     public void setIpAddress(String ipAddress) {
         this.ipAddress = ipAddress;
+        this.ipAddressBytes = IpAddresses.toBytes(ipAddress);
+    }
+
+    public byte[] getIpAddressBytes() {
+        return this.ipAddressBytes;
     }
 
     public User getUser() {
@@ -106,6 +130,39 @@ public class Report implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Report version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public Report createdAt(Instant createdAt) {
+        this.setCreatedAt(createdAt);
+        return this;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @PrePersist
+    private void prePersist() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -133,6 +190,8 @@ public class Report implements Serializable {
             ", title='" + getTitle() + "'" +
             ", description='" + getDescription() + "'" +
             ", ipAddress='" + getIpAddress() + "'" +
+            ", version=" + getVersion() +
+            ", createdAt='" + getCreatedAt() + "'" +
             "}";
     }
 }
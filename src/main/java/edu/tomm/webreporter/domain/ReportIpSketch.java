@@ -0,0 +1,128 @@
+package edu.tomm.webreporter.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * A HyperLogLog sketch of the distinct IP addresses of the reports of a user, or of all the users, created in a month.
+ */
+@Entity
+@Table(name = "report_ip_sketch")
+public class ReportIpSketch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * {@link #getUserId()} of the sketches of the reports of all the users.
+     */
+    public static final long ALL_USERS = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * The id of the user, or {@link #ALL_USERS}. There is no foreign key: the sketches outlive the users.
+     */
+    @NotNull
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The month of creation of the reports, as {@code yyyy-MM} in UTC.
+     */
+    @NotNull
+    @Size(min = 7, max = 7)
+    @Column(name = "sketch_month", length = 7, nullable = false)
+    private String month;
+
+    /**
+     * The serialized sketch.
+     */
+    @NotNull
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public ReportIpSketch id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public ReportIpSketch userId(Long userId) {
+        this.setUserId(userId);
+        return this;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getMonth() {
+        return this.month;
+    }
+
+    public ReportIpSketch month(String month) {
+        this.setMonth(month);
+        return this;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public byte[] getSketch() {
+        return this.sketch;
+    }
+
+    public ReportIpSketch sketch(byte[] sketch) {
+        this.setSketch(sketch);
+        return this;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportIpSketch)) {
+            return false;
+        }
+        return id != null && id.equals(((ReportIpSketch) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReportIpSketch{" +
+            "id=" + getId() +
+            ", userId=" + getUserId() +
+            ", month='" + getMonth() + "'" +
+            ", sketchSize=" + (getSketch() == null ? 0 : getSketch().length) +
+            "}";
+    }
+}
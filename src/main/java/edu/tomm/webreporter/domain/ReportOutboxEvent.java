@@ -0,0 +1,145 @@
+package edu.tomm.webreporter.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+
+/**
+ * A change of a {@link Report}, written to the transactional outbox in the same transaction as the change itself.
+ */
+@Entity
+@Table(name = "report_outbox_event")
+public class ReportOutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @GenericGenerator(name = "sequenceGenerator", strategy = PooledSequenceGenerator.STRATEGY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "report_id", nullable = false)
+    private Long reportId;
+
+    @NotNull
+    @Size(max = 16)
+    @Column(name = "event_type", length = 16, nullable = false)
+    private String eventType;
+
+    /**
+     * The report after the change, or before it for a deletion, as JSON.
+     */
+    @Lob
+    @Type(type = "org.hibernate.type.TextType")
+    @NotNull
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private Instant createdDate = Instant.now();
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public ReportOutboxEvent id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getReportId() {
+        return this.reportId;
+    }
+
+    public ReportOutboxEvent reportId(Long reportId) {
+        this.setReportId(reportId);
+        return this;
+    }
+
+    public void setReportId(Long reportId) {
+        this.reportId = reportId;
+    }
+
+    public String getEventType() {
+        return this.eventType;
+    }
+
+    public ReportOutboxEvent eventType(String eventType) {
+        this.setEventType(eventType);
+        return this;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public ReportOutboxEvent payload(String payload) {
+        this.setPayload(payload);
+        return this;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportOutboxEvent)) {
+            return false;
+        }
+        return id != null && id.equals(((ReportOutboxEvent) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReportOutboxEvent{" +
+            "id=" + getId() +
+            ", reportId=" + getReportId() +
+            ", eventType='" + getEventType() + "'" +
+            ", attempts=" + getAttempts() +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
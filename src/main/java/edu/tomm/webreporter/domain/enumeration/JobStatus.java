@@ -0,0 +1,12 @@
+package edu.tomm.webreporter.domain.enumeration;
+
+/**
+ * The JobStatus enumeration.
+ */
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED,
+}
@@ -0,0 +1,4 @@
+/**
+ * JPA domain enumerations.
+ */
+package edu.tomm.webreporter.domain.enumeration;
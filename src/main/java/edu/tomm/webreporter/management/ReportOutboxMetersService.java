@@ -0,0 +1,70 @@
+package edu.tomm.webreporter.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ReportOutboxMetersService {
+
+    public static final String EVENTS_METER_NAME = "report.outbox.events";
+    public static final String EVENTS_METER_DESCRIPTION = "Indicates the report outbox events relayed to the consumers, or failed.";
+    public static final String EVENTS_METER_BASE_UNIT = "events";
+    public static final String EVENTS_METER_RESULT_DIMENSION = "result";
+
+    public static final String BATCH_METER_NAME = "report.outbox.batch";
+    public static final String BATCH_METER_DESCRIPTION = "Indicates the duration of the relay of a batch of report outbox events.";
+
+    public static final String LAG_METER_NAME = "report.outbox.lag";
+    public static final String LAG_METER_DESCRIPTION = "Indicates the delay between the write of a report outbox event and its relay.";
+
+    public static final String PARKED_METER_NAME = "report.outbox.parked";
+    public static final String PARKED_METER_DESCRIPTION = "Indicates the report outbox events left aside after failing too many times.";
+
+    private final MeterRegistry registry;
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+
+    public ReportOutboxMetersService(MeterRegistry registry) {
+        this.registry = registry;
+        this.relayedCounter = eventsCounterForResultBuilder("relayed").register(registry);
+        this.failedCounter = eventsCounterForResultBuilder("failed").register(registry);
+        this.batchTimer = Timer.builder(BATCH_METER_NAME).description(BATCH_METER_DESCRIPTION).register(registry);
+        this.lagTimer = Timer.builder(LAG_METER_NAME).description(LAG_METER_DESCRIPTION).register(registry);
+    }
+
+    private Counter.Builder eventsCounterForResultBuilder(String result) {
+        return Counter
+            .builder(EVENTS_METER_NAME)
+            .baseUnit(EVENTS_METER_BASE_UNIT)
+            .description(EVENTS_METER_DESCRIPTION)
+            .tag(EVENTS_METER_RESULT_DIMENSION, result);
+    }
+
+    public void trackBatchRelayed(int events, Duration duration) {
+        this.relayedCounter.increment(events);
+        this.batchTimer.record(duration);
+    }
+
+    public void trackBatchFailed(int events) {
+        this.failedCounter.increment(events);
+    }
+
+    public void trackLag(Duration lag) {
+        this.lagTimer.record(lag);
+    }
+
+    public void trackParked(Supplier<Number> parkedEvents) {
+        Gauge
+            .builder(PARKED_METER_NAME, parkedEvents)
+            .description(PARKED_METER_DESCRIPTION)
+            .baseUnit(EVENTS_METER_BASE_UNIT)
+            .register(registry);
+    }
+}
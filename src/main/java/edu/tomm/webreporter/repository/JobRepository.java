@@ -0,0 +1,38 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Job;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the Job entity.
+ */
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+    Page<Job> findAllByCreatedBy(String createdBy, Pageable pageable);
+
+    /**
+     * Lock the oldest queued jobs, and the running jobs whose heartbeat is older than {@code staleBefore}, skipping the
+     * jobs already locked by another node, see {@link ReportOutboxEventRepository#findNextForUpdate}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query(
+        "select job from Job job where job.status = edu.tomm.webreporter.domain.enumeration.JobStatus.QUEUED" +
+        " or (job.status = edu.tomm.webreporter.domain.enumeration.JobStatus.RUNNING and job.heartbeatDate < :staleBefore)" +
+        " order by job.id"
+    )
+    List<Job> findClaimableForUpdate(@Param("staleBefore") Instant staleBefore, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select job from Job job where job.id = :id")
+    Optional<Job> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,10 @@
+package edu.tomm.webreporter.repository;
+
+/**
+ * Sketch of the distinct report IP addresses of a user in a month, read without the managed entity.
+ */
+public interface ReportIpSketchOfUser {
+    Long getUserId();
+
+    byte[] getSketch();
+}
@@ -0,0 +1,52 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.ReportIpSketch;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the ReportIpSketch entity.
+ */
+@Repository
+public interface ReportIpSketchRepository extends JpaRepository<ReportIpSketch, Long> {
+    /**
+     * Lock the sketches of some users and months, in id order so that concurrent writers never deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        "select sketch from ReportIpSketch sketch" +
+        " where sketch.userId in :userIds and sketch.month in :months" +
+        " order by sketch.id"
+    )
+    List<ReportIpSketch> findAllForUpdate(@Param("userIds") Collection<Long> userIds, @Param("months") Collection<String> months);
+
+    /**
+     * Get the sketches of a user, or of {@link ReportIpSketch#ALL_USERS}, from month {@code from} to month {@code to}
+     * inclusive.
+     */
+    @Query("select sketch from ReportIpSketch sketch where sketch.userId = :userId and sketch.month between :from and :to")
+    List<ReportIpSketch> findAllByUserId(@Param("userId") Long userId, @Param("from") String from, @Param("to") String to);
+
+    /**
+     * Stream the sketches of every user, without the sketches of {@link ReportIpSketch#ALL_USERS}, from month
+     * {@code from} to month {@code to} inclusive, ordered by user. Rows are read through a database cursor and are not
+     * managed, so the stream must be consumed inside a transaction, and the memory footprint does not depend on the
+     * number of sketches.
+     */
+    @QueryHints(@QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(
+        "select sketch.userId as userId, sketch.sketch as sketch from ReportIpSketch sketch" +
+        " where sketch.userId <> " +
+        ReportIpSketch.ALL_USERS +
+        " and sketch.month between :from and :to" +
+        " order by sketch.userId"
+    )
+    Stream<ReportIpSketchOfUser> streamAllOfUsers(@Param("from") String from, @Param("to") String to);
+}
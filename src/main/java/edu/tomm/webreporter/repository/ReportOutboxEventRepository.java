@@ -0,0 +1,44 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.ReportOutboxEvent;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the ReportOutboxEvent entity.
+ */
+@Repository
+public interface ReportOutboxEventRepository extends JpaRepository<ReportOutboxEvent, Long>, ReportOutboxEventRepositoryWithBulkInsert {
+    /**
+     * Lock the oldest events which have failed less than {@code maxAttempts} times, skipping the events already locked
+     * by another relay: the lock timeout of {@code -2} is rendered as {@code for update skip locked} by the dialects
+     * supporting it, and falls back to {@code for update} otherwise.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select event from ReportOutboxEvent event where event.attempts < :maxAttempts order by event.id")
+    List<ReportOutboxEvent> findNextForUpdate(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Modifying
+    @Query("update ReportOutboxEvent event set event.attempts = event.attempts + 1 where event.id in :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Count the events left aside after failing {@code maxAttempts} times.
+     */
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+
+    /**
+     * Reset the attempts of the events left aside after failing {@code maxAttempts} times, so that they are relayed
+     * again.
+     */
+    @Modifying
+    @Query("update ReportOutboxEvent event set event.attempts = 0 where event.attempts >= :maxAttempts")
+    int resetParkedAttempts(@Param("maxAttempts") int maxAttempts);
+}
@@ -0,0 +1,32 @@
+package edu.tomm.webreporter.repository;
+
+import java.util.Collection;
+
+/**
+ * Writing of report events to the outbox by a single {@code insert ... select}, for the bulk changes of the
+ * {@code report} table. PostgreSQL only.
+ */
+public interface ReportOutboxEventRepositoryWithBulkInsert {
+    /**
+     * Statement writing an event per report {@code r}, left joined with its user {@code u}, to complete with the event
+     * type expression, see {@link String#format}, then a {@code from} clause. The payload is the JSON of the
+     * {@code ReportDTO}, and each event takes a block of the shared sequence as id, see
+     * {@link edu.tomm.webreporter.domain.PooledSequenceGenerator}.
+     */
+    String INSERT_FROM_REPORTS =
+        "insert into report_outbox_event (id, report_id, event_type, payload, attempts, created_date)" +
+        " select nextval('sequence_generator'), r.id, %s, cast(json_build_object(" +
+        " 'id', r.id, 'title', r.title, 'description', r.description, 'ipAddress', r.ip_address," +
+        " 'user', case when u.id is null then null else json_build_object('id', u.id, 'login', u.login) end," +
+        " 'version', r.version, 'createdAt', to_char(r.created_at, 'YYYY-MM-DD\"T\"HH24:MI:SS.US\"Z\"')" +
+        ") as text), 0, now() at time zone 'UTC'";
+
+    /**
+     * Write the current state of reports to the outbox.
+     *
+     * @param eventType the type of the events.
+     * @param reportIds the ids of the reports.
+     * @return the number of written events.
+     */
+    int insertFromReports(String eventType, Collection<Long> reportIds);
+}
@@ -0,0 +1,28 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.ReportOutboxEvent;
+import java.util.Collection;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+public class ReportOutboxEventRepositoryWithBulkInsertImpl implements ReportOutboxEventRepositoryWithBulkInsert {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertFromReports(String eventType, Collection<Long> reportIds) {
+        return entityManager
+            .createNativeQuery(
+                String.format(INSERT_FROM_REPORTS, ":eventType") +
+                " from report r left join jhi_user u on u.id = r.user_id where r.id in (:reportIds)"
+            )
+            .setParameter("eventType", eventType)
+            .setParameter("reportIds", reportIds)
+            .unwrap(NativeQuery.class)
+            // Only the outbox, which is not cached, is invalidated instead of all the regions of the second-level cache
+            .addSynchronizedEntityClass(ReportOutboxEvent.class)
+            .executeUpdate();
+    }
+}
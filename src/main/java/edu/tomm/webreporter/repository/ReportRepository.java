@@ -1,10 +1,15 @@
 package edu.tomm.webreporter.repository;
 
 import edu.tomm.webreporter.domain.Report;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,9 +18,198 @@ import org.springframework.stereotype.Repository;
  * Spring Data JPA repository for the Report entity.
  */
 @Repository
-public interface ReportRepository extends JpaRepository<Report, Long>, JpaSpecificationExecutor<Report> {
-    @Query("select report from Report report where report.user.login = ?#{principal.username}")
-    List<Report> findByUserIsCurrentUser();
+public interface ReportRepository
+    extends
+        ReportRepositoryWithKeysetPagination,
+        ReportRepositoryWithStreaming,
+        ReportRepositoryWithQueryCache,
+        ReportRepositoryWithDirectUpdate,
+        ReportRepositoryWithPartitions,
+        ReportRepositoryWithImport,
+        JpaRepository<Report, Long>,
+        JpaSpecificationExecutor<Report> {
+    /**
+     * Get a page of the reports of a user, served by the {@code (user_id, id)} index.
+     */
+    @Query("select report from Report report where report.user.id = :userId")
+    Page<Report> findAllByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Get a slice of the reports of a user with an id greater than {@code afterId}, ordered by id, served by the
+     * {@code (user_id, id)} index.
+     */
+    @Query("select report from Report report where report.user.id = :userId and report.id > :afterId order by report.id")
+    Slice<Report> findAllByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Estimate the number of reports from the planner statistics of the partitions, without scanning them: the
+     * partitioned table itself has no statistics of its own. PostgreSQL only, the estimate is negative when no partition
+     * has been vacuumed nor analyzed yet.
+     */
+    @Query(
+        value = "select coalesce(case when bool_and(c.reltuples < 0) then -1 else cast(sum(greatest(c.reltuples, 0)) as bigint) end, -1)" +
+        " from pg_inherits i join pg_class c on c.oid = i.inhrelid" +
+        " where i.inhparent = cast('report' as regclass)",
+        nativeQuery = true
+    )
+    long estimateCount();
+
+    /**
+     * Full-text search of the reports, with the web search syntax of {@code websearch_to_tsquery}, served by the GIN index
+     * of the {@code search_vector} generated column. PostgreSQL only.
+     * <p>
+     * Only the {@code maxCandidates} most recent matches are ranked, so that a query matching most of the reports
+     * costs no more than a selective one: the planner either walks the primary key backwards until it has found them,
+     * or reads the few matches of the GIN index.
+     *
+     * @return the matching reports, by descending relevance then descending id.
+     */
+    @Query(
+        value = "select hit.id as id, ts_rank_cd(hit.search_vector, q) as rank from (" +
+        " select report.id, report.search_vector" +
+        " from report where report.search_vector @@ websearch_to_tsquery('english', :query)" +
+        " order by report.id desc limit :maxCandidates" +
+        ") hit, websearch_to_tsquery('english', :query) as q" +
+        " order by rank desc, hit.id desc",
+        nativeQuery = true
+    )
+    List<ReportSearchHit> search(@Param("query") String query, @Param("maxCandidates") int maxCandidates, Pageable pageable);
+
+    /**
+     * Same as {@link #search(String, int, Pageable)}, seeking after the last hit of the previous slice.
+     */
+    @Query(
+        value = "select hit.id as id, hit.rank as rank from (" +
+        " select candidate.id as id, ts_rank_cd(candidate.search_vector, q) as rank from (" +
+        " select report.id, report.search_vector" +
+        " from report where report.search_vector @@ websearch_to_tsquery('english', :query)" +
+        " order by report.id desc limit :maxCandidates" +
+        ") candidate, websearch_to_tsquery('english', :query) as q" +
+        ") hit" +
+        " where (hit.rank, hit.id) < (cast(:afterRank as real), :afterId)" +
+        " order by hit.rank desc, hit.id desc",
+        nativeQuery = true
+    )
+    List<ReportSearchHit> searchAfter(
+        @Param("query") String query,
+        @Param("maxCandidates") int maxCandidates,
+        @Param("afterRank") float afterRank,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Get the buckets of a rollup dimension with the most reports: the folded counts of {@code report_rollup} plus the
+     * pending deltas of {@code report_rollup_delta}, so the counts are exact. PostgreSQL only.
+     *
+     * @return the non-empty buckets, by descending number of reports then bucket.
+     */
+    @Query(
+        value = "select rollup.bucket as bucket, cast(sum(rollup.report_count) as bigint) as reportCount from (" +
+        " select bucket, report_count from report_rollup where dimension = :dimension" +
+        " union all" +
+        " select bucket, delta from report_rollup_delta where dimension = :dimension" +
+        ") rollup" +
+        " group by rollup.bucket having sum(rollup.report_count) > 0" +
+        " order by reportCount desc, rollup.bucket",
+        nativeQuery = true
+    )
+    List<ReportRollup> findTopRollups(@Param("dimension") String dimension, Pageable pageable);
+
+    /**
+     * Same as {@link #findTopRollups(String, Pageable)}, by descending bucket, which is the latest first for the time
+     * dimensions. PostgreSQL only.
+     */
+    @Query(
+        value = "select rollup.bucket as bucket, cast(sum(rollup.report_count) as bigint) as reportCount from (" +
+        " select bucket, report_count from report_rollup where dimension = :dimension" +
+        " union all" +
+        " select bucket, delta from report_rollup_delta where dimension = :dimension" +
+        ") rollup" +
+        " group by rollup.bucket having sum(rollup.report_count) > 0" +
+        " order by rollup.bucket desc",
+        nativeQuery = true
+    )
+    List<ReportRollup> findLatestRollups(@Param("dimension") String dimension, Pageable pageable);
+
+    /**
+     * Take the transaction-scoped advisory lock of the rollup fold, so that a single node folds at a time. PostgreSQL
+     * only.
+     *
+     * @return {@code false} if another transaction holds it.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(hashtext('report_rollup_fold'))", nativeQuery = true)
+    boolean tryLockRollupFold();
+
+    /**
+     * Take the transaction-scoped advisory lock of the partition maintenance, so that a single node maintains the
+     * partitions at a time. PostgreSQL only.
+     *
+     * @return {@code false} if another transaction holds it.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(hashtext('report_partition_maintenance'))", nativeQuery = true)
+    boolean tryLockPartitionMaintenance();
+
+    /**
+     * Take the transaction-scoped advisory lock of the archival, so that a single node archives reports at a time.
+     * PostgreSQL only.
+     *
+     * @return {@code false} if another transaction holds it.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(hashtext('report_archive'))", nativeQuery = true)
+    boolean tryLockArchive();
+
+    /**
+     * Get and lock the oldest reports created before an instant, by creation time then id, to move them to the archive.
+     * Their users are fetched by the same query, without being locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "org.hibernate.lockMode.reportUser", value = "NONE"))
+    @Query(
+        "select report from Report report join fetch report.user reportUser where report.createdAt < :before" +
+        " order by report.createdAt, report.id"
+    )
+    List<Report> findOldestForUpdate(@Param("before") Instant before, Pageable pageable);
+
+    /**
+     * Reserve the next block of ids of the shared sequence, see {@link edu.tomm.webreporter.domain.PooledSequenceGenerator}.
+     * PostgreSQL only.
+     *
+     * @return the first id of the block.
+     */
+    @Query(value = "select nextval('sequence_generator')", nativeQuery = true)
+    long nextIdBlock();
+
+    /**
+     * Get the creation time of a report, which is never updated, without loading the report.
+     */
+    @Query("select report.createdAt from Report report where report.id = :id")
+    Optional<Instant> findCreatedAtById(@Param("id") Long id);
+
+    @Query("select report.id from Report report where report.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Move the pending deltas of {@code report_rollup_delta} into the counts of {@code report_rollup}. PostgreSQL only.
+     *
+     * @return the number of updated buckets.
+     */
+    @Modifying
+    @Query(
+        value = "with folded as (delete from report_rollup_delta returning dimension, bucket, delta)" +
+        " insert into report_rollup (dimension, bucket, report_count)" +
+        " select dimension, bucket, sum(delta) from folded group by dimension, bucket" +
+        " on conflict (dimension, bucket) do update set report_count = report_rollup.report_count + excluded.report_count",
+        nativeQuery = true
+    )
+    int foldRollupDeltas();
+
+    @Modifying
+    @Query(value = "delete from report_rollup where report_count = 0", nativeQuery = true)
+    int deleteEmptyRollups();
+
+    @Query("select report from Report report left join fetch report.user where report.id in :ids")
+    List<Report> findAllWithToOneRelationshipsByIdIn(@Param("ids") Collection<Long> ids);
 
     default Optional<Report> findOneWithEagerRelationships(Long id) {
         return this.findOneWithToOneRelationships(id);
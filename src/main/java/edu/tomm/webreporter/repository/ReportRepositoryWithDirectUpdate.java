@@ -0,0 +1,21 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+
+/**
+ * Updates of the {@link Report} entity which do not read the row before writing it.
+ */
+public interface ReportRepositoryWithDirectUpdate {
+    /**
+     * Write a detached report with a single {@code update ... where id = ? and version = ?} statement, instead of the
+     * select issued by {@code save()} to merge it.
+     * <p>
+     * The report must carry the version it was read with: the update fails with an
+     * {@link org.springframework.orm.ObjectOptimisticLockingFailureException} when the row was modified since, or
+     * when it does not exist.
+     *
+     * @param report the detached report, with its id and version.
+     * @return the managed report, with its incremented version.
+     */
+    Report updateDetached(Report report);
+}
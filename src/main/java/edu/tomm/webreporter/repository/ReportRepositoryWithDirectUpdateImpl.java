@@ -0,0 +1,29 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+
+public class ReportRepositoryWithDirectUpdateImpl implements ReportRepositoryWithDirectUpdate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Report updateDetached(Report report) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityKey key = session.generateEntityKey(report.getId(), session.getEntityPersister(null, report));
+        Report managed;
+        if (session.getPersistenceContext().getEntity(key) != null) {
+            // Already loaded in this session: reattaching would clash with it, and merging it costs no select.
+            managed = entityManager.merge(report);
+        } else {
+            session.update(report);
+            managed = report;
+        }
+        entityManager.flush();
+        return managed;
+    }
+}
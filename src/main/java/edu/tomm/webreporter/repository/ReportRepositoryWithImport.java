@@ -0,0 +1,39 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import java.util.List;
+
+/**
+ * Bulk loading of the {@code report} table through the {@code report_import} staging table. PostgreSQL only.
+ * <p>
+ * The staging table is temporary: each connection creates it on first use, and its rows are deleted when the
+ * transaction commits, so concurrent imports never see each other's rows.
+ */
+public interface ReportRepositoryWithImport {
+    /**
+     * Copy reports to the staging table with {@code COPY FROM STDIN}. The reports must all have an id.
+     */
+    void copyToImportTable(List<Report> reports);
+
+    /**
+     * Update the reports whose id is in the staging table, incrementing their version. Their creation time is kept.
+     *
+     * @return the number of updated reports.
+     */
+    int updateFromImportTable();
+
+    /**
+     * Insert the reports of the staging table whose id is not in the {@code report} table.
+     *
+     * @return the number of inserted reports.
+     */
+    int insertFromImportTable();
+
+    /**
+     * Write the reports of the staging table to the outbox, once updated and inserted, in a single statement: the
+     * inserted reports, still at version 0, as created, and the updated ones as updated.
+     *
+     * @return the number of written events.
+     */
+    int insertOutboxFromImportTable();
+}
@@ -0,0 +1,136 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.domain.ReportOutboxEvent;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneOffset;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+public class ReportRepositoryWithImportImpl implements ReportRepositoryWithImport {
+
+    private static final String CREATE_IMPORT_TABLE =
+        "create temporary table if not exists report_import (" +
+        " id bigint not null, title varchar(255), description varchar(255), ip_address varchar(255)," +
+        " ip_address_bytes bytea, user_id bigint, created_at timestamp" +
+        ") on commit delete rows";
+
+    private static final String COPY_TO_IMPORT_TABLE =
+        "copy report_import (id, title, description, ip_address, ip_address_bytes, user_id, created_at)" +
+        " from stdin with (format csv)";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void copyToImportTable(List<Report> reports) {
+        entityManager
+            .unwrap(Session.class)
+            .doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_IMPORT_TABLE);
+                }
+                CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_TO_IMPORT_TABLE);
+                try {
+                    StringBuilder row = new StringBuilder();
+                    for (Report report : reports) {
+                        row.setLength(0);
+                        appendRow(row, report);
+                        byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                        copyIn.writeToCopy(bytes, 0, bytes.length);
+                    }
+                    copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        try {
+                            copyIn.cancelCopy();
+                        } catch (SQLException e) {
+                            // The connection is broken, and so is the transaction
+                        }
+                    }
+                }
+            });
+    }
+
+    @Override
+    public int updateFromImportTable() {
+        return executeUpdate(
+            "update report set title = s.title, description = s.description, ip_address = s.ip_address," +
+            " ip_address_bytes = s.ip_address_bytes, user_id = s.user_id, version = report.version + 1" +
+            " from report_import s where report.id = s.id"
+        );
+    }
+
+    @Override
+    public int insertFromImportTable() {
+        return executeUpdate(
+            "insert into report (id, title, description, ip_address, ip_address_bytes, user_id, version, created_at)" +
+            " select s.id, s.title, s.description, s.ip_address, s.ip_address_bytes, s.user_id, 0, s.created_at" +
+            " from report_import s where not exists (select 1 from report where report.id = s.id)"
+        );
+    }
+
+    @Override
+    public int insertOutboxFromImportTable() {
+        return executeUpdate(
+            String.format(
+                ReportOutboxEventRepositoryWithBulkInsert.INSERT_FROM_REPORTS,
+                "case when r.version = 0 then 'CREATED' else 'UPDATED' end"
+            ) +
+            " from report_import s join report r on r.id = s.id left join jhi_user u on u.id = r.user_id",
+            ReportOutboxEvent.class
+        );
+    }
+
+    private int executeUpdate(String sql) {
+        return executeUpdate(sql, Report.class);
+    }
+
+    private int executeUpdate(String sql, Class<?> entityClass) {
+        // Only the regions of the written entity in the second-level cache are invalidated, instead of all of them
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedEntityClass(entityClass).executeUpdate();
+    }
+
+    /**
+     * Append a report as a CSV row: strings are always quoted, so that an unquoted empty field is a {@code null}.
+     */
+    private static void appendRow(StringBuilder row, Report report) {
+        row.append(report.getId()).append(',');
+        appendString(row, report.getTitle());
+        row.append(',');
+        appendString(row, report.getDescription());
+        row.append(',');
+        appendString(row, report.getIpAddress());
+        row.append(',');
+        if (report.getIpAddressBytes() != null) {
+            row.append("\\x");
+            for (byte b : report.getIpAddressBytes()) {
+                row.append(HEX_DIGITS[(b >> 4) & 0xf]).append(HEX_DIGITS[b & 0xf]);
+            }
+        }
+        row.append(',');
+        if (report.getUser() != null) {
+            row.append(report.getUser().getId());
+        }
+        row.append(',');
+        if (report.getCreatedAt() != null) {
+            row.append(report.getCreatedAt().atOffset(ZoneOffset.UTC).toLocalDateTime());
+        }
+        row.append('\n');
+    }
+
+    private static void appendString(StringBuilder row, String value) {
+        if (value != null) {
+            row.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+}
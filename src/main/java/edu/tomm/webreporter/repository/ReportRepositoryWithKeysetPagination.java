@@ -0,0 +1,25 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset (seek) queries on the {@link Report} entity, which never issue a count query.
+ */
+public interface ReportRepositoryWithKeysetPagination {
+    /**
+     * Find the reports matching the specification whose id is strictly greater than {@code afterId}, ordered by id.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param afterId the last id of the previous slice, or {@code null} to start from the first report.
+     * @param limit the maximum number of reports to return.
+     * @return the matching reports.
+     */
+    List<Report> findAllAfter(Specification<Report> specification, Long afterId, int limit);
+
+    /**
+     * Same as {@link #findAllAfter(Specification, Long, int)}, selecting the ids only, without loading the reports.
+     */
+    List<Long> findIdsAfter(Specification<Report> specification, Long afterId, int limit);
+}
@@ -0,0 +1,59 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.domain.Report_;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+public class ReportRepositoryWithKeysetPaginationImpl implements ReportRepositoryWithKeysetPagination {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Report> findAllAfter(Specification<Report> specification, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Report> query = cb.createQuery(Report.class);
+        Root<Report> root = query.from(Report.class);
+
+        query.select(root).where(predicates(specification, afterId, root, query, cb)).orderBy(cb.asc(root.get(Report_.id)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Long> findIdsAfter(Specification<Report> specification, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Report> root = query.from(Report.class);
+
+        query.select(root.get(Report_.id)).where(predicates(specification, afterId, root, query, cb)).orderBy(cb.asc(root.get(Report_.id)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static Predicate[] predicates(
+        Specification<Report> specification,
+        Long afterId,
+        Root<Report> root,
+        CriteriaQuery<?> query,
+        CriteriaBuilder cb
+    ) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(root.get(Report_.id), afterId));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,34 @@
+package edu.tomm.webreporter.repository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Maintenance of the monthly partitions of the {@code report} table, named {@code report_yYYYYmMM} after their month
+ * of {@code created_at}, in UTC. PostgreSQL only.
+ */
+public interface ReportRepositoryWithPartitions {
+    /**
+     * @return the months of the partitions attached to the {@code report} table, in chronological order.
+     */
+    List<YearMonth> findPartitionMonths();
+
+    /**
+     * Create the partition of a month, unless it exists. The reports of the month which are in the default partition,
+     * written before the partition was due, are moved to it in the same transaction.
+     */
+    void createPartition(YearMonth month);
+
+    /**
+     * Detach the partition of a month from the {@code report} table, which is kept as a standalone table. The reports of
+     * the partition are first subtracted from the rollups, as no trigger is fired by the detachment: the partition is
+     * locked against writes before it is scanned, until the transaction ends, so that a report written to it
+     * concurrently is either subtracted and detached, or neither. Reads are not blocked until the detachment itself.
+     */
+    void detachPartition(YearMonth month);
+
+    /**
+     * Drop the table of a detached partition.
+     */
+    void dropDetachedPartition(YearMonth month);
+}
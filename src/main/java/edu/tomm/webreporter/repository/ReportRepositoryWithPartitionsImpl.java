@@ -0,0 +1,114 @@
+package edu.tomm.webreporter.repository;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class ReportRepositoryWithPartitionsImpl implements ReportRepositoryWithPartitions {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("report_y(\\d{4})m(\\d{2})");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<YearMonth> findPartitionMonths() {
+        List<String> names = entityManager
+            .createNativeQuery(
+                "select child.relname from pg_inherits inheritance" +
+                " join pg_class child on child.oid = inheritance.inhrelid" +
+                " where inheritance.inhparent = cast('report' as regclass)" +
+                " order by child.relname"
+            )
+            .getResultList();
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            // The default partition, and any partition created by hand, is left alone
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    @Override
+    public void createPartition(YearMonth month) {
+        String range = "created_at >= '" + month.atDay(1) + "' and created_at < '" + month.plusMonths(1).atDay(1) + "'";
+        // Late writes of the month to the default partition wait until the transaction ends, so that none is left behind
+        entityManager.createNativeQuery("lock table report_default in exclusive mode").executeUpdate();
+        boolean defaultHoldsMonth = (Boolean) entityManager
+            .createNativeQuery("select exists (select 1 from report_default where " + range + ")")
+            .getSingleResult();
+        if (defaultHoldsMonth) {
+            // The partition cannot be created over the reports of the default partition: they are moved to it through
+            // the report table, whose rollup triggers subtract and add them back
+            entityManager
+                .createNativeQuery("create temporary table report_moved on commit drop as select * from report_default where " + range)
+                .executeUpdate();
+            entityManager.createNativeQuery("delete from report where " + range).executeUpdate();
+        }
+        entityManager
+            .createNativeQuery(
+                "create table if not exists " +
+                partitionName(month) +
+                " partition of report for values from ('" +
+                month.atDay(1) +
+                "') to ('" +
+                month.plusMonths(1).atDay(1) +
+                "')"
+            )
+            .executeUpdate();
+        if (defaultHoldsMonth) {
+            String columns = (String) entityManager
+                .createNativeQuery(
+                    "select string_agg(quote_ident(attname), ', ' order by attnum) from pg_attribute" +
+                    " where attrelid = cast('report' as regclass) and attnum > 0 and not attisdropped and attgenerated = ''"
+                )
+                .getSingleResult();
+            entityManager
+                .createNativeQuery("insert into report (" + columns + ") select " + columns + " from report_moved")
+                .executeUpdate();
+            entityManager.createNativeQuery("drop table report_moved").executeUpdate();
+        }
+    }
+
+    @Override
+    public void detachPartition(YearMonth month) {
+        String partition = partitionName(month);
+        // Late writes to the partition wait until the transaction ends, so the subtracted reports are the detached ones
+        entityManager.createNativeQuery("lock table " + partition + " in share mode").executeUpdate();
+        entityManager
+            .createNativeQuery(
+                "insert into report_rollup_delta (dimension, bucket, delta)" +
+                " select d.dimension, d.bucket, -count(*) from " +
+                partition +
+                " r cross join lateral (values" +
+                " ('user', cast(r.user_id as text))," +
+                " ('ip', r.ip_address)," +
+                " ('day', to_char(r.created_at, 'YYYY-MM-DD'))," +
+                " ('month', to_char(r.created_at, 'YYYY-MM'))" +
+                ") as d (dimension, bucket)" +
+                " group by d.dimension, d.bucket"
+            )
+            .executeUpdate();
+        entityManager.createNativeQuery("alter table report detach partition " + partition).executeUpdate();
+    }
+
+    @Override
+    public void dropDetachedPartition(YearMonth month) {
+        entityManager.createNativeQuery("drop table if exists " + partitionName(month)).executeUpdate();
+    }
+
+    /**
+     * @return the name of the partition of a month, which is safe to inline in SQL as it is made of digits only.
+     */
+    private static String partitionName(YearMonth month) {
+        return String.format("report_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,37 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Queries on the {@link Report} entity whose results are kept in dedicated regions of the Hibernate query cache, and
+ * invalidated through the update timestamps of the {@code report} table.
+ * <p>
+ * Only use them for specifications with a small set of distinct values, otherwise the regions are filled with entries
+ * which are never read again.
+ */
+public interface ReportRepositoryWithQueryCache {
+    String COUNT_QUERY_REGION = "reportCountQuery";
+
+    String PAGE_QUERY_REGION = "reportPageQuery";
+
+    /**
+     * Count the reports matching the specification, cached in the {@link #COUNT_QUERY_REGION} region.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @return the number of matching reports.
+     */
+    long countCached(Specification<Report> specification);
+
+    /**
+     * Find a page of the reports matching the specification, whose ids are cached in the {@link #PAGE_QUERY_REGION} region
+     * and whose total is cached in the {@link #COUNT_QUERY_REGION} region.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param pageable the pagination information.
+     * @return the page of matching reports.
+     */
+    Page<Report> findAllCached(Specification<Report> specification, Pageable pageable);
+}
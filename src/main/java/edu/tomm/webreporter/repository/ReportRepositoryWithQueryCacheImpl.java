@@ -0,0 +1,68 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import java.util.Collections;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class ReportRepositoryWithQueryCacheImpl implements ReportRepositoryWithQueryCache {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long countCached(Specification<Report> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Report> root = query.from(Report.class);
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root)).orderBy(Collections.emptyList());
+        return cacheable(entityManager.createQuery(query), COUNT_QUERY_REGION).getSingleResult();
+    }
+
+    @Override
+    public Page<Report> findAllCached(Specification<Report> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Report> query = cb.createQuery(Report.class);
+        Root<Report> root = query.from(Report.class);
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        query.select(root);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<Report> typedQuery = cacheable(entityManager.createQuery(query), PAGE_QUERY_REGION);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> countCached(specification));
+    }
+
+    private <T> TypedQuery<T> cacheable(TypedQuery<T> query, String region) {
+        return query.setHint(QueryHints.HINT_CACHEABLE, true).setHint(QueryHints.HINT_CACHE_REGION, region);
+    }
+}
@@ -0,0 +1,22 @@
+package edu.tomm.webreporter.repository;
+
+import edu.tomm.webreporter.domain.Report;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Streaming queries on the {@link Report} entity, backed by a forward-only JDBC cursor.
+ */
+public interface ReportRepositoryWithStreaming {
+    /**
+     * Stream the reports matching the specification, ordered by id, with their user fetched in the same query.
+     * <p>
+     * Rows are read from the database {@code fetchSize} at a time, so the stream must be consumed inside a
+     * transaction and closed once done.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param fetchSize the JDBC fetch size.
+     * @return the matching reports.
+     */
+    Stream<Report> streamAll(Specification<Report> specification, int fetchSize);
+}
@@ -0,0 +1,10 @@
+package edu.tomm.webreporter.repository;
+
+/**
+ * Number of reports of a bucket of a rollup dimension, such as the reports of a user or of a day.
+ */
+public interface ReportRollup {
+    String getBucket();
+
+    Long getReportCount();
+}
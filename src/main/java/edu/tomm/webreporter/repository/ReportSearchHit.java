@@ -0,0 +1,10 @@
+package edu.tomm.webreporter.repository;
+
+/**
+ * A report matching a full-text search, with its relevance: the higher, the more relevant.
+ */
+public interface ReportSearchHit {
+    Long getId();
+
+    Float getRank();
+}
@@ -0,0 +1,60 @@
+package edu.tomm.webreporter.security.jwt;
+
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Outcome of a single-pass JWT validation: either the {@link Authentication} built from the token claims,
+ * or the {@link Failure} cause explaining why the token was rejected.
+ */
+public final class TokenAuthenticationResult {
+
+    /**
+     * Why a token was rejected.
+     */
+    public enum Failure {
+        EXPIRED,
+        UNSUPPORTED,
+        MALFORMED,
+        INVALID_SIGNATURE,
+        INVALID,
+    }
+
+    private final Authentication authentication;
+
+    private final Failure failure;
+
+    private TokenAuthenticationResult(Authentication authentication, Failure failure) {
+        this.authentication = authentication;
+        this.failure = failure;
+    }
+
+    public static TokenAuthenticationResult success(Authentication authentication) {
+        return new TokenAuthenticationResult(Objects.requireNonNull(authentication), null);
+    }
+
+    public static TokenAuthenticationResult failure(Failure failure) {
+        return new TokenAuthenticationResult(null, Objects.requireNonNull(failure));
+    }
+
+    public boolean isValid() {
+        return authentication != null;
+    }
+
+    public Optional<Authentication> getAuthentication() {
+        return Optional.ofNullable(authentication);
+    }
+
+    public Optional<Failure> getFailure() {
+        return Optional.ofNullable(failure);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TokenAuthenticationResult{" +
+            (authentication != null ? "principal=" + authentication.getName() : "failure=" + failure) +
+            "}";
+    }
+}
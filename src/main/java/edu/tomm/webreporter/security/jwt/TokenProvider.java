@@ -1,5 +1,6 @@
 package edu.tomm.webreporter.security.jwt;
 
+import edu.tomm.webreporter.config.ApplicationProperties;
 import edu.tomm.webreporter.management.SecurityMetersService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
@@ -39,7 +40,13 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final VerifiedTokenCache tokenCache;
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -60,6 +67,14 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+
+        ApplicationProperties.Security.TokenCache tokenCacheProperties = applicationProperties.getSecurity().getTokenCache();
+        if (tokenCacheProperties.isEnabled() && tokenCacheProperties.getMaxEntries() > 0) {
+            log.debug("Caching up to {} verified JWTs", tokenCacheProperties.getMaxEntries());
+            this.tokenCache = new VerifiedTokenCache(tokenCacheProperties.getMaxEntries());
+        } else {
+            this.tokenCache = null;
+        }
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -84,43 +99,81 @@ public class TokenProvider {
 
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return buildAuthentication(claims, token);
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
+    public boolean validateToken(String authToken) {
+        return authenticate(authToken).isValid();
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Verify the token signature and build the matching {@link Authentication} in a single parse.
+     * <p>
+     * Rejected tokens are tracked through the {@link SecurityMetersService} counters, exactly like
+     * {@link #validateToken(String)}. When the verified tokens cache is enabled, a token that was already verified
+     * is served from the cache until its expiration, without checking the signature again.
+     *
+     * @param authToken the compact JWT.
+     * @return the authentication, or the cause of the failure.
+     */
+    public TokenAuthenticationResult authenticate(String authToken) {
+        if (tokenCache == null || authToken == null) {
+            return parse(authToken, null);
+        }
+        String digest = VerifiedTokenCache.digest(authToken);
+        Authentication cached = tokenCache.get(digest, System.currentTimeMillis());
+        if (cached != null) {
+            this.securityMetersService.trackTokenCacheHit();
+            return TokenAuthenticationResult.success(cached);
+        }
+        this.securityMetersService.trackTokenCacheMiss();
+        return parse(authToken, digest);
     }
 
-    public boolean validateToken(String authToken) {
+    private TokenAuthenticationResult parse(String authToken, String cacheKey) {
         try {
-            jwtParser.parseClaimsJws(authToken);
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            Authentication authentication = buildAuthentication(claims, authToken);
+            if (cacheKey != null && claims.getExpiration() != null) {
+                tokenCache.put(cacheKey, authentication, claims.getExpiration().getTime());
+            }
 
-            return true;
+            return TokenAuthenticationResult.success(authentication);
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenAuthenticationResult.failure(TokenAuthenticationResult.Failure.EXPIRED);
         } catch (UnsupportedJwtException e) {
             this.securityMetersService.trackTokenUnsupported();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenAuthenticationResult.failure(TokenAuthenticationResult.Failure.UNSUPPORTED);
         } catch (MalformedJwtException e) {
             this.securityMetersService.trackTokenMalformed();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenAuthenticationResult.failure(TokenAuthenticationResult.Failure.MALFORMED);
         } catch (SignatureException e) {
             this.securityMetersService.trackTokenInvalidSignature();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenAuthenticationResult.failure(TokenAuthenticationResult.Failure.INVALID_SIGNATURE);
         } catch (IllegalArgumentException e) { // TODO: should we let it bubble (no catch), to avoid defensive programming and follow the fail-fast principle?
             log.error("Token validation error {}", e.getMessage());
+            return TokenAuthenticationResult.failure(TokenAuthenticationResult.Failure.INVALID);
         }
+    }
+
+    private Authentication buildAuthentication(Claims claims, String token) {
+        Collection<? extends GrantedAuthority> authorities = Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
 
-        return false;
+        User principal = new User(claims.getSubject(), "", authorities);
+
+        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 }
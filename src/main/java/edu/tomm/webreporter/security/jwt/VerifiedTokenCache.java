@@ -0,0 +1,91 @@
+package edu.tomm.webreporter.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Bounded cache of verified tokens, keyed by the SHA-256 digest of the compact JWT.
+ * <p>
+ * Entries are only returned until the {@code exp} claim of their token. Lookups do not lock: once {@code maxEntries}
+ * is reached, the expired entries are evicted, then arbitrary ones, down to nine tenths of the bound. Each lookup
+ * returns a new {@link Authentication}, as callers such as the security context may mutate it.
+ */
+final class VerifiedTokenCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final int maxEntries;
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    Authentication get(String digest, long now) {
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(entry.principal, entry.credentials, entry.authorities);
+    }
+
+    void put(String digest, Authentication authentication, long expiresAt) {
+        if (entries.size() >= maxEntries) {
+            evict(System.currentTimeMillis());
+        }
+        entries.put(digest, new Entry(authentication, expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Iterator<String> digests = entries.keySet().iterator();
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        while (entries.size() > target && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object principal;
+
+        private final Object credentials;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final long expiresAt;
+
+        private Entry(Authentication authentication, long expiresAt) {
+            this.principal = authentication.getPrincipal();
+            this.credentials = authentication.getCredentials();
+            this.authorities = List.copyOf(authentication.getAuthorities());
+            this.expiresAt = expiresAt;
+        }
+    }
+}
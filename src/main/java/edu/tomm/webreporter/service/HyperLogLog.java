@@ -0,0 +1,315 @@
+package edu.tomm.webreporter.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values added to it, with {@value #REGISTERS} registers.
+ * <p>
+ * The relative standard error of the estimates is {@link #STANDARD_ERROR}, about 1.6%: 95% of the estimates are within
+ * 3.3% of the exact count. Sketches are merged by taking the maximum of each register, so the union of sketches built
+ * on different nodes or over different periods is exactly the sketch of the union of their values, and adding a value
+ * again has no effect.
+ * <p>
+ * Sketches with few values keep their non-empty registers only, and switch to a dense array of all the registers once
+ * it gets smaller. The estimate is computed with the estimator of Ertl, which needs no empirical bias correction across
+ * the range of cardinalities. Not thread-safe.
+ */
+class HyperLogLog {
+
+    static final int PRECISION = 12;
+
+    static final int REGISTERS = 1 << PRECISION;
+
+    /**
+     * Relative standard error of the estimates, {@code 1.04 / sqrt(REGISTERS)}.
+     */
+    static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    /**
+     * Number of hash bits left after the register index, the highest register value being {@code Q + 1}.
+     */
+    private static final int Q = 64 - PRECISION;
+
+    private static final int REGISTER_BITS = 6;
+
+    private static final int DENSE_BYTES = REGISTERS * REGISTER_BITS / 8;
+
+    /**
+     * Bytes per register of the sparse encoding: a 2 bytes index and a 1 byte value.
+     */
+    private static final int SPARSE_ENTRY_BYTES = 3;
+
+    private static final int MAX_SPARSE_ENTRIES = DENSE_BYTES / SPARSE_ENTRY_BYTES;
+
+    private static final byte SPARSE = 1;
+
+    private static final byte DENSE = 2;
+
+    private static final double ALPHA_INF = 1 / (2 * Math.log(2));
+
+    /**
+     * Non-empty registers, as {@code index << 8 | value} sorted by index, while the sketch is sparse.
+     */
+    private int[] entries = new int[4];
+
+    private int size;
+
+    /**
+     * All the registers, once the sketch is dense.
+     */
+    private byte[] registers;
+
+    /**
+     * Add a value to the sketch.
+     *
+     * @param value the value, hashed as the UTF-8 bytes of the string.
+     * @return whether a register changed.
+     */
+    boolean add(String value) {
+        return add(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Add a value to the sketch.
+     *
+     * @param value the value, hashed as bytes.
+     * @return whether a register changed.
+     */
+    boolean add(byte[] value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> Q);
+        long remaining = hash << PRECISION;
+        int rank = remaining == 0 ? Q + 1 : Long.numberOfLeadingZeros(remaining) + 1;
+        return update(index, rank);
+    }
+
+    /**
+     * Merge another sketch into this one, which then estimates the number of distinct values added to either.
+     *
+     * @return whether a register changed.
+     */
+    boolean merge(HyperLogLog other) {
+        boolean changed = false;
+        if (other.registers != null) {
+            if (registers == null) {
+                toDense();
+            }
+            for (int index = 0; index < REGISTERS; index++) {
+                changed |= update(index, other.registers[index]);
+            }
+        } else {
+            for (int i = 0; i < other.size; i++) {
+                changed |= update(other.entries[i] >>> 8, other.entries[i] & 0xff);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return the estimated number of distinct values added to the sketch.
+     */
+    long estimate() {
+        int[] histogram = new int[Q + 2];
+        if (registers != null) {
+            for (byte register : registers) {
+                histogram[register]++;
+            }
+        } else {
+            histogram[0] = REGISTERS - size;
+            for (int i = 0; i < size; i++) {
+                histogram[entries[i] & 0xff]++;
+            }
+        }
+        if (histogram[0] == REGISTERS) {
+            return 0;
+        }
+        double m = REGISTERS;
+        double z = m * tau((m - histogram[Q + 1]) / m);
+        for (int k = Q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma(histogram[0] / m);
+        return Math.round(ALPHA_INF * m * m / z);
+    }
+
+    /**
+     * @return the sketch in its smallest encoding: 3 bytes per non-empty register, and at most 3074 bytes.
+     */
+    byte[] toBytes() {
+        if (registers == null) {
+            byte[] bytes = new byte[2 + size * SPARSE_ENTRY_BYTES];
+            bytes[0] = SPARSE;
+            bytes[1] = PRECISION;
+            for (int i = 0, offset = 2; i < size; i++, offset += SPARSE_ENTRY_BYTES) {
+                int index = entries[i] >>> 8;
+                bytes[offset] = (byte) (index >>> 8);
+                bytes[offset + 1] = (byte) index;
+                bytes[offset + 2] = (byte) entries[i];
+            }
+            return bytes;
+        }
+        byte[] bytes = new byte[2 + DENSE_BYTES];
+        bytes[0] = DENSE;
+        bytes[1] = PRECISION;
+        for (int index = 0; index < REGISTERS; index++) {
+            int bit = index * REGISTER_BITS;
+            int word = ((bytes[2 + bit / 8] & 0xff) << 8) | (bit / 8 + 1 < DENSE_BYTES ? bytes[3 + bit / 8] & 0xff : 0);
+            word |= registers[index] << (16 - REGISTER_BITS - bit % 8);
+            bytes[2 + bit / 8] = (byte) (word >>> 8);
+            if (bit / 8 + 1 < DENSE_BYTES) {
+                bytes[3 + bit / 8] = (byte) word;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Read a sketch written by {@link #toBytes()}.
+     *
+     * @throws IllegalArgumentException if the bytes are not a sketch of the same precision.
+     */
+    static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length < 2 || bytes[1] != PRECISION) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes[0] == SPARSE && (bytes.length - 2) % SPARSE_ENTRY_BYTES == 0) {
+            for (int offset = 2; offset < bytes.length; offset += SPARSE_ENTRY_BYTES) {
+                int index = ((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff);
+                int rank = bytes[offset + 2] & 0xff;
+                if (index >= REGISTERS || rank > Q + 1) {
+                    throw new IllegalArgumentException("Invalid HyperLogLog register " + index);
+                }
+                sketch.update(index, rank);
+            }
+            return sketch;
+        }
+        if (bytes[0] == DENSE && bytes.length == 2 + DENSE_BYTES) {
+            sketch.registers = new byte[REGISTERS];
+            for (int index = 0; index < REGISTERS; index++) {
+                int bit = index * REGISTER_BITS;
+                int word = ((bytes[2 + bit / 8] & 0xff) << 8) | (bit / 8 + 1 < DENSE_BYTES ? bytes[3 + bit / 8] & 0xff : 0);
+                int rank = (word >>> (16 - REGISTER_BITS - bit % 8)) & ((1 << REGISTER_BITS) - 1);
+                if (rank > Q + 1) {
+                    throw new IllegalArgumentException("Invalid HyperLogLog register " + index);
+                }
+                sketch.registers[index] = (byte) rank;
+            }
+            return sketch;
+        }
+        throw new IllegalArgumentException("Unknown HyperLogLog encoding " + bytes[0]);
+    }
+
+    private boolean update(int index, int rank) {
+        if (rank == 0) {
+            return false;
+        }
+        if (registers != null) {
+            if (registers[index] >= rank) {
+                return false;
+            }
+            registers[index] = (byte) rank;
+            return true;
+        }
+        // Entries are searched with a zero value, which no entry has, so an existing register is at the insertion point
+        int position = -Arrays.binarySearch(entries, 0, size, index << 8) - 1;
+        if (position < size && entries[position] >>> 8 == index) {
+            if ((entries[position] & 0xff) >= rank) {
+                return false;
+            }
+            entries[position] = index << 8 | rank;
+            return true;
+        }
+        if (size == MAX_SPARSE_ENTRIES) {
+            toDense();
+            return update(index, rank);
+        }
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, Math.min(size * 2, MAX_SPARSE_ENTRIES));
+        }
+        System.arraycopy(entries, position, entries, position + 1, size - position);
+        entries[position] = index << 8 | rank;
+        size++;
+        return true;
+    }
+
+    private void toDense() {
+        registers = new byte[REGISTERS];
+        for (int i = 0; i < size; i++) {
+            registers[entries[i] >>> 8] = (byte) (entries[i] & 0xff);
+        }
+        entries = null;
+        size = 0;
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (previous != z);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (previous != z);
+        return z / 3;
+    }
+
+    /**
+     * 64-bit hash of MurmurHash3, with the block mixing and finalization of its x64 variant.
+     */
+    static long hash64(byte[] data) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        long h = data.length;
+        int blocks = data.length / 8;
+        for (int i = 0; i < blocks; i++) {
+            long k = 0;
+            for (int b = 7; b >= 0; b--) {
+                k = (k << 8) | (data[i * 8 + b] & 0xffL);
+            }
+            k *= c1;
+            k = Long.rotateLeft(k, 31);
+            k *= c2;
+            h ^= k;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long k = 0;
+        for (int b = data.length - 1; b >= blocks * 8; b--) {
+            k = (k << 8) | (data[b] & 0xffL);
+        }
+        if (data.length % 8 != 0) {
+            k *= c1;
+            k = Long.rotateLeft(k, 31);
+            k *= c2;
+            h ^= k;
+        }
+        h ^= data.length;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
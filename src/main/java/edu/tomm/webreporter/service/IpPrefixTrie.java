@@ -0,0 +1,259 @@
+package edu.tomm.webreporter.service;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import edu.tomm.webreporter.domain.IpAddresses;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * IP addresses of identified items, in their binary form, see {@link IpAddresses}, stored in a path-compressed binary
+ * radix trie whose nodes count the addresses below them: the number of addresses of a CIDR block, and the counts of
+ * its subnets, are read without visiting the addresses.
+ * <p>
+ * Every internal node has two children, so the trie has less than two nodes per distinct address. Each item id is
+ * mapped to the leaf of its address, in a map of primitive keys, so that an item is removed by id without keeping a
+ * copy of its address. Not thread-safe.
+ */
+class IpPrefixTrie {
+
+    private final LongObjectHashMap<Node> leaves = new LongObjectHashMap<>();
+
+    private Node root;
+
+    /**
+     * Add the address of an item, replacing its previous address if the item was already added.
+     */
+    void add(long id, byte[] address) {
+        remove(id);
+        leaves.put(id, add(address));
+    }
+
+    /**
+     * Remove the address of an item.
+     *
+     * @return {@code false} if the item was not in the trie.
+     */
+    boolean remove(long id) {
+        Node leaf = leaves.remove(id);
+        if (leaf == null) {
+            return false;
+        }
+        remove(leaf.prefix);
+        return true;
+    }
+
+    /**
+     * @return the number of items.
+     */
+    int size() {
+        return leaves.size();
+    }
+
+    /**
+     * Add an occurrence of an address.
+     *
+     * @return the leaf of the address, which is kept until its last occurrence is removed.
+     */
+    private Node add(byte[] address) {
+        if (root == null) {
+            root = new Node(address, IpAddresses.BITS, 1);
+            return root;
+        }
+        Node parent = null;
+        Node node = root;
+        while (true) {
+            int common = commonPrefixLength(node.prefix, address, node.length);
+            if (common < node.length) {
+                // The address leaves the path of the node: insert a branching node above it
+                Node branch = new Node(node.prefix, common, node.count + 1);
+                Node leaf = new Node(address, IpAddresses.BITS, 1);
+                branch.children[bit(node.prefix, common)] = node;
+                branch.children[bit(address, common)] = leaf;
+                replace(parent, node, branch);
+                return leaf;
+            }
+            node.count++;
+            if (node.length == IpAddresses.BITS) {
+                return node;
+            }
+            int bit = bit(address, node.length);
+            if (node.children[bit] == null) {
+                node.children[bit] = new Node(address, IpAddresses.BITS, 1);
+                return node.children[bit];
+            }
+            parent = node;
+            node = node.children[bit];
+        }
+    }
+
+    /**
+     * Remove an occurrence of an address.
+     *
+     * @return {@code false} if the address was not in the trie.
+     */
+    private boolean remove(byte[] address) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        while (node != null && commonPrefixLength(node.prefix, address, node.length) == node.length) {
+            path.push(node);
+            if (node.length == IpAddresses.BITS) {
+                break;
+            }
+            node = node.children[bit(address, node.length)];
+        }
+        if (path.isEmpty() || path.peek().length != IpAddresses.BITS) {
+            return false;
+        }
+        for (Node ancestor : path) {
+            ancestor.count--;
+        }
+        Node leaf = path.pop();
+        if (leaf.count > 0) {
+            return true;
+        }
+        Node parent = path.poll();
+        if (parent == null) {
+            root = null;
+            return true;
+        }
+        // The parent is left with a single child, which takes its place
+        parent.children[bit(address, parent.length)] = null;
+        Node sibling = parent.children[0] != null ? parent.children[0] : parent.children[1];
+        replace(path.peek(), parent, sibling);
+        return true;
+    }
+
+    /**
+     * @return the number of addresses of the block.
+     */
+    long count(IpAddresses.Range block) {
+        byte[] prefix = block.getFirst();
+        int length = block.getPrefixLength();
+        Node node = root;
+        while (node != null) {
+            int compared = Math.min(node.length, length);
+            if (commonPrefixLength(node.prefix, prefix, compared) < compared) {
+                return 0;
+            }
+            if (node.length >= length) {
+                return node.count;
+            }
+            node = node.children[bit(prefix, node.length)];
+        }
+        return 0;
+    }
+
+    /**
+     * Count the addresses of a block by subnet.
+     *
+     * @param block the block to aggregate.
+     * @param subnetLength the prefix length of the subnets, in the IPv6 address space, at least the one of the block.
+     * @return the non-empty subnets, in address order.
+     */
+    List<SubnetCount> countBySubnet(IpAddresses.Range block, int subnetLength) {
+        List<SubnetCount> subnets = new ArrayList<>();
+        byte[] prefix = block.getFirst();
+        int length = block.getPrefixLength();
+        Node node = root;
+        while (node != null && node.length < length) {
+            if (commonPrefixLength(node.prefix, prefix, node.length) < node.length) {
+                return subnets;
+            }
+            node = node.children[bit(prefix, node.length)];
+        }
+        if (node == null || commonPrefixLength(node.prefix, prefix, length) < length) {
+            return subnets;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node next = pending.pop();
+            if (next.length >= subnetLength) {
+                // Sibling subtrees differ before their branching bit, so each subnet is reached exactly once
+                subnets.add(new SubnetCount(new IpAddresses.Range(next.prefix, subnetLength), next.count));
+            } else {
+                pending.push(next.children[1]);
+                pending.push(next.children[0]);
+            }
+        }
+        return subnets;
+    }
+
+    void clear() {
+        leaves.clear();
+        root = null;
+    }
+
+    private void replace(Node parent, Node node, Node replacement) {
+        if (parent == null) {
+            root = replacement;
+        } else {
+            parent.children[parent.children[0] == node ? 0 : 1] = replacement;
+        }
+    }
+
+    private static int bit(byte[] address, int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    /**
+     * @return the length of the common prefix of two addresses, up to {@code maxLength} bits.
+     */
+    private static int commonPrefixLength(byte[] a, byte[] b, int maxLength) {
+        for (int i = 0; i * 8 < maxLength; i++) {
+            int difference = (a[i] ^ b[i]) & 0xff;
+            if (difference != 0) {
+                return Math.min(maxLength, i * 8 + Integer.numberOfLeadingZeros(difference) - 24);
+            }
+        }
+        return maxLength;
+    }
+
+    /**
+     * Number of addresses of a subnet.
+     */
+    static final class SubnetCount {
+
+        private final IpAddresses.Range subnet;
+
+        private final long count;
+
+        SubnetCount(IpAddresses.Range subnet, long count) {
+            this.subnet = subnet;
+            this.count = count;
+        }
+
+        IpAddresses.Range getSubnet() {
+            return subnet;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    private static final class Node {
+
+        /**
+         * An address of the subtree, of which only the first {@link #length} bits are shared by the subtree.
+         */
+        private final byte[] prefix;
+
+        private final int length;
+
+        private final Node[] children = new Node[2];
+
+        /**
+         * Number of occurrences of the addresses of the subtree.
+         */
+        private long count;
+
+        private Node(byte[] prefix, int length, long count) {
+            this.prefix = prefix;
+            this.length = length;
+            this.count = count;
+        }
+    }
+}
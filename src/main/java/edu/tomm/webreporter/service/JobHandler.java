@@ -0,0 +1,34 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.domain.Job;
+
+/**
+ * Executor of the background {@link Job}s of a type.
+ * <p>
+ * A job is executed by successive calls to {@link #runChunk(Job)}, each in the transaction which saves the job: the
+ * changes of a chunk and the checkpoint after it commit together, so a job resumed by another node, after its node
+ * stopped, continues after the last committed chunk. A chunk should be short, much shorter than
+ * {@code application.jobs.stale-after}, as cancellations are only checked between chunks.
+ */
+public interface JobHandler {
+    /**
+     * @return the type of the jobs executed by this handler.
+     */
+    String getType();
+
+    /**
+     * Execute the next chunk of a job, from its checkpoint.
+     *
+     * @param job the job, whose checkpoint, processed count, and total count the handler updates. When completing it,
+     * the handler may also set its error, to report what it left undone.
+     * @return {@code true} if the job is complete, {@code false} if it has more chunks to execute.
+     */
+    boolean runChunk(Job job);
+
+    /**
+     * Called once a job is completed, cancelled, or failed, outside of any transaction, on the node which ended it.
+     *
+     * @param job the ended job.
+     */
+    default void onFinished(Job job) {}
+}
@@ -0,0 +1,167 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.domain.Job;
+import edu.tomm.webreporter.domain.enumeration.JobStatus;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Background runner of the {@link Job}s: claims jobs for its {@code workers} threads, each running the chunks of a
+ * job through {@link JobService#runChunk(Long)} until it ends, then waits for the poll interval or for a job to be
+ * submitted or to end.
+ * <p>
+ * The jobs run on their own bounded pool, away from the request threads and from the {@code taskExecutor}. On
+ * shutdown, each worker finishes its current chunk and releases its job, which any node then resumes from its
+ * checkpoint.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.jobs", name = "runner-enabled", havingValue = "true", matchIfMissing = true)
+public class JobRunner implements SmartLifecycle {
+
+    /**
+     * Time given to the workers to finish their current chunk on shutdown.
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Logger log = LoggerFactory.getLogger(JobRunner.class);
+
+    private final JobService jobService;
+
+    private final int workers;
+
+    private final long pollIntervalMillis;
+
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+
+    private final Object signal = new Object();
+
+    private boolean signalled;
+
+    private volatile boolean running;
+
+    private Thread dispatcherThread;
+
+    private ExecutorService workerPool;
+
+    public JobRunner(JobService jobService, ApplicationProperties applicationProperties) {
+        this.jobService = jobService;
+        this.workers = applicationProperties.getJobs().getWorkers();
+        this.pollIntervalMillis = applicationProperties.getJobs().getPollInterval().toMillis();
+    }
+
+    /**
+     * Claim jobs at once, without waiting for the poll interval.
+     */
+    public void wakeUp() {
+        synchronized (signal) {
+            signalled = true;
+            signal.notifyAll();
+        }
+    }
+
+    private void dispatch() {
+        while (running) {
+            int idleWorkers = workers - busyWorkers.get();
+            if (idleWorkers > 0) {
+                List<Long> ids = List.of();
+                try {
+                    ids = jobService.claim(idleWorkers);
+                } catch (RuntimeException e) {
+                    log.warn("Could not claim jobs: {}", e.getMessage(), e);
+                }
+                for (Long id : ids) {
+                    busyWorkers.incrementAndGet();
+                    workerPool.execute(() -> run(id));
+                }
+            }
+            try {
+                synchronized (signal) {
+                    if (!signalled) {
+                        signal.wait(pollIntervalMillis);
+                    }
+                    signalled = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void run(Long id) {
+        try {
+            while (running) {
+                Optional<Job> job = jobService.runChunk(id);
+                if (job.isEmpty()) {
+                    log.warn("Job {} was taken over by another node", id);
+                    return;
+                }
+                if (job.get().getStatus() != JobStatus.RUNNING) {
+                    jobService.onFinished(job.get());
+                    return;
+                }
+            }
+            jobService.release(id);
+        } catch (RuntimeException e) {
+            log.warn("Job {} failed: {}", id, e.getMessage(), e);
+            try {
+                jobService.fail(id, e.toString()).ifPresent(jobService::onFinished);
+            } catch (RuntimeException failure) {
+                log.warn("Could not fail Job {}: {}", id, failure.getMessage(), failure);
+            }
+        } finally {
+            busyWorkers.decrementAndGet();
+            wakeUp();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("job-worker-");
+        threadFactory.setDaemon(true);
+        workerPool = Executors.newFixedThreadPool(workers, threadFactory);
+        dispatcherThread = new Thread(this::dispatch, "job-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+            try {
+                dispatcherThread.join(pollIntervalMillis + 5000);
+                workerPool.shutdown();
+                if (!workerPool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Jobs still running on shutdown will be resumed once their heartbeat is stale");
+                }
+            } catch (InterruptedException e) {
+                workerPool.shutdown();
+                Thread.currentThread().interrupt();
+            }
+            dispatcherThread = null;
+            workerPool = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
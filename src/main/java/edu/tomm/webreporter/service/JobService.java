@@ -0,0 +1,261 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.config.Constants;
+import edu.tomm.webreporter.domain.Job;
+import edu.tomm.webreporter.domain.enumeration.JobStatus;
+import edu.tomm.webreporter.repository.JobRepository;
+import edu.tomm.webreporter.security.AuthoritiesConstants;
+import edu.tomm.webreporter.security.SecurityUtils;
+import edu.tomm.webreporter.service.dto.JobDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service Implementation for managing {@link Job}.
+ * <p>
+ * Jobs are queued in the database, and claimed by the {@link JobRunner} of any node, which executes them chunk after
+ * chunk through their {@link JobHandler}. A job is owned by a single node at a time: each chunk locks the job row and
+ * checks its owner, and a job whose node stopped without releasing it is claimed again once its heartbeat is stale.
+ * <p>
+ * Users see, and cancel, their own jobs, and administrators all of them.
+ */
+@Service
+@Transactional
+public class JobService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(JobService.class);
+
+    private final JobRepository jobRepository;
+
+    private final ObjectProvider<JobHandler> jobHandlers;
+
+    private final ObjectProvider<JobRunner> jobRunner;
+
+    private final Duration staleAfter;
+
+    /**
+     * Identifier of this node in the {@code owner} of the jobs it runs, unique to each start of the application.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public JobService(
+        JobRepository jobRepository,
+        ObjectProvider<JobHandler> jobHandlers,
+        ObjectProvider<JobRunner> jobRunner,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jobRepository = jobRepository;
+        this.jobHandlers = jobHandlers;
+        this.jobRunner = jobRunner;
+        this.staleAfter = applicationProperties.getJobs().getStaleAfter();
+    }
+
+    /**
+     * Queue a job, which starts once the transaction commits.
+     *
+     * @param type the type of the job.
+     * @param parameters the parameters of the job, as read by its handler.
+     * @return the queued job.
+     * @throws IllegalArgumentException if no handler executes the jobs of this type.
+     */
+    public JobDTO submit(String type, String parameters) {
+        if (findHandler(type).isEmpty()) {
+            throw new IllegalArgumentException("No handler of the jobs of type " + type);
+        }
+        Job job = new Job().type(type).parameters(parameters).createdBy(SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM));
+        job = jobRepository.save(job);
+        log.debug("Queued Job : {}", job);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jobRunner.ifAvailable(JobRunner::wakeUp);
+                }
+            }
+        );
+        return new JobDTO(job);
+    }
+
+    /**
+     * Get the jobs visible to the current user.
+     *
+     * @param pageable the pagination information.
+     * @return the list of jobs.
+     */
+    @Transactional(readOnly = true)
+    public Page<JobDTO> findAll(Pageable pageable) {
+        log.debug("Request to get all Jobs");
+        if (SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+            return jobRepository.findAll(pageable).map(JobDTO::new);
+        }
+        return jobRepository.findAllByCreatedBy(SecurityUtils.getCurrentUserLogin().orElse(null), pageable).map(JobDTO::new);
+    }
+
+    /**
+     * Get the "id" job, if it is visible to the current user.
+     *
+     * @param id the id of the job.
+     * @return the job.
+     */
+    @Transactional(readOnly = true)
+    public Optional<JobDTO> findOne(Long id) {
+        log.debug("Request to get Job : {}", id);
+        return jobRepository.findById(id).filter(JobService::isVisible).map(JobDTO::new);
+    }
+
+    /**
+     * Cancel the "id" job, if it is visible to the current user. A queued job is cancelled at once, and a running job
+     * after its current chunk. Ended jobs are left as they are.
+     *
+     * @param id the id of the job.
+     * @return the job.
+     */
+    public Optional<JobDTO> cancel(Long id) {
+        log.debug("Request to cancel Job : {}", id);
+        return jobRepository
+            .findByIdForUpdate(id)
+            .filter(JobService::isVisible)
+            .map(job -> {
+                if (job.getStatus() == JobStatus.QUEUED && job.getStartedDate() == null) {
+                    finish(job, JobStatus.CANCELLED, null);
+                } else if (job.getStatus() == JobStatus.QUEUED || job.getStatus() == JobStatus.RUNNING) {
+                    // A job which already ran some chunks ends on its node, which calls its handler
+                    job.setCancelRequested(true);
+                }
+                return new JobDTO(job);
+            });
+    }
+
+    /**
+     * Claim the oldest queued jobs, and the running jobs abandoned by their node, for this node.
+     *
+     * @param limit the maximum number of jobs to claim.
+     * @return the ids of the claimed jobs, to be run by {@link #runChunk(Long)}.
+     */
+    public List<Long> claim(int limit) {
+        Instant now = Instant.now();
+        List<Long> ids = new ArrayList<>();
+        for (Job job : jobRepository.findClaimableForUpdate(now.minus(staleAfter), PageRequest.of(0, limit))) {
+            if (findHandler(job.getType()).isEmpty()) {
+                log.warn("Failing Job {}, which has no handler", job.getId());
+                finish(job, JobStatus.FAILED, "No handler of the jobs of type " + job.getType());
+                continue;
+            }
+            if (job.getStatus() == JobStatus.RUNNING) {
+                log.warn("Resuming Job {}, abandoned by node {} at checkpoint {}", job.getId(), job.getOwner(), job.getCheckpoint());
+            }
+            job.setStatus(JobStatus.RUNNING);
+            job.setOwner(nodeId);
+            job.setHeartbeatDate(now);
+            if (job.getStartedDate() == null) {
+                job.setStartedDate(now);
+            }
+            ids.add(job.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Run the next chunk of a job claimed by this node, or end it if its cancellation was requested.
+     *
+     * @param id the id of the job.
+     * @return the job after the chunk, or empty if this node does not own the job anymore.
+     */
+    public Optional<Job> runChunk(Long id) {
+        Optional<Job> owned = findOwnedForUpdate(id);
+        owned.ifPresent(job -> {
+            if (job.isCancelRequested()) {
+                finish(job, JobStatus.CANCELLED, null);
+                return;
+            }
+            JobHandler handler = findHandler(job.getType()).orElseThrow(() -> new IllegalStateException("No handler of " + job));
+            boolean complete = handler.runChunk(job);
+            job.setHeartbeatDate(Instant.now());
+            if (complete) {
+                finish(job, JobStatus.COMPLETED, job.getError());
+            }
+        });
+        return owned;
+    }
+
+    /**
+     * Fail a job claimed by this node, after one of its chunks threw an exception.
+     *
+     * @param id the id of the job.
+     * @param error the message of the error.
+     * @return the failed job, or empty if this node does not own the job anymore.
+     */
+    public Optional<Job> fail(Long id, String error) {
+        Optional<Job> owned = findOwnedForUpdate(id);
+        owned.ifPresent(job ->
+            finish(job, JobStatus.FAILED, error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error)
+        );
+        return owned;
+    }
+
+    /**
+     * Queue again a job claimed by this node, when it stops, so that any node resumes it without waiting for its
+     * heartbeat to be stale.
+     *
+     * @param id the id of the job.
+     */
+    public void release(Long id) {
+        findOwnedForUpdate(id)
+            .ifPresent(job -> {
+                log.info("Releasing Job {} at checkpoint {}", job.getId(), job.getCheckpoint());
+                job.setStatus(JobStatus.QUEUED);
+                job.setOwner(null);
+            });
+    }
+
+    /**
+     * Notify the handler of an ended job.
+     *
+     * @param job the job, as returned by {@link #runChunk(Long)} or {@link #fail(Long, String)}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onFinished(Job job) {
+        log.info("Job {} ended {}, after {} items", job.getId(), job.getStatus(), job.getProcessedCount());
+        findHandler(job.getType()).ifPresent(handler -> handler.onFinished(job));
+    }
+
+    private Optional<Job> findOwnedForUpdate(Long id) {
+        return jobRepository.findByIdForUpdate(id).filter(job -> job.getStatus() == JobStatus.RUNNING && nodeId.equals(job.getOwner()));
+    }
+
+    private Optional<JobHandler> findHandler(String type) {
+        return jobHandlers.orderedStream().filter(handler -> handler.getType().equals(type)).findFirst();
+    }
+
+    private static void finish(Job job, JobStatus status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setOwner(null);
+        job.setFinishedDate(Instant.now());
+    }
+
+    private static boolean isVisible(Job job) {
+        return (
+            SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN) ||
+            SecurityUtils.getCurrentUserLogin().filter(job.getCreatedBy()::equals).isPresent()
+        );
+    }
+}
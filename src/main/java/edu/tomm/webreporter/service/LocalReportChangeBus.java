@@ -0,0 +1,50 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.cache.CacheInvalidationBus;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link ReportChangeBus} of a single node deployment, which delivers the changes to the listeners of this node once
+ * the relay transaction has committed.
+ */
+@Service
+@ConditionalOnProperty(name = CacheInvalidationBus.BUS_PROPERTY, havingValue = "none", matchIfMissing = true)
+public class LocalReportChangeBus implements ReportChangeBus {
+
+    private final ReportChangeListeners listeners;
+
+    public LocalReportChangeBus(ObjectProvider<ReportChangeListener> listeners) {
+        this.listeners = new ReportChangeListeners(listeners);
+    }
+
+    @Override
+    public void consume(List<ReportOutboxMessage> messages) {
+        List<ReportOutboxMessage> batch = List.copyOf(messages);
+        afterCommit(() -> listeners.deliver(batch));
+    }
+
+    @Override
+    public void publishMissed() {
+        afterCommit(listeners::missed);
+    }
+
+    private static void afterCommit(Runnable delivery) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            delivery.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delivery.run();
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,163 @@
+package edu.tomm.webreporter.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tomm.webreporter.cache.CacheInvalidationBus;
+import edu.tomm.webreporter.cache.PostgresNotificationListener;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link ReportChangeBus} based on PostgreSQL {@code LISTEN}/{@code NOTIFY}, like the cache invalidation bus.
+ * <p>
+ * Each batch is sent with {@code pg_notify} in the relay transaction, split into notifications below the payload limit
+ * of PostgreSQL, so it is only delivered if the relay commits. Every node, including the relaying one, applies the
+ * notifications it receives. A change too large for a notification, an unreadable notification or a reconnection of the
+ * listener resynchronizes the listeners instead.
+ */
+@Service
+@ConditionalOnProperty(name = CacheInvalidationBus.BUS_PROPERTY, havingValue = "postgresql")
+public class PostgresReportChangeBus implements ReportChangeBus, SmartLifecycle {
+
+    private static final String CHANGES = "changes";
+
+    private static final String CHANGES_PREFIX = "{\"" + CHANGES + "\":[";
+
+    private static final String CHANGES_SUFFIX = "]}";
+
+    private static final String MISSED_PAYLOAD = "{\"missed\":true}";
+
+    private static final TypeReference<List<ReportOutboxMessage>> MESSAGES_TYPE = new TypeReference<>() {};
+
+    private final Logger log = LoggerFactory.getLogger(PostgresReportChangeBus.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ReportChangeListeners listeners;
+
+    private final String channel;
+
+    private final PostgresNotificationListener listener;
+
+    public PostgresReportChangeBus(
+        DataSourceProperties dataSourceProperties,
+        JdbcTemplate jdbcTemplate,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        ObjectProvider<ReportChangeListener> listeners
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.listeners = new ReportChangeListeners(listeners);
+        this.channel = applicationProperties.getReportOutbox().getChannel();
+        this.listener = new PostgresNotificationListener(dataSourceProperties, channel, this::receive, this.listeners::missed);
+    }
+
+    @Override
+    @Transactional
+    public void consume(List<ReportOutboxMessage> messages) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(CHANGES_PREFIX);
+        int payloadBytes = CHANGES_PREFIX.length();
+        for (ReportOutboxMessage message : messages) {
+            String json = write(message);
+            int jsonBytes = json.getBytes(StandardCharsets.UTF_8).length;
+            if (CHANGES_PREFIX.length() + jsonBytes + CHANGES_SUFFIX.length() >= PostgresNotificationListener.MAX_PAYLOAD_BYTES) {
+                // A description of several kilobytes, which no notification can hold
+                log.debug("Report change {} is too large to be published, resynchronizing the listeners", message);
+                notify(MISSED_PAYLOAD);
+                return;
+            }
+            if (payloadBytes > CHANGES_PREFIX.length()) {
+                if (payloadBytes + 1 + jsonBytes + CHANGES_SUFFIX.length() >= PostgresNotificationListener.MAX_PAYLOAD_BYTES) {
+                    payloads.add(payload.append(CHANGES_SUFFIX).toString());
+                    payload.setLength(CHANGES_PREFIX.length());
+                    payloadBytes = CHANGES_PREFIX.length();
+                } else {
+                    payload.append(',');
+                    payloadBytes++;
+                }
+            }
+            payload.append(json);
+            payloadBytes += jsonBytes;
+        }
+        if (payloadBytes > CHANGES_PREFIX.length()) {
+            payloads.add(payload.append(CHANGES_SUFFIX).toString());
+        }
+        log.debug("Publishing {} report changes in {} notifications", messages.size(), payloads.size());
+        payloads.forEach(this::notify);
+    }
+
+    @Override
+    @Transactional
+    public void publishMissed() {
+        notify(MISSED_PAYLOAD);
+    }
+
+    private String write(ReportOutboxMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the report change " + message, e);
+        }
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("select pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+    }
+
+    private void receive(String payload) {
+        List<ReportOutboxMessage> messages;
+        try {
+            JsonNode notification = objectMapper.readTree(payload);
+            if (!notification.has(CHANGES)) {
+                listeners.missed();
+                return;
+            }
+            messages = objectMapper.convertValue(notification.get(CHANGES), MESSAGES_TYPE);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Could not read report changes, resynchronizing the listeners: {}", e.getMessage());
+            listeners.missed();
+            return;
+        }
+        listeners.deliver(messages);
+    }
+
+    /**
+     * @return whether the node is currently listening to the report changes.
+     */
+    public boolean isListening() {
+        return listener.isListening();
+    }
+
+    @Override
+    public void start() {
+        listener.start("report-change-listener");
+    }
+
+    @Override
+    public void stop() {
+        listener.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return listener.isRunning();
+    }
+}
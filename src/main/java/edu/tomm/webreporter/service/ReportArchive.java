@@ -0,0 +1,626 @@
+package edu.tomm.webreporter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.criteria.ReportCriteriaMatcher;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import tech.jhipster.service.filter.RangeFilter;
+
+/**
+ * Archive of the old {@link Report} entities, in immutable segment files of a directory.
+ * <p>
+ * A segment is a data file of gzip-compressed blocks of up to {@value #BLOCK_SIZE} reports as NDJSON, and a sparse
+ * index file holding the offset, the number of reports, and the ranges of ids and creation times of each block. Only
+ * the indexes are kept in memory: queries only decompress the blocks whose ranges may match, and counts filtered by id
+ * or creation time only are served from the indexes.
+ * <p>
+ * Segments are written to the {@code pending} subdirectory, then published to the directory once their reports are
+ * deleted from the database, so that a report is never read from both. Archived reports are read-only.
+ */
+@Service
+public class ReportArchive {
+
+    static final int BLOCK_SIZE = 1000;
+
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+
+    private static final String INDEX_SUFFIX = ".index";
+
+    private static final int INDEX_MAGIC = 0x52504131;
+
+    /**
+     * Age under which the modification time of the directory is not trusted, as it only has the resolution of the file
+     * system, and segments published within the same tick would not change it.
+     */
+    private static final long MODIFIED_TIME_RESOLUTION_MILLIS = 2000;
+
+    /**
+     * Keys of the sorts of the archived reports: the id and the creation time, which are never null, and which Java and
+     * the databases order the same way, unlike the texts, whose order depends on the collation of the database.
+     */
+    private static final Map<String, Function<ReportDTO, Comparable<?>>> SORT_KEYS = Map.of(
+        "id",
+        ReportDTO::getId,
+        "createdAt",
+        ReportDTO::getCreatedAt
+    );
+
+    private final Logger log = LoggerFactory.getLogger(ReportArchive.class);
+
+    private final Path directory;
+
+    private final Path pendingDirectory;
+
+    private final ObjectWriter reportWriter;
+
+    private final ObjectReader reportReader;
+
+    private volatile List<Segment> segments = List.of();
+
+    private volatile FileTime loadedModifiedTime;
+
+    public ReportArchive(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.directory = Paths.get(applicationProperties.getReportArchive().getDirectory());
+        this.pendingDirectory = directory.resolve("pending");
+        this.reportWriter = objectMapper.writerFor(ReportDTO.class);
+        this.reportReader = objectMapper.readerFor(ReportDTO.class);
+    }
+
+    /**
+     * Write reports to a new pending segment, which is not read until it is published.
+     *
+     * @param reports the reports, which all have an id and a creation time.
+     * @return the name of the segment.
+     */
+    String write(List<ReportDTO> reports) {
+        String name = String.format("reports-%d-%d", System.currentTimeMillis(), reports.get(0).getId());
+        try {
+            Files.createDirectories(pendingDirectory);
+            List<Block> blocks = new ArrayList<>();
+            try (
+                FileChannel channel = FileChannel.open(
+                    pendingDirectory.resolve(name + DATA_SUFFIX),
+                    StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE
+                )
+            ) {
+                long offset = 0;
+                for (int start = 0; start < reports.size(); start += BLOCK_SIZE) {
+                    List<ReportDTO> block = reports.subList(start, Math.min(start + BLOCK_SIZE, reports.size()));
+                    byte[] bytes = compress(block);
+                    writeFully(channel, bytes);
+                    blocks.add(Block.of(offset, bytes.length, block));
+                    offset += bytes.length;
+                }
+                channel.force(true);
+            }
+            // The index is written last, a data file without an index being an interrupted write
+            try (
+                FileChannel channel = FileChannel.open(
+                    pendingDirectory.resolve(name + INDEX_SUFFIX),
+                    StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE
+                )
+            ) {
+                writeFully(channel, writeIndex(blocks));
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            discard(name);
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Archived {} reports to the pending segment {}", reports.size(), name);
+        return name;
+    }
+
+    /**
+     * Move a pending segment to the directory, where it is read. A segment which is already published is left as is,
+     * so that the nodes recovering the same pending segment do not fail.
+     */
+    void publish(String name) {
+        // The index is moved last, so that a segment is never read without its data
+        for (String suffix : List.of(DATA_SUFFIX, INDEX_SUFFIX)) {
+            try {
+                Files.move(pendingDirectory.resolve(name + suffix), directory.resolve(name + suffix), StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                log.debug("File {} of the pending segment {} was published concurrently", suffix, name);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        loadedModifiedTime = null;
+    }
+
+    /**
+     * Delete a pending segment, whose reports were not deleted from the database.
+     */
+    void discard(String name) {
+        try {
+            Files.deleteIfExists(pendingDirectory.resolve(name + INDEX_SUFFIX));
+            Files.deleteIfExists(pendingDirectory.resolve(name + DATA_SUFFIX));
+        } catch (IOException e) {
+            log.warn("Could not delete the pending segment {}: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * List the pending segments, left by a node stopped before it published or discarded them, and delete the data
+     * files of the interrupted writes. Must not run concurrently with {@link #write(List)}.
+     *
+     * @return the pending segments.
+     */
+    List<Segment> findPendingSegments() {
+        if (!Files.isDirectory(pendingDirectory)) {
+            return List.of();
+        }
+        List<Segment> pending = load(pendingDirectory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(pendingDirectory, "*" + DATA_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - DATA_SUFFIX.length());
+                if (pending.stream().noneMatch(segment -> segment.getName().equals(name))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return pending;
+    }
+
+    /**
+     * Whether the archive should be read for a criteria: only the criteria filtering the id or the creation time by
+     * values or by range reach back to the archived reports, and only when these filters overlap the ranges of some
+     * blocks. The other criteria, such as the unfiltered ones, only match the reports of the database.
+     *
+     * @return whether some archived reports may match the criteria, from the ranges of the blocks only.
+     */
+    public boolean mayMatch(ReportCriteria criteria) {
+        if (criteria == null || !(hasValuesOrRange(criteria.getId()) || hasValuesOrRange(criteria.getCreatedAt()))) {
+            return false;
+        }
+        for (Segment segment : segments()) {
+            for (Block block : segment.blocks) {
+                if (overlaps(criteria, block)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the archived reports matching the criteria.
+     *
+     * @param criteria the criteria, may be {@code null} to count all the archived reports.
+     * @return the number of matching archived reports.
+     */
+    public long count(ReportCriteria criteria) {
+        ReportCriteria normalized = ReportCountService.normalize(criteria);
+        boolean rangesOnly =
+            normalized.getTitle() == null &&
+            normalized.getDescription() == null &&
+            normalized.getIpAddress() == null &&
+            normalized.getUserId() == null;
+        long count = 0;
+        for (Segment segment : segments()) {
+            for (Block block : segment.blocks) {
+                if (!overlaps(normalized, block)) {
+                    continue;
+                }
+                if (
+                    rangesOnly &&
+                    covers(normalized.getId(), block.minId, block.maxId) &&
+                    covers(normalized.getCreatedAt(), block.minCreatedAt, block.maxCreatedAt)
+                ) {
+                    count += block.count;
+                } else {
+                    count += read(segment, block).stream().filter(report -> ReportCriteriaMatcher.matches(normalized, report)).count();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find an archived report by id.
+     */
+    public Optional<ReportDTO> findById(Long id) {
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.id().setEquals(id);
+        return findFirst(criteria, Sort.unsorted(), 1, null).stream().findFirst();
+    }
+
+    /**
+     * Find the first archived reports matching the criteria, in the order of the sort.
+     * <p>
+     * When the sort starts with the id or the creation time, blocks are read from the one with the best key, and the
+     * reading stops at the first block which cannot hold a report sorting before the last kept one, or before the
+     * bound.
+     *
+     * @param criteria the criteria, may be {@code null} to match all the archived reports.
+     * @param sort the order of the reports, see {@link #comparator(Sort)}.
+     * @param limit the maximum number of reports.
+     * @param bound the report which the returned reports should sort before, or {@code null}.
+     * @return the matching reports, in the order of the sort.
+     */
+    public List<ReportDTO> findFirst(ReportCriteria criteria, Sort sort, int limit, ReportDTO bound) {
+        Comparator<ReportDTO> order = comparator(sort);
+        List<Map.Entry<Segment, Block>> blocks = new ArrayList<>();
+        for (Segment segment : segments()) {
+            for (Block block : segment.blocks) {
+                if (overlaps(criteria, block)) {
+                    blocks.add(Map.entry(segment, block));
+                }
+            }
+        }
+        Sort.Order first = sort.stream().findFirst().orElse(null);
+        Function<ReportDTO, Comparable<?>> firstKey = null;
+        Function<Block, Comparable<?>> bestKey = null;
+        if (first != null && "id".equals(first.getProperty())) {
+            firstKey = ReportDTO::getId;
+            bestKey = block -> first.isAscending() ? block.minId : block.maxId;
+        } else if (first != null && "createdAt".equals(first.getProperty())) {
+            firstKey = ReportDTO::getCreatedAt;
+            bestKey = block -> first.isAscending() ? block.minCreatedAt : block.maxCreatedAt;
+        }
+        Comparator<Comparable<?>> keyOrder = bestKey != null ? keyOrder(first) : null;
+        if (bestKey != null) {
+            Function<Block, Comparable<?>> blockKey = bestKey;
+            blocks.sort(Comparator.comparing(entry -> blockKey.apply(entry.getValue()), keyOrder));
+        }
+        // Worst of the kept reports first, so that it is the one replaced
+        PriorityQueue<ReportDTO> kept = new PriorityQueue<>(order.reversed());
+        for (Map.Entry<Segment, Block> entry : blocks) {
+            ReportDTO worst = kept.size() >= limit ? kept.peek() : bound;
+            if (bestKey != null && worst != null && keyOrder.compare(bestKey.apply(entry.getValue()), firstKey.apply(worst)) > 0) {
+                break;
+            }
+            for (ReportDTO report : read(entry.getKey(), entry.getValue())) {
+                if (ReportCriteriaMatcher.matches(criteria, report) && (bound == null || order.compare(report, bound) < 0)) {
+                    kept.add(report);
+                    if (kept.size() > limit) {
+                        kept.poll();
+                    }
+                }
+            }
+        }
+        List<ReportDTO> reports = new ArrayList<>(kept);
+        reports.sort(order);
+        return reports;
+    }
+
+    /**
+     * Order of the reports for a sort by {@code id} and {@code createdAt}, which is the order of the databases for the
+     * same sort, the ties being sorted by id.
+     *
+     * @throws IllegalArgumentException if the sort has another property.
+     */
+    static Comparator<ReportDTO> comparator(Sort sort) {
+        Comparator<ReportDTO> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<ReportDTO, Comparable<?>> key = SORT_KEYS.get(order.getProperty());
+            if (key == null) {
+                throw new IllegalArgumentException("Archived reports cannot be sorted by " + order.getProperty());
+            }
+            Comparator<ReportDTO> next = Comparator.comparing(key, keyOrder(order));
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<ReportDTO> byId = Comparator.comparing(ReportDTO::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Comparator<Comparable<?>> keyOrder(Sort.Order order) {
+        Comparator<Comparable<?>> natural = (a, b) -> ((Comparable) a).compareTo(b);
+        return order.isAscending() ? natural : natural.reversed();
+    }
+
+    private static boolean hasValuesOrRange(RangeFilter<?> filter) {
+        return (
+            filter != null &&
+            (
+                filter.getEquals() != null ||
+                filter.getIn() != null ||
+                filter.getGreaterThan() != null ||
+                filter.getGreaterThanOrEqual() != null ||
+                filter.getLessThan() != null ||
+                filter.getLessThanOrEqual() != null
+            )
+        );
+    }
+
+    private static boolean overlaps(ReportCriteria criteria, Block block) {
+        return (
+            criteria == null ||
+            (
+                overlaps(criteria.getId(), block.minId, block.maxId) &&
+                overlaps(criteria.getCreatedAt(), block.minCreatedAt, block.maxCreatedAt)
+            )
+        );
+    }
+
+    /**
+     * @return whether some values of the range may match the filter.
+     */
+    private static <T extends Comparable<? super T>> boolean overlaps(RangeFilter<T> filter, T min, T max) {
+        if (filter == null) {
+            return true;
+        }
+        // Archived reports always have an id and a creation time
+        if (Boolean.FALSE.equals(filter.getSpecified())) {
+            return false;
+        }
+        return (
+            (filter.getEquals() == null || isBetween(filter.getEquals(), min, max)) &&
+            (filter.getIn() == null || filter.getIn().stream().anyMatch(value -> isBetween(value, min, max))) &&
+            (filter.getGreaterThan() == null || max.compareTo(filter.getGreaterThan()) > 0) &&
+            (filter.getGreaterThanOrEqual() == null || max.compareTo(filter.getGreaterThanOrEqual()) >= 0) &&
+            (filter.getLessThan() == null || min.compareTo(filter.getLessThan()) < 0) &&
+            (filter.getLessThanOrEqual() == null || min.compareTo(filter.getLessThanOrEqual()) <= 0)
+        );
+    }
+
+    /**
+     * @return whether all the values of the range match the filter.
+     */
+    private static <T extends Comparable<? super T>> boolean covers(RangeFilter<T> filter, T min, T max) {
+        if (filter == null) {
+            return true;
+        }
+        if (
+            Boolean.FALSE.equals(filter.getSpecified()) ||
+            filter.getEquals() != null ||
+            filter.getNotEquals() != null ||
+            filter.getIn() != null ||
+            filter.getNotIn() != null
+        ) {
+            return false;
+        }
+        return (
+            (filter.getGreaterThan() == null || min.compareTo(filter.getGreaterThan()) > 0) &&
+            (filter.getGreaterThanOrEqual() == null || min.compareTo(filter.getGreaterThanOrEqual()) >= 0) &&
+            (filter.getLessThan() == null || max.compareTo(filter.getLessThan()) < 0) &&
+            (filter.getLessThanOrEqual() == null || max.compareTo(filter.getLessThanOrEqual()) <= 0)
+        );
+    }
+
+    private static <T extends Comparable<? super T>> boolean isBetween(T value, T min, T max) {
+        return value != null && min.compareTo(value) <= 0 && value.compareTo(max) <= 0;
+    }
+
+    /**
+     * @return the published segments, reloaded when the directory changed, possibly on another node.
+     */
+    private List<Segment> segments() {
+        FileTime modifiedTime;
+        try {
+            modifiedTime = Files.getLastModifiedTime(directory);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!modifiedTime.equals(loadedModifiedTime)) {
+            synchronized (this) {
+                if (!modifiedTime.equals(loadedModifiedTime)) {
+                    segments = load(directory);
+                    boolean settled = System.currentTimeMillis() - modifiedTime.toMillis() > MODIFIED_TIME_RESOLUTION_MILLIS;
+                    loadedModifiedTime = settled ? modifiedTime : null;
+                }
+            }
+        }
+        return segments;
+    }
+
+    private List<Segment> load(Path segmentDirectory) {
+        List<Segment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDirectory, "*" + INDEX_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                loaded.add(new Segment(fileName.substring(0, fileName.length() - INDEX_SUFFIX.length()), readIndex(file)));
+            }
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        loaded.sort(Comparator.comparing(Segment::getName));
+        return Collections.unmodifiableList(loaded);
+    }
+
+    private byte[] compress(List<ReportDTO> reports) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (ReportDTO report : reports) {
+                writer.write(reportWriter.writeValueAsString(report));
+                writer.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<ReportDTO> read(Segment segment, Block block) {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length);
+        try (FileChannel channel = FileChannel.open(directory.resolve(segment.getName() + DATA_SUFFIX), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset + buffer.position()) < 0) {
+                    throw new EOFException("Truncated archive segment " + segment.getName());
+                }
+            }
+            List<ReportDTO> reports = new ArrayList<>(block.count);
+            try (
+                BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(buffer.array())), StandardCharsets.UTF_8)
+                )
+            ) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    reports.add(reportReader.readValue(line));
+                }
+            }
+            return reports;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] writeIndex(List<Block> blocks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(INDEX_MAGIC);
+            output.writeInt(blocks.size());
+            for (Block block : blocks) {
+                output.writeLong(block.offset);
+                output.writeInt(block.length);
+                output.writeInt(block.count);
+                output.writeLong(block.minId);
+                output.writeLong(block.maxId);
+                output.writeLong(block.minCreatedAt.getEpochSecond());
+                output.writeInt(block.minCreatedAt.getNano());
+                output.writeLong(block.maxCreatedAt.getEpochSecond());
+                output.writeInt(block.maxCreatedAt.getNano());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Block> readIndex(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (input.readInt() != INDEX_MAGIC) {
+                throw new IOException("Not an archive segment index: " + file);
+            }
+            int size = input.readInt();
+            List<Block> blocks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                blocks.add(
+                    new Block(
+                        input.readLong(),
+                        input.readInt(),
+                        input.readInt(),
+                        input.readLong(),
+                        input.readLong(),
+                        Instant.ofEpochSecond(input.readLong(), input.readInt()),
+                        Instant.ofEpochSecond(input.readLong(), input.readInt())
+                    )
+                );
+            }
+            return blocks;
+        }
+    }
+
+    /**
+     * A segment of the archive, and the index of its blocks.
+     */
+    static final class Segment {
+
+        private final String name;
+
+        private final List<Block> blocks;
+
+        private Segment(String name, List<Block> blocks) {
+            this.name = name;
+            this.blocks = blocks;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return the smallest id of the reports of the segment.
+         */
+        long getMinId() {
+            return blocks.stream().mapToLong(block -> block.minId).min().orElse(Long.MAX_VALUE);
+        }
+    }
+
+    private static final class Block {
+
+        private final long offset;
+
+        private final int length;
+
+        private final int count;
+
+        private final long minId;
+
+        private final long maxId;
+
+        private final Instant minCreatedAt;
+
+        private final Instant maxCreatedAt;
+
+        private Block(long offset, int length, int count, long minId, long maxId, Instant minCreatedAt, Instant maxCreatedAt) {
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.minId = minId;
+            this.maxId = maxId;
+            this.minCreatedAt = minCreatedAt;
+            this.maxCreatedAt = maxCreatedAt;
+        }
+
+        private static Block of(long offset, int length, List<ReportDTO> reports) {
+            long minId = Long.MAX_VALUE;
+            long maxId = Long.MIN_VALUE;
+            Instant minCreatedAt = Instant.MAX;
+            Instant maxCreatedAt = Instant.MIN;
+            for (ReportDTO report : reports) {
+                minId = Math.min(minId, report.getId());
+                maxId = Math.max(maxId, report.getId());
+                minCreatedAt = report.getCreatedAt().isBefore(minCreatedAt) ? report.getCreatedAt() : minCreatedAt;
+                maxCreatedAt = report.getCreatedAt().isAfter(maxCreatedAt) ? report.getCreatedAt() : maxCreatedAt;
+            }
+            return new Block(offset, length, reports.size(), minId, maxId, minCreatedAt, maxCreatedAt);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.service.mapper.ReportMapper;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service moving the old {@link Report} entities from the database to the {@link ReportArchive}, so that the report
+ * table and its indexes only hold the recent reports, which most queries read.
+ * <p>
+ * Each segment is written, then its reports are deleted, in a single transaction: the segment is published once the
+ * transaction commits, and discarded if it rolls back. A segment left pending by a stopped node is published or
+ * discarded on the next run, depending on whether its reports are still in the database. Archived reports do not
+ * publish {@link ReportChangedEvent}s, as they are not deleted for their readers: the caches and the in-memory indexes
+ * of every node are resynchronized by {@link ReportBulkChangeService} instead.
+ */
+@Service
+public class ReportArchiveService {
+
+    /**
+     * Number of ids per delete statement.
+     */
+    private static final int IDS_PER_DELETE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ReportArchiveService.class);
+
+    private final ReportRepository reportRepository;
+
+    private final ReportMapper reportMapper;
+
+    private final ReportArchive reportArchive;
+
+    private final ReportBulkChangeService reportBulkChangeService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.ReportArchive properties;
+
+    private final boolean lockSupported;
+
+    public ReportArchiveService(
+        ReportRepository reportRepository,
+        ReportMapper reportMapper,
+        ReportArchive reportArchive,
+        ReportBulkChangeService reportBulkChangeService,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        @Value("${spring.jpa.database-platform:}") String databasePlatform
+    ) {
+        this.reportRepository = reportRepository;
+        this.reportMapper = reportMapper;
+        this.reportArchive = reportArchive;
+        this.reportBulkChangeService = reportBulkChangeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getReportArchive();
+        this.lockSupported = databasePlatform.contains("PostgreSQL");
+    }
+
+    /**
+     * Publish or discard the segments left pending when the application was stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!lockSupported || reportRepository.tryLockArchive()) {
+                recoverPendingSegments();
+            }
+        });
+    }
+
+    /**
+     * Archive the reports older than {@code max-age}, when the archival is enabled.
+     * <p>
+     * This is scheduled to get fired everyday, at 00:45 (am).
+     */
+    @Scheduled(cron = "0 45 0 * * ?")
+    public void archiveOldReports() {
+        if (properties.isEnabled()) {
+            archive(Instant.now().minus(properties.getMaxAge()));
+        }
+    }
+
+    /**
+     * Move the reports created before an instant to the archive, by segments of {@code segment-size} reports, each in its
+     * own transaction.
+     *
+     * @param before the instant before which the reports are archived.
+     * @return the number of archived reports.
+     */
+    public long archive(Instant before) {
+        long archived = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> archiveSegment(before));
+            if (count == null || count == 0) {
+                break;
+            }
+            archived += count;
+            if (count < properties.getSegmentSize()) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} reports created before {}", archived, before);
+            reportBulkChangeService.reportsChangedOutsideOutbox();
+        }
+        return archived;
+    }
+
+    private int archiveSegment(Instant before) {
+        if (lockSupported && !reportRepository.tryLockArchive()) {
+            log.debug("Reports are archived by another node");
+            return 0;
+        }
+        recoverPendingSegments();
+        List<Report> reports = reportRepository.findOldestForUpdate(before, PageRequest.of(0, properties.getSegmentSize()));
+        if (reports.isEmpty()) {
+            return 0;
+        }
+        String segment = reportArchive.write(reportMapper.toDto(reports));
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        reportArchive.publish(segment);
+                    } else {
+                        reportArchive.discard(segment);
+                    }
+                }
+            }
+        );
+        List<Long> ids = reports.stream().map(Report::getId).collect(Collectors.toList());
+        for (int start = 0; start < ids.size(); start += IDS_PER_DELETE) {
+            reportRepository.deleteAllByIdInBatch(ids.subList(start, Math.min(start + IDS_PER_DELETE, ids.size())));
+        }
+        return reports.size();
+    }
+
+    /**
+     * Publish the pending segments whose transaction committed, and discard the others. The reports of a segment are
+     * all deleted by the transaction which wrote it, so any of them tells whether it committed.
+     */
+    private void recoverPendingSegments() {
+        for (ReportArchive.Segment segment : reportArchive.findPendingSegments()) {
+            if (reportRepository.existsById(segment.getMinId())) {
+                log.warn("Discarding the archive segment {}, whose reports were not deleted", segment.getName());
+                reportArchive.discard(segment.getName());
+            } else {
+                log.warn("Publishing the archive segment {}, whose reports were deleted", segment.getName());
+                reportArchive.publish(segment.getName());
+            }
+        }
+    }
+}
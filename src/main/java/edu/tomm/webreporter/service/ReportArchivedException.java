@@ -0,0 +1,13 @@
+package edu.tomm.webreporter.service;
+
+/**
+ * Thrown when changing a report which is in the {@link ReportArchive}, as archived reports are read-only.
+ */
+public class ReportArchivedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReportArchivedException(Long id) {
+        super("Report " + id + " is archived and cannot be changed");
+    }
+}
@@ -0,0 +1,78 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.cache.CacheInvalidation;
+import edu.tomm.webreporter.cache.CacheInvalidationBus;
+import edu.tomm.webreporter.domain.Report;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service notifying the caches and the in-memory indexes of every node of the {@link Report} entities changed in bulk,
+ * by statements which bypass the persistence context, instead of one by one by {@link ReportService}.
+ * <p>
+ * The {@link Report} regions of the second-level cache, the cached queries and the cached counts are cleared on every
+ * node. The in-memory indexes follow the outbox: they are only asked to resynchronize with the database for the changes
+ * which are not written to it.
+ */
+@Service
+public class ReportBulkChangeService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final ReportCountService reportCountService;
+
+    private final ReportChangeBus reportChangeBus;
+
+    public ReportBulkChangeService(
+        EntityManagerFactory entityManagerFactory,
+        CacheInvalidationBus cacheInvalidationBus,
+        ReportCountService reportCountService,
+        ReportChangeBus reportChangeBus
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.reportCountService = reportCountService;
+        this.reportChangeBus = reportChangeBus;
+    }
+
+    /**
+     * Notify reports changed in bulk, whose changes are written to the outbox. When called in a transaction, the caches
+     * are only cleared if it commits.
+     */
+    public void reportsChanged() {
+        afterCommit(() -> entityManagerFactory.getCache().evict(Report.class));
+        cacheInvalidationBus.publish(
+            List.of(new CacheInvalidation(CacheInvalidation.Type.ENTITY, Report.class.getName(), null), CacheInvalidation.queries())
+        );
+        reportCountService.evictAll();
+    }
+
+    /**
+     * Notify reports changed in bulk, whose changes are not written to the outbox, such as archived or expired reports:
+     * the indexes of every node are also resynchronized, once the transaction, if any, commits.
+     */
+    public void reportsChangedOutsideOutbox() {
+        reportsChanged();
+        reportChangeBus.publishMissed();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,131 @@
+package edu.tomm.webreporter.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tomm.webreporter.domain.Job;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.dto.JobDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service deleting all the {@link Report} entities matching a {@link ReportCriteria} in a background {@link Job}.
+ * <p>
+ * Reports are deleted by chunks of {@value #CHUNK_SIZE}, each in the transaction of a job chunk: the ids of a chunk are
+ * selected by a keyset query after the last deleted id, the checkpoint of the job, without loading the reports, and
+ * deleted by a single statement, which evicts the {@link Report} region of the second-level cache at once. A deletion
+ * can be cancelled between two chunks, the deleted chunks staying deleted.
+ * <p>
+ * The deletions of a chunk are written to the outbox by a single statement, in the transaction of the chunk, so that
+ * the outbox consumers and the in-memory indexes of every node remove the deleted reports one by one, as if they had
+ * been deleted by {@link ReportService}. Archived reports are read-only, and are not deleted: the number of archived
+ * reports matching the criteria is reported in the error of the completed job.
+ */
+@Service
+public class ReportBulkDeleteService implements JobHandler {
+
+    public static final String JOB_TYPE = "report-delete";
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ReportBulkDeleteService.class);
+
+    private final JobService jobService;
+
+    private final ReportQueryService reportQueryService;
+
+    private final ReportRepository reportRepository;
+
+    private final ReportArchive reportArchive;
+
+    private final ReportOutboxService reportOutboxService;
+
+    private final ReportBulkChangeService reportBulkChangeService;
+
+    private final ObjectMapper objectMapper;
+
+    public ReportBulkDeleteService(
+        JobService jobService,
+        ReportQueryService reportQueryService,
+        ReportRepository reportRepository,
+        ReportArchive reportArchive,
+        ReportOutboxService reportOutboxService,
+        ReportBulkChangeService reportBulkChangeService,
+        ObjectMapper objectMapper
+    ) {
+        this.jobService = jobService;
+        this.reportQueryService = reportQueryService;
+        this.reportRepository = reportRepository;
+        this.reportArchive = reportArchive;
+        this.reportOutboxService = reportOutboxService;
+        this.reportBulkChangeService = reportBulkChangeService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Start deleting the reports matching the criteria.
+     *
+     * @param criteria the criteria which the deleted reports should match.
+     * @return the job of the deletion.
+     * @throws IllegalArgumentException if the criteria has no filter, which would delete all the reports.
+     */
+    @Transactional
+    public JobDTO start(ReportCriteria criteria) {
+        ReportCriteria filters = ReportCountService.normalize(criteria);
+        filters.setDistinct(null);
+        if (filters.equals(new ReportCriteria())) {
+            throw new IllegalArgumentException("Reports are only deleted by a criteria with a filter");
+        }
+        log.debug("Request to delete Reports by criteria: {}", filters);
+        try {
+            return jobService.submit(JOB_TYPE, objectMapper.writeValueAsString(filters));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the criteria " + filters, e);
+        }
+    }
+
+    @Override
+    public String getType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public boolean runChunk(Job job) {
+        ReportCriteria criteria = readCriteria(job);
+        Specification<Report> specification = reportQueryService.createSpecification(criteria);
+        if (job.getTotalCount() == null) {
+            job.setTotalCount(reportRepository.count(specification));
+        }
+        Long afterId = job.getCheckpoint() != null ? Long.valueOf(job.getCheckpoint()) : null;
+        List<Long> ids = reportRepository.findIdsAfter(specification, afterId, CHUNK_SIZE);
+        if (!ids.isEmpty()) {
+            reportOutboxService.recordAll(ReportChangedEvent.Type.DELETED, ids);
+            reportRepository.deleteAllByIdInBatch(ids);
+            job.setCheckpoint(ids.get(ids.size() - 1).toString());
+            job.setProcessedCount(job.getProcessedCount() + ids.size());
+            reportBulkChangeService.reportsChanged();
+        }
+        if (ids.size() == CHUNK_SIZE) {
+            return false;
+        }
+        long archived = reportArchive.mayMatch(criteria) ? reportArchive.count(criteria) : 0;
+        if (archived > 0) {
+            job.setError(archived + " archived reports match the criteria and were not deleted, as they are read-only");
+        }
+        return true;
+    }
+
+    private ReportCriteria readCriteria(Job job) {
+        try {
+            return objectMapper.readValue(job.getParameters(), ReportCriteria.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable criteria of " + job, e);
+        }
+    }
+}
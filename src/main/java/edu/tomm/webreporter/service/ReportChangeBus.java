@@ -0,0 +1,28 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.cache.CacheInvalidationBus;
+import java.util.List;
+
+/**
+ * Broadcasts the report changes relayed from the outbox to the {@link ReportChangeListener}s of every node, including
+ * the relaying one, so that the in-memory indexes of the nodes do not drift apart.
+ * <p>
+ * The bus is an outbox consumer: each batch is published in the relay transaction, and delivered once it commits. The
+ * implementation is selected with the {@value CacheInvalidationBus#BUS_PROPERTY} property, like the cache invalidation
+ * bus.
+ */
+public interface ReportChangeBus extends ReportOutboxConsumer {
+    /**
+     * Publish a batch of report changes. When called in a transaction, it is only delivered if it commits.
+     *
+     * @param messages the messages of the batch, ordered by id.
+     */
+    @Override
+    void consume(List<ReportOutboxMessage> messages);
+
+    /**
+     * Ask the listeners of every node to resynchronize with the database, for changes which are not written to the
+     * outbox. When called in a transaction, it is only delivered if it commits.
+     */
+    void publishMissed();
+}
@@ -0,0 +1,24 @@
+package edu.tomm.webreporter.service;
+
+import java.util.List;
+
+/**
+ * Listener of the report changes of the whole cluster, such as an in-memory index of the reports.
+ * <p>
+ * Every Spring bean implementing this interface receives, on every node, the batches relayed from the outbox once the
+ * relay has committed, see {@link ReportChangeBus}. Batches are delivered at least once, so applying a change must be
+ * idempotent.
+ */
+public interface ReportChangeListener {
+    /**
+     * Apply a batch of report changes.
+     *
+     * @param messages the messages of the batch, ordered by id.
+     */
+    void onReportChanges(List<ReportOutboxMessage> messages);
+
+    /**
+     * Resynchronize with the database, as some changes could not be delivered.
+     */
+    void onReportChangesMissed();
+}
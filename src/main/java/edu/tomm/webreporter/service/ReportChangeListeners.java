@@ -0,0 +1,46 @@
+package edu.tomm.webreporter.service;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Delivery of the report changes to the {@link ReportChangeListener} beans of this node, for the {@link ReportChangeBus}
+ * implementations. A listener failing to apply a batch is resynchronized, so that it does not silently drift.
+ */
+final class ReportChangeListeners {
+
+    private final Logger log = LoggerFactory.getLogger(ReportChangeListeners.class);
+
+    private final ObjectProvider<ReportChangeListener> listeners;
+
+    ReportChangeListeners(ObjectProvider<ReportChangeListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    void deliver(List<ReportOutboxMessage> messages) {
+        listeners
+            .orderedStream()
+            .forEach(listener -> {
+                try {
+                    listener.onReportChanges(messages);
+                } catch (RuntimeException e) {
+                    log.warn("Could not apply {} report changes to {}, resynchronizing it", messages.size(), listener, e);
+                    missed(listener);
+                }
+            });
+    }
+
+    void missed() {
+        listeners.orderedStream().forEach(this::missed);
+    }
+
+    private void missed(ReportChangeListener listener) {
+        try {
+            listener.onReportChangesMissed();
+        } catch (RuntimeException e) {
+            log.error("Could not resynchronize {}", listener, e);
+        }
+    }
+}
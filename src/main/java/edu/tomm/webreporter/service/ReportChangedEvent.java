@@ -0,0 +1,57 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Application event published by {@link ReportService} for the reports created, updated or deleted together. A batch of
+ * reports is published as a single event.
+ * <p>
+ * The event must be published in the transaction of the change, which writes it to the outbox just before committing.
+ * The outbox relay then broadcasts the changes to every node, see {@link ReportChangeBus}.
+ */
+public final class ReportChangedEvent {
+
+    /**
+     * Kind of change.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    private final Type type;
+
+    private final List<ReportDTO> reports;
+
+    public ReportChangedEvent(Type type, ReportDTO report) {
+        this(type, List.of(report));
+    }
+
+    public ReportChangedEvent(Type type, List<ReportDTO> reports) {
+        this.type = Objects.requireNonNull(type);
+        this.reports = List.copyOf(reports);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the reports after the change, or before it for a deletion.
+     */
+    public List<ReportDTO> getReports() {
+        return reports;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReportChangedEvent{" +
+            "type=" + type +
+            ", reports=" + reports.size() +
+            "}";
+    }
+}
@@ -0,0 +1,167 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.service.criteria.IpAddressFilter;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.jhipster.service.filter.InstantFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Service for counting {@link Report} entities matching a {@link ReportCriteria}.
+ * <p>
+ * Exact counts are cached per normalized criteria for {@code application.report-count.ttl}, and the whole cache is
+ * invalidated by {@link #evictAll()} on every report write. Unfiltered counts can also be served from the PostgreSQL
+ * planner statistics when an approximate result is acceptable, while counts filtered by user only are always exact, as
+ * they are served by an index-only scan of {@code idx_report__user_id}.
+ */
+@Service
+public class ReportCountService {
+
+    private final Logger log = LoggerFactory.getLogger(ReportCountService.class);
+
+    private final ReportQueryService reportQueryService;
+
+    private final ReportRepository reportRepository;
+
+    private final long ttlNanos;
+
+    private final boolean estimateSupported;
+
+    private final Map<ReportCriteria, Entry> entries;
+
+    /**
+     * Incremented by every invalidation, so that a count computed before an invalidation is never cached after it.
+     */
+    private long generation;
+
+    public ReportCountService(
+        ReportQueryService reportQueryService,
+        ReportRepository reportRepository,
+        ApplicationProperties applicationProperties,
+        @Value("${spring.jpa.database-platform:}") String databasePlatform
+    ) {
+        this.reportQueryService = reportQueryService;
+        this.reportRepository = reportRepository;
+        ApplicationProperties.ReportCount properties = applicationProperties.getReportCount();
+        Duration ttl = properties.getTtl();
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        this.estimateSupported = databasePlatform.contains("PostgreSQL");
+        int maxEntries = properties.getMaxEntries();
+        this.entries =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ReportCriteria, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+    }
+
+    /**
+     * Count the reports matching the criteria.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @param approximate whether an estimate is acceptable, it is only used for unfiltered counts on PostgreSQL.
+     * @return the number of matching entities.
+     */
+    public long count(ReportCriteria criteria, boolean approximate) {
+        ReportCriteria key = normalize(criteria);
+        if (approximate && estimateSupported && key.equals(new ReportCriteria())) {
+            long estimate = reportRepository.estimateCount();
+            if (estimate >= 0) {
+                log.debug("Estimated count of all Reports: {}", estimate);
+                return estimate;
+            }
+        }
+        if (ttlNanos <= 0) {
+            return reportQueryService.countByCriteria(key);
+        }
+        long now = System.nanoTime();
+        long countGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt < ttlNanos) {
+                return entry.count;
+            }
+            countGeneration = generation;
+        }
+        long count = reportQueryService.countByCriteria(key);
+        synchronized (entries) {
+            if (countGeneration == generation) {
+                entries.put(key, new Entry(count, now));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Invalidate all the cached counts, right away and again once the current transaction, if any, is committed, so that
+     * a count computed concurrently from the previous state is not kept.
+     */
+    public void evictAll() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        clear();
+                    }
+                }
+            );
+        }
+    }
+
+    private void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Copy the criteria without its empty filters, so that equivalent requests share the same cache entry.
+     */
+    static ReportCriteria normalize(ReportCriteria criteria) {
+        ReportCriteria normalized = new ReportCriteria();
+        if (criteria == null) {
+            return normalized;
+        }
+        ReportCriteria copy = criteria.copy();
+        normalized.setId(isEmpty(copy.getId(), new LongFilter()) ? null : copy.getId());
+        normalized.setTitle(isEmpty(copy.getTitle(), new StringFilter()) ? null : copy.getTitle());
+        normalized.setDescription(isEmpty(copy.getDescription(), new StringFilter()) ? null : copy.getDescription());
+        normalized.setIpAddress(isEmpty(copy.getIpAddress(), new IpAddressFilter()) ? null : copy.getIpAddress());
+        normalized.setUserId(isEmpty(copy.getUserId(), new LongFilter()) ? null : copy.getUserId());
+        normalized.setCreatedAt(isEmpty(copy.getCreatedAt(), new InstantFilter()) ? null : copy.getCreatedAt());
+        normalized.setDistinct(Boolean.TRUE.equals(copy.getDistinct()) ? Boolean.TRUE : null);
+        return normalized;
+    }
+
+    private static boolean isEmpty(Object filter, Object emptyFilter) {
+        return filter == null || filter.equals(emptyFilter);
+    }
+
+    private static final class Entry {
+
+        private final long count;
+
+        private final long createdAt;
+
+        private Entry(long count, long createdAt) {
+            this.count = count;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package edu.tomm.webreporter.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for exporting {@link Report} entities matching a {@link ReportCriteria}, written row by row to an
+ * {@link OutputStream} so that exports of any size run in constant memory.
+ */
+@Service
+public class ReportExportService {
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER = "id,title,description,ipAddress,userId,userLogin";
+
+    private final Logger log = LoggerFactory.getLogger(ReportExportService.class);
+
+    private final ReportQueryService reportQueryService;
+
+    private final ObjectWriter reportWriter;
+
+    public ReportExportService(ReportQueryService reportQueryService, ObjectMapper objectMapper) {
+        this.reportQueryService = reportQueryService;
+        this.reportWriter = objectMapper.writerFor(ReportDTO.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Export the reports matching the criteria, ordered by id.
+     *
+     * @param criteria the criteria which the exported reports should match.
+     * @param format the export format.
+     * @param outputStream the stream to write to, which is flushed but not closed.
+     * @return the number of exported reports.
+     * @throws IOException if writing to the stream failed.
+     */
+    public long export(ReportCriteria criteria, Format format, OutputStream outputStream) throws IOException {
+        log.debug("Request to export Reports as {} by criteria: {}", format, criteria);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long count;
+        try {
+            count =
+                reportQueryService.streamByCriteria(
+                    criteria,
+                    report -> {
+                        try {
+                            if (format == Format.CSV) {
+                                writeCsv(writer, report);
+                            } else {
+                                reportWriter.writeValue(writer, report);
+                                writer.write('\n');
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                );
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.debug("Exported {} Reports", count);
+        return count;
+    }
+
+    private void writeCsv(Writer writer, ReportDTO report) throws IOException {
+        writer.write(String.valueOf(report.getId()));
+        writer.write(',');
+        writeCsvField(writer, report.getTitle());
+        writer.write(',');
+        writeCsvField(writer, report.getDescription());
+        writer.write(',');
+        writeCsvField(writer, report.getIpAddress());
+        writer.write(',');
+        if (report.getUser() != null) {
+            writer.write(String.valueOf(report.getUser().getId()));
+            writer.write(',');
+            writeCsvField(writer, report.getUser().getLogin());
+        } else {
+            writer.write(',');
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
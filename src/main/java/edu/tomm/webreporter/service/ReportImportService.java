@@ -0,0 +1,618 @@
+package edu.tomm.webreporter.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.tomm.webreporter.domain.PooledSequenceGenerator;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.domain.User;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.UserRepository;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.ReportImportResultDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
+import edu.tomm.webreporter.service.mapper.ReportMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing {@link Report} entities from NDJSON or CSV, in the formats written by {@link ReportExportService},
+ * read row by row from an {@link InputStream} so that imports of any size run in constant memory.
+ * <p>
+ * Rows are validated with the constraints of {@link ReportDTO}, and loaded by batches of {@value #BATCH_SIZE}, each in
+ * its own transaction: a row with an id updates the existing report, and is rejected if there is none, the others
+ * create new reports. Invalid rows are reported by line, and do not prevent the valid ones from being imported. On
+ * PostgreSQL, each batch is copied to a staging table with {@code COPY FROM STDIN}, then written to the {@code report}
+ * table by an update of the existing reports and an insert of the new ones. On the other databases, it is written with
+ * JDBC batching.
+ * <p>
+ * The imported reports of a batch are written to the outbox in the transaction of the batch, by a single statement
+ * from the staging table on PostgreSQL, so that the outbox consumers and the in-memory indexes of every node see them
+ * as if they had been saved by {@link ReportService}.
+ */
+@Service
+public class ReportImportService {
+
+    /**
+     * Number of rows loaded per transaction.
+     */
+    private static final int BATCH_SIZE = 5000;
+
+    /**
+     * Number of rejected rows whose errors are listed in the result, the others being only counted.
+     */
+    private static final int MAX_LISTED_ERRORS = 1000;
+
+    /**
+     * Maximum length of a row, in characters, beyond which the rest of the row is skipped.
+     */
+    private static final int MAX_ROW_LENGTH = 64 * 1024;
+
+    /**
+     * Length of the string columns of the {@code report} table.
+     */
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Set<String> CSV_COLUMNS = Set.of("id", "title", "description", "ipAddress", "userId", "userLogin", "createdAt");
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("title", "ipAddress", "userId");
+
+    private final Logger log = LoggerFactory.getLogger(ReportImportService.class);
+
+    private final ReportRepository reportRepository;
+
+    private final UserRepository userRepository;
+
+    private final ReportMapper reportMapper;
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final ReportOutboxService reportOutboxService;
+
+    private final ReportBulkChangeService reportBulkChangeService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader reportReader;
+
+    private final int jdbcBatchSize;
+
+    private final int idBlockSize;
+
+    private final boolean copySupported;
+
+    public ReportImportService(
+        ReportRepository reportRepository,
+        UserRepository userRepository,
+        ReportMapper reportMapper,
+        Validator validator,
+        EntityManager entityManager,
+        ReportOutboxService reportOutboxService,
+        ReportBulkChangeService reportBulkChangeService,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int jdbcBatchSize,
+        @Value(
+            "${spring.jpa.properties." + PooledSequenceGenerator.BLOCK_SIZE_SETTING + ":" + PooledSequenceGenerator.DEFAULT_BLOCK_SIZE + "}"
+        ) int idBlockSize,
+        @Value("${spring.jpa.database-platform:}") String databasePlatform
+    ) {
+        this.reportRepository = reportRepository;
+        this.userRepository = userRepository;
+        this.reportMapper = reportMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.reportOutboxService = reportOutboxService;
+        this.reportBulkChangeService = reportBulkChangeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reportReader = objectMapper.readerFor(ReportDTO.class);
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.idBlockSize = idBlockSize;
+        this.copySupported = databasePlatform.contains("PostgreSQL");
+    }
+
+    /**
+     * Import the reports of a stream. The batches loaded before an I/O error, or any other failure, stay imported.
+     *
+     * @param inputStream the stream to read, which is not closed.
+     * @param charset the charset of the stream.
+     * @param format the format of the stream; CSV requires a header row naming the columns among {@code id},
+     * {@code title}, {@code description}, {@code ipAddress}, {@code userId}, {@code userLogin} (ignored), and
+     * {@code createdAt}.
+     * @return the outcome of the import.
+     * @throws IOException if reading the stream failed.
+     * @throws IllegalArgumentException if the CSV header is missing a required column, or names an unknown one.
+     */
+    public ReportImportResultDTO importReports(InputStream inputStream, Charset charset, ReportExportService.Format format)
+        throws IOException {
+        log.debug("Request to import Reports as {}", format);
+        Reader reader = new BufferedReader(new InputStreamReader(inputStream, charset), BUFFER_SIZE);
+        RowReader rows = format == ReportExportService.Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        ReportImportResultDTO result = new ReportImportResultDTO();
+        List<Row> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    importBatch(batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, result);
+            }
+        } finally {
+            log.info("Imported Reports: {}", result);
+        }
+        return result;
+    }
+
+    private void importBatch(List<Row> batch, ReportImportResultDTO result) {
+        List<ReportDTO> reports = validate(batch, result);
+        result.setRowCount(result.getRowCount() + batch.size());
+        if (reports.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (ReportDTO reportDTO : reports) {
+            if (reportDTO.getId() == null && reportDTO.getCreatedAt() == null) {
+                reportDTO.setCreatedAt(now);
+            }
+        }
+        long[] counts = transactionTemplate.execute(status -> {
+            long[] loaded = copySupported ? copy(reports) : insert(reports);
+            reportBulkChangeService.reportsChanged();
+            return loaded;
+        });
+        result.setCreatedCount(result.getCreatedCount() + counts[0]);
+        result.setUpdatedCount(result.getUpdatedCount() + counts[1]);
+    }
+
+    /**
+     * Validate the rows of a batch, adding the invalid ones to the result.
+     *
+     * @return the reports of the valid rows.
+     */
+    private List<ReportDTO> validate(List<Row> batch, ReportImportResultDTO result) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> ids = new HashSet<>();
+        for (Row row : batch) {
+            if (row.report != null) {
+                if (row.report.getUser() != null && row.report.getUser().getId() != null) {
+                    userIds.add(row.report.getUser().getId());
+                }
+                if (row.report.getId() != null) {
+                    ids.add(row.report.getId());
+                }
+            }
+        }
+        Set<Long> existingUserIds = userIds.isEmpty()
+            ? Set.of()
+            : userRepository.findAllById(userIds).stream().map(User::getId).collect(Collectors.toSet());
+        Set<Long> existingIds = ids.isEmpty() ? Set.of() : new HashSet<>(reportRepository.findExistingIds(ids));
+
+        List<ReportDTO> reports = new ArrayList<>(batch.size());
+        Set<Long> batchIds = new HashSet<>();
+        for (Row row : batch) {
+            List<String> errors = row.errors;
+            if (errors.isEmpty()) {
+                validateReport(row.report, existingUserIds, existingIds, batchIds, errors);
+            }
+            if (errors.isEmpty()) {
+                reports.add(row.report);
+            } else {
+                result.setRejectedCount(result.getRejectedCount() + 1);
+                if (result.getErrors().size() < MAX_LISTED_ERRORS) {
+                    result.getErrors().add(new ReportImportResultDTO.RowError(row.line, errors));
+                }
+            }
+        }
+        return reports;
+    }
+
+    private void validateReport(
+        ReportDTO reportDTO,
+        Set<Long> existingUserIds,
+        Set<Long> existingIds,
+        Set<Long> batchIds,
+        List<String> errors
+    ) {
+        if (reportDTO == null) {
+            errors.add("report: must not be null");
+            return;
+        }
+        if (reportDTO.getId() != null) {
+            if (!existingIds.contains(reportDTO.getId())) {
+                errors.add("id: does not exist");
+            } else if (!batchIds.add(reportDTO.getId())) {
+                errors.add("id: already imported by a previous row of the batch");
+            }
+        }
+        for (ConstraintViolation<ReportDTO> violation : validator.validate(reportDTO)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        validateLength("title", reportDTO.getTitle(), errors);
+        validateLength("description", reportDTO.getDescription(), errors);
+        validateLength("ipAddress", reportDTO.getIpAddress(), errors);
+        if (reportDTO.getUser() == null || reportDTO.getUser().getId() == null) {
+            errors.add("user: must not be null");
+        } else if (!existingUserIds.contains(reportDTO.getUser().getId())) {
+            errors.add("user: does not exist");
+        }
+    }
+
+    private static void validateLength(String property, String value, List<String> errors) {
+        if (value != null && value.length() > MAX_COLUMN_LENGTH) {
+            errors.add(property + ": size must be at most " + MAX_COLUMN_LENGTH);
+        }
+    }
+
+    /**
+     * Load a batch through the staging table. The new reports take their ids from blocks of the shared sequence, as
+     * {@link PooledSequenceGenerator} does.
+     *
+     * @return the number of created, then updated, reports.
+     */
+    private long[] copy(List<ReportDTO> reportDTOs) {
+        Instant now = Instant.now();
+        long nextId = 0;
+        long blockEnd = 0;
+        List<Report> reports = new ArrayList<>(reportDTOs.size());
+        for (ReportDTO reportDTO : reportDTOs) {
+            Report report = reportMapper.toEntity(reportDTO);
+            report.setCreatedAt(reportDTO.getCreatedAt());
+            if (report.getId() == null) {
+                if (nextId == blockEnd) {
+                    nextId = reportRepository.nextIdBlock();
+                    blockEnd = nextId + idBlockSize;
+                }
+                report.setId(nextId++);
+            } else if (report.getCreatedAt() == null) {
+                // Only used if the report was deleted since it was validated, the update keeps the creation time
+                report.setCreatedAt(now);
+            }
+            reports.add(report);
+        }
+        reportRepository.copyToImportTable(reports);
+        long updated = reportRepository.updateFromImportTable();
+        long created = reportRepository.insertFromImportTable();
+        reportRepository.insertOutboxFromImportTable();
+        return new long[] { created, updated };
+    }
+
+    /**
+     * Load a batch with JDBC batching: the existing reports are updated first, then the new ones inserted, the
+     * persistence context being flushed and cleared every {@code hibernate.jdbc.batch_size} reports. The changes are
+     * then written to the outbox.
+     *
+     * @return the number of created, then updated, reports.
+     */
+    private long[] insert(List<ReportDTO> reportDTOs) {
+        Map<Long, ReportDTO> updates = new HashMap<>();
+        for (ReportDTO reportDTO : reportDTOs) {
+            if (reportDTO.getId() != null) {
+                updates.put(reportDTO.getId(), reportDTO);
+            }
+        }
+        List<Long> updatedIds = new ArrayList<>(updates.size());
+        for (Report report : reportRepository.findAllById(updates.keySet())) {
+            ReportDTO reportDTO = updates.get(report.getId());
+            report.setTitle(reportDTO.getTitle());
+            report.setDescription(reportDTO.getDescription());
+            report.setIpAddress(reportDTO.getIpAddress());
+            report.setUser(entityManager.getReference(User.class, reportDTO.getUser().getId()));
+            updatedIds.add(report.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> createdIds = new ArrayList<>(reportDTOs.size() - updates.size());
+        for (ReportDTO reportDTO : reportDTOs) {
+            if (reportDTO.getId() == null) {
+                Report report = reportMapper.toEntity(reportDTO);
+                report.setCreatedAt(reportDTO.getCreatedAt());
+                // A version would make the report look detached
+                report.setVersion(null);
+                createdIds.add(reportRepository.save(report).getId());
+                if (createdIds.size() % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        reportOutboxService.recordAll(ReportChangedEvent.Type.UPDATED, updatedIds);
+        reportOutboxService.recordAll(ReportChangedEvent.Type.CREATED, createdIds);
+        return new long[] { createdIds.size(), updatedIds.size() };
+    }
+
+    /**
+     * A row of the input: the report it holds, or the errors which prevented reading it.
+     */
+    private static final class Row {
+
+        private final long line;
+
+        private final ReportDTO report;
+
+        private final List<String> errors = new ArrayList<>();
+
+        private Row(long line, ReportDTO report) {
+            this.line = line;
+            this.report = report;
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * @return the next row, or {@code null} at the end of the input.
+         */
+        Row next() throws IOException;
+    }
+
+    /**
+     * Reader of NDJSON rows, one {@link ReportDTO} per line. Blank lines are skipped.
+     */
+    private final class NdjsonRowReader implements RowReader {
+
+        private final Reader reader;
+
+        private final StringBuilder line = new StringBuilder();
+
+        private long lineNumber;
+
+        private boolean end;
+
+        private NdjsonRowReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            while (!end) {
+                boolean truncated = readLine();
+                if (line.length() == 0 && end) {
+                    return null;
+                }
+                lineNumber++;
+                if (truncated) {
+                    Row row = new Row(lineNumber, null);
+                    row.errors.add("row: longer than " + MAX_ROW_LENGTH + " characters");
+                    return row;
+                }
+                if (line.toString().isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(lineNumber, reportReader.readValue(line.toString()));
+                } catch (JsonProcessingException e) {
+                    Row row = new Row(lineNumber, null);
+                    row.errors.add("row: " + e.getOriginalMessage());
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Read the next line, without its line terminator, skipping the characters beyond the maximum length of a row.
+         *
+         * @return {@code true} if the line was truncated.
+         */
+        private boolean readLine() throws IOException {
+            line.setLength(0);
+            boolean truncated = false;
+            for (int c = reader.read(); c != '\n'; c = reader.read()) {
+                if (c == -1) {
+                    end = true;
+                    break;
+                }
+                if (line.length() < MAX_ROW_LENGTH) {
+                    line.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            return truncated;
+        }
+    }
+
+    /**
+     * Reader of CSV rows, RFC 4180: fields are separated by commas, and quoted by double quotes when they hold commas,
+     * double quotes (doubled), or line breaks. Empty unquoted fields are {@code null}. Blank lines are skipped.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private static final int NONE = -2;
+
+        private final Reader reader;
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private final List<String> fields = new ArrayList<>();
+
+        private final StringBuilder field = new StringBuilder();
+
+        private int pending = NONE;
+
+        private long lineNumber;
+
+        private long recordLine;
+
+        private String recordError;
+
+        private CsvRowReader(Reader reader) throws IOException {
+            this.reader = reader;
+            if (readRecord()) {
+                for (int index = 0; index < fields.size(); index++) {
+                    String column = Objects.requireNonNullElse(fields.get(index), "").trim();
+                    if (!CSV_COLUMNS.contains(column)) {
+                        throw new IllegalArgumentException("Unknown CSV column: " + column);
+                    }
+                    columns.put(column, index);
+                }
+                for (String column : REQUIRED_CSV_COLUMNS) {
+                    if (!columns.containsKey(column)) {
+                        throw new IllegalArgumentException("Missing CSV column: " + column);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            while (readRecord()) {
+                if (fields.size() == 1 && fields.get(0) == null && recordError == null) {
+                    continue;
+                }
+                ReportDTO reportDTO = new ReportDTO();
+                Row row = new Row(recordLine, reportDTO);
+                if (recordError != null) {
+                    row.errors.add("row: " + recordError);
+                    return row;
+                }
+                if (fields.size() != columns.size()) {
+                    row.errors.add("row: " + fields.size() + " fields instead of " + columns.size());
+                    return row;
+                }
+                reportDTO.setId(parse(row, "id", Long::valueOf, "must be a number"));
+                reportDTO.setTitle(get("title"));
+                reportDTO.setDescription(get("description"));
+                reportDTO.setIpAddress(get("ipAddress"));
+                reportDTO.setCreatedAt(parse(row, "createdAt", Instant::parse, "must be an ISO-8601 instant"));
+                Long userId = parse(row, "userId", Long::valueOf, "must be a number");
+                if (userId != null) {
+                    UserDTO user = new UserDTO();
+                    user.setId(userId);
+                    user.setLogin(get("userLogin"));
+                    reportDTO.setUser(user);
+                }
+                return row;
+            }
+            return null;
+        }
+
+        private String get(String column) {
+            Integer index = columns.get(column);
+            return index != null ? fields.get(index) : null;
+        }
+
+        private <T> T parse(Row row, String column, Function<String, T> parser, String message) {
+            String value = get(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return parser.apply(value.trim());
+            } catch (NumberFormatException | DateTimeParseException e) {
+                row.errors.add(column + ": " + message);
+                return null;
+            }
+        }
+
+        /**
+         * Read the fields of the next record.
+         *
+         * @return {@code false} at the end of the input.
+         */
+        private boolean readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return false;
+            }
+            fields.clear();
+            field.setLength(0);
+            recordError = null;
+            recordLine = ++lineNumber;
+            int length = 0;
+            boolean quoting = false;
+            boolean quoted = false;
+            while (true) {
+                if (quoting) {
+                    if (c == -1) {
+                        recordError = "unterminated quoted field";
+                        fields.add(field.toString());
+                        return true;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoting = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        lineNumber++;
+                    }
+                    append(c, ++length);
+                } else if (c == '"' && field.length() == 0 && !quoted) {
+                    quoting = true;
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.length() > 0 || quoted ? field.toString() : null);
+                    field.setLength(0);
+                    quoted = false;
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            pending = next;
+                        }
+                    }
+                    fields.add(field.length() > 0 || quoted ? field.toString() : null);
+                    return true;
+                } else {
+                    append(c, ++length);
+                }
+                c = read();
+            }
+        }
+
+        private void append(int c, int length) {
+            if (length <= MAX_ROW_LENGTH) {
+                field.append((char) c);
+            } else {
+                recordError = "longer than " + MAX_ROW_LENGTH + " characters";
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != NONE) {
+                int c = pending;
+                pending = NONE;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
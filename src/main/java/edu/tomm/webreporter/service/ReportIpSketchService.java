@@ -0,0 +1,212 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.domain.IpAddresses;
+import edu.tomm.webreporter.domain.ReportIpSketch;
+import edu.tomm.webreporter.repository.ReportIpSketchOfUser;
+import edu.tomm.webreporter.repository.ReportIpSketchRepository;
+import edu.tomm.webreporter.service.dto.DistinctIpCountDTO;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the {@link HyperLogLog} sketches of the distinct report IP addresses, by user and month, and
+ * estimating the number of distinct addresses of a user, or of all the users, over any range of months.
+ * <p>
+ * Sketches are updated from the report changes relayed by the outbox, in the transaction which deletes them from the
+ * outbox: a redelivered change adds the same addresses again, which does not change the sketches. Updates and deletions
+ * do not remove addresses, the sketches count the addresses ever reported from. IP address literals are counted by their
+ * binary form, so that the notations of an address count once.
+ */
+@Service
+@Transactional
+public class ReportIpSketchService implements ReportOutboxConsumer {
+
+    /**
+     * Number of users whose sketches are locked and written by a single query.
+     */
+    private static final int USERS_PER_WRITE = 500;
+
+    private static final String FIRST_MONTH = "0000-01";
+
+    private static final String LAST_MONTH = "9999-12";
+
+    private final Logger log = LoggerFactory.getLogger(ReportIpSketchService.class);
+
+    private final ReportIpSketchRepository reportIpSketchRepository;
+
+    private final ReportQueryService reportQueryService;
+
+    public ReportIpSketchService(ReportIpSketchRepository reportIpSketchRepository, ReportQueryService reportQueryService) {
+        this.reportIpSketchRepository = reportIpSketchRepository;
+        this.reportQueryService = reportQueryService;
+    }
+
+    @Override
+    public void consume(List<ReportOutboxMessage> messages) {
+        Map<Long, Map<String, HyperLogLog>> sketches = new HashMap<>();
+        for (ReportOutboxMessage message : messages) {
+            if (message.getType() != ReportChangedEvent.Type.DELETED) {
+                ReportDTO report = message.getReport();
+                add(sketches, report, report.getCreatedAt() != null ? report.getCreatedAt() : message.getCreatedDate());
+            }
+        }
+        save(sketches);
+    }
+
+    /**
+     * Add the IP addresses of all the reports of the database to the sketches, on startup when there are no sketches
+     * yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (reportIpSketchRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Add the IP addresses of all the reports of the database to the sketches.
+     */
+    public void rebuild() {
+        Map<Long, Map<String, HyperLogLog>> sketches = new HashMap<>();
+        long count = reportQueryService.streamByCriteria(null, report -> add(sketches, report, report.getCreatedAt()));
+        save(sketches);
+        log.debug("Added the IP addresses of {} reports to the sketches", count);
+    }
+
+    private static void add(Map<Long, Map<String, HyperLogLog>> sketches, ReportDTO report, Instant createdAt) {
+        if (report.getUser() == null || report.getIpAddress() == null || createdAt == null) {
+            return;
+        }
+        byte[] address = IpAddresses.toBytes(report.getIpAddress());
+        byte[] value = address != null ? address : report.getIpAddress().trim().getBytes(StandardCharsets.UTF_8);
+        String month = YearMonth.from(createdAt.atOffset(ZoneOffset.UTC)).toString();
+        for (Long userId : List.of(report.getUser().getId(), ReportIpSketch.ALL_USERS)) {
+            sketches.computeIfAbsent(userId, id -> new HashMap<>()).computeIfAbsent(month, m -> new HyperLogLog()).add(value);
+        }
+    }
+
+    /**
+     * Merge sketches into the stored ones, locked by batches of users in a consistent order.
+     */
+    private void save(Map<Long, Map<String, HyperLogLog>> sketches) {
+        List<Long> userIds = new ArrayList<>(sketches.keySet());
+        Collections.sort(userIds);
+        for (int start = 0; start < userIds.size(); start += USERS_PER_WRITE) {
+            List<Long> batch = userIds.subList(start, Math.min(start + USERS_PER_WRITE, userIds.size()));
+            Set<String> months = new HashSet<>();
+            batch.forEach(userId -> months.addAll(sketches.get(userId).keySet()));
+            for (ReportIpSketch stored : reportIpSketchRepository.findAllForUpdate(batch, months)) {
+                HyperLogLog sketch = sketches.get(stored.getUserId()).remove(stored.getMonth());
+                if (sketch != null) {
+                    HyperLogLog merged = HyperLogLog.fromBytes(stored.getSketch());
+                    if (merged.merge(sketch)) {
+                        stored.setSketch(merged.toBytes());
+                    }
+                }
+            }
+            List<ReportIpSketch> created = new ArrayList<>();
+            for (Long userId : batch) {
+                sketches
+                    .get(userId)
+                    .forEach((month, sketch) -> created.add(new ReportIpSketch().userId(userId).month(month).sketch(sketch.toBytes())));
+            }
+            reportIpSketchRepository.saveAll(created);
+        }
+    }
+
+    /**
+     * Estimate the number of distinct IP addresses of the reports of a user, or of all the users.
+     *
+     * @param userId the id of the user, or {@code null} for all the users.
+     * @param from the first month of creation of the reports, or {@code null} for no lower bound.
+     * @param to the last month of creation of the reports, or {@code null} for no upper bound.
+     * @return the estimate, and its relative standard error.
+     */
+    @Transactional(readOnly = true)
+    public DistinctIpCountDTO countDistinctIps(Long userId, YearMonth from, YearMonth to) {
+        log.debug("Request to count the distinct IP addresses of the Reports of user {} from {} to {}", userId, from, to);
+        HyperLogLog union = new HyperLogLog();
+        for (ReportIpSketch sketch : reportIpSketchRepository.findAllByUserId(
+            userId != null ? userId : ReportIpSketch.ALL_USERS,
+            from != null ? from.toString() : FIRST_MONTH,
+            to != null ? to.toString() : LAST_MONTH
+        )) {
+            union.merge(HyperLogLog.fromBytes(sketch.getSketch()));
+        }
+        return new DistinctIpCountDTO(userId, union.estimate(), HyperLogLog.STANDARD_ERROR);
+    }
+
+    /**
+     * Estimate the number of distinct IP addresses of the reports of each user, and keep the users with the most.
+     *
+     * @param from the first month of creation of the reports, or {@code null} for no lower bound.
+     * @param to the last month of creation of the reports, or {@code null} for no upper bound.
+     * @param limit the maximum number of users.
+     * @return the users with the most distinct IP addresses, by descending estimate then user id.
+     */
+    @Transactional(readOnly = true)
+    public List<DistinctIpCountDTO> countDistinctIpsByUser(YearMonth from, YearMonth to, int limit) {
+        log.debug("Request to count the distinct IP addresses of the Reports by user from {} to {}", from, to);
+        Comparator<DistinctIpCountDTO> order = Comparator
+            .comparingLong(DistinctIpCountDTO::getEstimate)
+            .reversed()
+            .thenComparing(DistinctIpCountDTO::getUserId);
+        // Smallest of the kept users first, so that it is the one replaced
+        PriorityQueue<DistinctIpCountDTO> top = new PriorityQueue<>(order.reversed());
+        Long userId = null;
+        HyperLogLog union = null;
+        // Only the sketches of one user are merged at a time
+        try (
+            Stream<ReportIpSketchOfUser> sketches = reportIpSketchRepository.streamAllOfUsers(
+                from != null ? from.toString() : FIRST_MONTH,
+                to != null ? to.toString() : LAST_MONTH
+            )
+        ) {
+            Iterator<ReportIpSketchOfUser> iterator = sketches.iterator();
+            while (iterator.hasNext()) {
+                ReportIpSketchOfUser sketch = iterator.next();
+                if (!sketch.getUserId().equals(userId)) {
+                    offer(top, userId, union, limit);
+                    userId = sketch.getUserId();
+                    union = new HyperLogLog();
+                }
+                union.merge(HyperLogLog.fromBytes(sketch.getSketch()));
+            }
+        }
+        offer(top, userId, union, limit);
+        List<DistinctIpCountDTO> counts = new ArrayList<>(top);
+        counts.sort(order);
+        return counts;
+    }
+
+    private static void offer(PriorityQueue<DistinctIpCountDTO> top, Long userId, HyperLogLog union, int limit) {
+        if (userId == null) {
+            return;
+        }
+        top.add(new DistinctIpCountDTO(userId, union.estimate(), HyperLogLog.STANDARD_ERROR));
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.repository.ReportSearchHit;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Embedded in-memory Lucene index of the report titles and descriptions, serving the full-text search when the
+ * database is not PostgreSQL, typically H2 in development.
+ * <p>
+ * The index is built from the database on startup, then kept up to date from the report changes broadcast by the
+ * {@link ReportChangeBus}.
+ * It mirrors the PostgreSQL search: English stemming, all the terms are required by default, and a title match weighs
+ * more than a description match.
+ */
+@Service
+@ConditionalOnExpression("!'${spring.jpa.database-platform:}'.contains('PostgreSQL')")
+public class ReportLuceneIndex implements ReportChangeListener {
+
+    private static final String ID = "id";
+
+    private static final String TITLE = "title";
+
+    private static final String DESCRIPTION = "description";
+
+    /**
+     * Same weights as the default {@code ts_rank_cd} weights of the {@code A} and {@code B} labels.
+     */
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(TITLE, 1.0f, DESCRIPTION, 0.4f);
+
+    private static final Sort RELEVANCE_ORDER = new Sort(SortField.FIELD_SCORE, new SortField(ID, SortField.Type.LONG, true));
+
+    private final Logger log = LoggerFactory.getLogger(ReportLuceneIndex.class);
+
+    private final ReportQueryService reportQueryService;
+
+    private final Analyzer analyzer = new EnglishAnalyzer();
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private final ReportVersions versions = new ReportVersions();
+
+    public ReportLuceneIndex(ReportQueryService reportQueryService) throws IOException {
+        this.reportQueryService = reportQueryService;
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Rebuild the index from all the reports of the database.
+     * <p>
+     * Changes are applied under the same lock, so that a change committed while the index is rebuilt is applied after
+     * the rebuild, and is never overwritten by an older version of the report.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        try {
+            writer.deleteAll();
+            versions.clear();
+            long count = reportQueryService.streamByCriteria(
+                null,
+                report -> {
+                    versions.indexed(report);
+                    index(report);
+                }
+            );
+            searcherManager.maybeRefreshBlocking();
+            log.debug("Indexed {} reports", count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Apply a batch of report changes to the index. Only the changes newer than the indexed version of a report are
+     * applied, so that redelivered or reordered changes have no effect.
+     *
+     * @param messages the report changes.
+     */
+    @Override
+    public synchronized void onReportChanges(List<ReportOutboxMessage> messages) {
+        try {
+            for (ReportOutboxMessage message : messages) {
+                if (!versions.apply(message)) {
+                    continue;
+                }
+                if (message.getType() == ReportChangedEvent.Type.DELETED) {
+                    writer.deleteDocuments(new Term(ID, message.getReport().getId().toString()));
+                } else {
+                    index(message.getReport());
+                }
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onReportChangesMissed() {
+        rebuild();
+    }
+
+    private void index(ReportDTO report) {
+        Document document = new Document();
+        document.add(new StringField(ID, report.getId().toString(), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID, report.getId()));
+        if (report.getTitle() != null) {
+            document.add(new TextField(TITLE, report.getTitle(), Field.Store.NO));
+        }
+        if (report.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, report.getDescription(), Field.Store.NO));
+        }
+        try {
+            writer.updateDocument(new Term(ID, report.getId().toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Search the reports, with the syntax of {@link SimpleQueryParser}: quoted phrases, {@code -} to exclude a term and
+     * {@code |} for alternatives.
+     *
+     * @param query the search query.
+     * @param afterRank the relevance of the last hit of the previous slice, or {@code null} for the first slice.
+     * @param afterId the id of the last hit of the previous slice.
+     * @param limit the maximum number of hits.
+     * @return the matching reports, by descending relevance then descending id.
+     */
+    public List<ReportSearchHit> search(String query, Float afterRank, Long afterId, int limit) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query luceneQuery = parser.parse(query);
+        FieldDoc after = afterRank != null ? new FieldDoc(Integer.MAX_VALUE, afterRank, new Object[] { afterRank, afterId }) : null;
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopFieldDocs topDocs = searcher.searchAfter(after, luceneQuery, limit, RELEVANCE_ORDER, true);
+                List<ReportSearchHit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Object[] fields = ((FieldDoc) scoreDoc).fields;
+                    hits.add(new Hit((Long) fields[1], (Float) fields[0]));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private static final class Hit implements ReportSearchHit {
+
+        private final Long id;
+
+        private final Float rank;
+
+        private Hit(Long id, Float rank) {
+            this.id = id;
+            this.rank = rank;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Float getRank() {
+            return rank;
+        }
+    }
+}
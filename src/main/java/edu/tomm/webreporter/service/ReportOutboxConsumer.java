@@ -0,0 +1,21 @@
+package edu.tomm.webreporter.service;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the report changes relayed from the transactional outbox.
+ * <p>
+ * Every Spring bean implementing this interface receives each batch, in the transaction which deletes the batch from
+ * the outbox: throwing an exception rolls it back, and the batch is delivered again later. A message failing
+ * {@code application.report-outbox.max-attempts} times on its own, other than transiently, is left in the outbox for
+ * inspection, until it is requeued by {@link ReportOutboxService#requeueParked()}.
+ */
+@FunctionalInterface
+public interface ReportOutboxConsumer {
+    /**
+     * Consume a batch of report changes.
+     *
+     * @param messages the messages of the batch, ordered by id.
+     */
+    void consume(List<ReportOutboxMessage> messages);
+}
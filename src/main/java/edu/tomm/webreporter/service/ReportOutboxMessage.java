@@ -0,0 +1,71 @@
+package edu.tomm.webreporter.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.time.Instant;
+
+/**
+ * A report change relayed from the transactional outbox to the {@link ReportOutboxConsumer}s, and broadcast to the
+ * {@link ReportChangeListener}s of every node.
+ * <p>
+ * Messages are delivered at least once, ordered by {@link #getId()} within a batch. Ids are allocated in blocks by
+ * each node, so consumers needing the latest state of a report should compare {@link ReportDTO#getVersion()} rather
+ * than rely on the delivery order across batches.
+ */
+public final class ReportOutboxMessage {
+
+    private final long id;
+
+    private final ReportChangedEvent.Type type;
+
+    private final ReportDTO report;
+
+    private final Instant createdDate;
+
+    @JsonCreator
+    public ReportOutboxMessage(
+        @JsonProperty("id") long id,
+        @JsonProperty("type") ReportChangedEvent.Type type,
+        @JsonProperty("report") ReportDTO report,
+        @JsonProperty("createdDate") Instant createdDate
+    ) {
+        this.id = id;
+        this.type = type;
+        this.report = report;
+        this.createdDate = createdDate;
+    }
+
+    /**
+     * @return the id of the outbox event, which consumers can use to discard the redelivered messages.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public ReportChangedEvent.Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the report after the change, or before it for a deletion.
+     */
+    public ReportDTO getReport() {
+        return report;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReportOutboxMessage{" +
+            "id=" + id +
+            ", type=" + type +
+            ", reportId=" + report.getId() +
+            ", createdDate='" + createdDate + "'" +
+            "}";
+    }
+}
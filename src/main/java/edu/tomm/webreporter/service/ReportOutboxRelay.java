@@ -0,0 +1,92 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+/**
+ * Background relay of the report outbox: polls {@link ReportOutboxService#relay(int)} until the outbox is drained, then
+ * waits for the poll interval.
+ * <p>
+ * After a failed batch, events are relayed one at a time until one succeeds, so that a poisonous event only delays
+ * the others and is left aside once it has failed {@code max-attempts} times on its own. The events left aside are
+ * counted by the {@code report.outbox.parked} gauge, and relayed again by {@link ReportOutboxService#requeueParked()}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.report-outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class ReportOutboxRelay implements SmartLifecycle {
+
+    private final Logger log = LoggerFactory.getLogger(ReportOutboxRelay.class);
+
+    private final ReportOutboxService reportOutboxService;
+
+    private final int batchSize;
+
+    private final long pollIntervalMillis;
+
+    private volatile boolean running;
+
+    private Thread relayThread;
+
+    public ReportOutboxRelay(ReportOutboxService reportOutboxService, ApplicationProperties applicationProperties) {
+        this.reportOutboxService = reportOutboxService;
+        this.batchSize = applicationProperties.getReportOutbox().getBatchSize();
+        this.pollIntervalMillis = applicationProperties.getReportOutbox().getPollInterval().toMillis();
+    }
+
+    private void relay() {
+        boolean isolating = false;
+        while (running) {
+            int size = isolating ? 1 : batchSize;
+            int relayed = 0;
+            try {
+                relayed = reportOutboxService.relay(size);
+                isolating = false;
+            } catch (RuntimeException e) {
+                log.warn("Could not relay a batch of {} report outbox events: {}", size, e.getMessage(), e);
+                isolating = true;
+            }
+            if (relayed < size) {
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        relayThread = new Thread(this::relay, "report-outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (relayThread != null) {
+            relayThread.interrupt();
+            try {
+                relayThread.join(pollIntervalMillis + 5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            relayThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
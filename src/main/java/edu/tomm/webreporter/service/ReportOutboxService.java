@@ -0,0 +1,225 @@
+package edu.tomm.webreporter.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.domain.ReportOutboxEvent;
+import edu.tomm.webreporter.management.ReportOutboxMetersService;
+import edu.tomm.webreporter.repository.ReportOutboxEventRepository;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.mapper.ReportMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the transactional outbox of the report changes.
+ * <p>
+ * Each {@link ReportChangedEvent} is written to the {@code report_outbox_event} table in the transaction of the change,
+ * so that the outbox never misses a committed change nor contains a rolled back one. The outbox is then relayed in
+ * batches to the {@link ReportOutboxConsumer} beans, which never have to query the {@code report} table.
+ */
+@Service
+public class ReportOutboxService {
+
+    private final Logger log = LoggerFactory.getLogger(ReportOutboxService.class);
+
+    private final ReportOutboxEventRepository reportOutboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<ReportOutboxConsumer> consumers;
+
+    private final ReportOutboxMetersService reportOutboxMetersService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxAttempts;
+
+    private final ReportRepository reportRepository;
+
+    private final ReportMapper reportMapper;
+
+    private final boolean postgresql;
+
+    public ReportOutboxService(
+        ReportOutboxEventRepository reportOutboxEventRepository,
+        ObjectMapper objectMapper,
+        ObjectProvider<ReportOutboxConsumer> consumers,
+        ReportOutboxMetersService reportOutboxMetersService,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        ReportRepository reportRepository,
+        ReportMapper reportMapper,
+        @Value("${spring.jpa.database-platform:}") String databasePlatform
+    ) {
+        this.reportOutboxEventRepository = reportOutboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.consumers = consumers;
+        this.reportOutboxMetersService = reportOutboxMetersService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = applicationProperties.getReportOutbox().getMaxAttempts();
+        this.reportRepository = reportRepository;
+        this.reportMapper = reportMapper;
+        this.postgresql = databasePlatform.contains("PostgreSQL");
+        reportOutboxMetersService.trackParked(() -> reportOutboxEventRepository.countByAttemptsGreaterThanEqual(maxAttempts));
+    }
+
+    /**
+     * Write the changed reports to the outbox, just before the transaction of the change commits.
+     * <p>
+     * Report changes are always published in a transaction, see {@link ReportChangedEvent}: without one, there would be
+     * no commit to write the outbox in.
+     *
+     * @param event the report change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onReportChanged(ReportChangedEvent event) {
+        List<ReportOutboxEvent> events = new ArrayList<>(event.getReports().size());
+        for (ReportDTO report : event.getReports()) {
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(report);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize the report " + report.getId(), e);
+            }
+            events.add(new ReportOutboxEvent().reportId(report.getId()).eventType(event.getType().name()).payload(payload));
+        }
+        // A batch of reports is inserted with JDBC batching
+        reportOutboxEventRepository.saveAll(events);
+    }
+
+    /**
+     * Write the current state of reports to the outbox, in the current transaction, for the bulk changes which do not go
+     * through {@link ReportService}: a deletion must be written before the reports are deleted, a creation or an update
+     * after the reports are written.
+     * <p>
+     * On PostgreSQL, the events are written by a single {@code insert ... select} from the {@code report} table, without
+     * loading the reports. Elsewhere, the reports are loaded, then their events inserted with JDBC batching.
+     *
+     * @param type the kind of change.
+     * @param reportIds the ids of the changed reports.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(ReportChangedEvent.Type type, Collection<Long> reportIds) {
+        if (reportIds.isEmpty()) {
+            return;
+        }
+        if (postgresql) {
+            reportOutboxEventRepository.insertFromReports(type.name(), reportIds);
+        } else {
+            List<ReportDTO> reports = reportMapper.toDto(reportRepository.findAllWithToOneRelationshipsByIdIn(reportIds));
+            onReportChanged(new ReportChangedEvent(type, reports));
+        }
+    }
+
+    /**
+     * Relay the next batch of the outbox to the consumers, and delete it, in a single transaction.
+     * <p>
+     * The batch is locked with {@code SKIP LOCKED}, so that several nodes can relay the outbox concurrently. When a
+     * consumer fails, the transaction is rolled back; if the batch was a single event, its failed attempts are counted
+     * so that it is eventually left aside, unless the failure is transient, such as a lost connection or a deadlock,
+     * which says nothing about the event.
+     *
+     * @param batchSize the maximum number of events to relay.
+     * @return the number of relayed events.
+     */
+    public int relay(int batchSize) {
+        return relay(batchSize, consumers.orderedStream().collect(Collectors.toList()));
+    }
+
+    int relay(int batchSize, List<ReportOutboxConsumer> consumers) {
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(batchSize);
+        List<ReportOutboxMessage> messages = new ArrayList<>(batchSize);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<ReportOutboxEvent> events = reportOutboxEventRepository.findNextForUpdate(maxAttempts, PageRequest.of(0, batchSize));
+                if (events.isEmpty()) {
+                    return;
+                }
+                for (ReportOutboxEvent event : events) {
+                    ids.add(event.getId());
+                    messages.add(toMessage(event));
+                }
+                for (ReportOutboxConsumer consumer : consumers) {
+                    consumer.consume(messages);
+                }
+                reportOutboxEventRepository.deleteAllByIdInBatch(ids);
+            });
+        } catch (RuntimeException e) {
+            reportOutboxMetersService.trackBatchFailed(ids.size());
+            if (ids.size() == 1 && !isTransient(e)) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> reportOutboxEventRepository.incrementAttempts(ids));
+                } catch (RuntimeException countFailure) {
+                    e.addSuppressed(countFailure);
+                }
+            }
+            throw e;
+        }
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        reportOutboxMetersService.trackBatchRelayed(messages.size(), Duration.ofNanos(System.nanoTime() - start));
+        messages.forEach(message -> reportOutboxMetersService.trackLag(Duration.between(message.getCreatedDate(), now)));
+        log.debug("Relayed {} report outbox events", messages.size());
+        return messages.size();
+    }
+
+    /**
+     * Relay again the events left aside after failing {@code max-attempts} times, once the cause of their failures is
+     * fixed.
+     *
+     * @return the number of events to relay again.
+     */
+    @Transactional
+    public int requeueParked() {
+        int requeued = reportOutboxEventRepository.resetParkedAttempts(maxAttempts);
+        log.info("Requeued {} report outbox events", requeued);
+        return requeued;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return (
+            e instanceof TransientDataAccessException ||
+            e instanceof RecoverableDataAccessException ||
+            e instanceof DataAccessResourceFailureException ||
+            e instanceof CannotCreateTransactionException
+        );
+    }
+
+    private ReportOutboxMessage toMessage(ReportOutboxEvent event) {
+        try {
+            return new ReportOutboxMessage(
+                event.getId(),
+                ReportChangedEvent.Type.valueOf(event.getEventType()),
+                objectMapper.readValue(event.getPayload(), ReportDTO.class),
+                event.getCreatedDate()
+            );
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new IllegalStateException("Unreadable report outbox event " + event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.repository.ReportRepository;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service maintaining the monthly partitions of the {@code report} table on PostgreSQL: the partitions of the next
+ * months are created ahead of time, and the partitions whose reports are all older than the retention are detached,
+ * and optionally dropped, which takes the same time whatever their number of reports.
+ * <p>
+ * Expired reports are not deleted one by one: no {@link ReportChangedEvent} is published for them, and the caches and
+ * the in-memory indexes of every node are resynchronized by {@link ReportBulkChangeService} instead.
+ */
+@Service
+public class ReportPartitionService {
+
+    private final Logger log = LoggerFactory.getLogger(ReportPartitionService.class);
+
+    private final ReportRepository reportRepository;
+
+    private final ReportBulkChangeService reportBulkChangeService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.ReportPartition properties;
+
+    private final boolean partitioningSupported;
+
+    public ReportPartitionService(
+        ReportRepository reportRepository,
+        ReportBulkChangeService reportBulkChangeService,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        @Value("${spring.jpa.database-platform:}") String databasePlatform
+    ) {
+        this.reportRepository = reportRepository;
+        this.reportBulkChangeService = reportBulkChangeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getReportPartition();
+        this.partitioningSupported = databasePlatform.contains("PostgreSQL");
+    }
+
+    /**
+     * Create the missing partitions on startup, in case the application was stopped when they were due.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (partitioningSupported) {
+            createPartitions();
+        }
+    }
+
+    /**
+     * Create the partitions of the next months, and expire the old ones.
+     * <p>
+     * This is scheduled to get fired everyday, at 00:30 (am).
+     */
+    @Scheduled(cron = "0 30 0 * * ?")
+    public void maintainPartitions() {
+        if (!partitioningSupported) {
+            return;
+        }
+        createPartitions();
+        if (properties.getRetentionMonths() > 0) {
+            expirePartitions(YearMonth.from(LocalDate.now(ZoneOffset.UTC).minusMonths(properties.getRetentionMonths())));
+        }
+    }
+
+    /**
+     * Create the partitions of the current month and of the {@code months-ahead} next months, each in its own
+     * transaction, so that a month which cannot be created does not block the others. The reports of a month which were
+     * written to the default partition before its partition was created are moved to it.
+     */
+    void createPartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        List<YearMonth> existing = transactionTemplate.execute(status -> reportRepository.findPartitionMonths());
+        for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing == null || existing.contains(month)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> reportRepository.createPartition(month));
+                log.info("Created the report partition of {}", month);
+            } catch (RuntimeException e) {
+                // Reports of the month keep going to the default partition, which every query then scans
+                log.error("Could not create the report partition of {}", month, e);
+            }
+        }
+    }
+
+    /**
+     * Detach, and drop if configured so, the partitions of the months before {@code oldestKept}, each in its own
+     * transaction taken by one node at a time: detaching a partition locks the {@code report} table until the
+     * transaction ends, so the next partitions are not scanned while it is locked.
+     *
+     * @param oldestKept the month of the oldest partition to keep.
+     * @return the months of the expired partitions.
+     */
+    List<YearMonth> expirePartitions(YearMonth oldestKept) {
+        List<YearMonth> existing = transactionTemplate.execute(status -> reportRepository.findPartitionMonths());
+        List<YearMonth> expired = new ArrayList<>();
+        try {
+            for (YearMonth month : existing != null ? existing : List.<YearMonth>of()) {
+                if (!month.isBefore(oldestKept)) {
+                    continue;
+                }
+                Boolean detached = transactionTemplate.execute(status -> {
+                    // Another node may be expiring the partitions, or may have expired this one since they were listed
+                    if (!reportRepository.tryLockPartitionMaintenance() || !reportRepository.findPartitionMonths().contains(month)) {
+                        return false;
+                    }
+                    reportRepository.detachPartition(month);
+                    if (properties.isDropExpired()) {
+                        reportRepository.dropDetachedPartition(month);
+                    }
+                    return true;
+                });
+                if (Boolean.TRUE.equals(detached)) {
+                    expired.add(month);
+                }
+            }
+        } finally {
+            if (!expired.isEmpty()) {
+                log.info("Expired the report partitions of {}, dropped: {}", expired, properties.isDropExpired());
+                reportBulkChangeService.reportsChangedOutsideOutbox();
+            }
+        }
+        return expired;
+    }
+}
@@ -5,13 +5,33 @@ import edu.tomm.webreporter.domain.Report;
 import edu.tomm.webreporter.repository.ReportRepository;
 import edu.tomm.webreporter.service.criteria.ReportCriteria;
 import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.ReportStatDTO;
 import edu.tomm.webreporter.service.mapper.ReportMapper;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,33 +41,72 @@ import tech.jhipster.service.QueryService;
  * Service for executing complex queries for {@link Report} entities in the database.
  * The main input is a {@link ReportCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link ReportDTO} or a {@link Page} of {@link ReportDTO} which fulfills the criteria.
+ * It returns a {@link List} of {@link ReportDTO}, a {@link Page} or a keyset {@link Slice} of {@link ReportDTO} which fulfills
+ * the criteria.
+ * The lists, pages, slices and counts include the matching reports of the {@link ReportArchive}, which are only read when
+ * the id and creation time filters reach back to them. Such lists and pages are sorted by id and creation time only,
+ * and end at the {@value #MAX_MERGED_RESULTS}th report: the slices of the keyset pagination go past it.
  */
 @Service
 @Transactional(readOnly = true)
 public class ReportQueryService extends QueryService<Report> {
 
+    /**
+     * Number of rows fetched per JDBC round trip when streaming, which is also how often the persistence context is
+     * cleared, so that streaming keeps a constant memory footprint.
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Maximum number of reports of the lists and pages including archived reports, as both sources are read from their
+     * first report to the end of the page.
+     */
+    static final int MAX_MERGED_RESULTS = 10000;
+
     private final Logger log = LoggerFactory.getLogger(ReportQueryService.class);
 
     private final ReportRepository reportRepository;
 
     private final ReportMapper reportMapper;
 
-    public ReportQueryService(ReportRepository reportRepository, ReportMapper reportMapper) {
+    private final EntityManager entityManager;
+
+    private final ReportArchive reportArchive;
+
+    public ReportQueryService(
+        ReportRepository reportRepository,
+        ReportMapper reportMapper,
+        EntityManager entityManager,
+        ReportArchive reportArchive
+    ) {
         this.reportRepository = reportRepository;
         this.reportMapper = reportMapper;
+        this.entityManager = entityManager;
+        this.reportArchive = reportArchive;
     }
 
     /**
      * Return a {@link List} of {@link ReportDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the matching entities.
+     * @throws IllegalArgumentException if more than {@value #MAX_MERGED_RESULTS} archived reports match the criteria.
      */
     @Transactional(readOnly = true)
     public List<ReportDTO> findByCriteria(ReportCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<Report> specification = createSpecification(criteria);
-        return reportMapper.toDto(reportRepository.findAll(specification));
+        List<ReportDTO> reports = reportMapper.toDto(reportRepository.findAll(specification));
+        if (reportArchive.mayMatch(criteria)) {
+            List<ReportDTO> archived = reportArchive.findFirst(criteria, Sort.by("id"), MAX_MERGED_RESULTS + 1, null);
+            if (archived.size() > MAX_MERGED_RESULTS) {
+                throw new IllegalArgumentException(
+                    "More than " + MAX_MERGED_RESULTS + " archived reports match the criteria, use keyset pagination instead"
+                );
+            }
+            reports = new ArrayList<>(reports);
+            reports.addAll(archived);
+        }
+        return reports;
     }
 
     /**
@@ -55,12 +114,98 @@ public class ReportQueryService extends QueryService<Report> {
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
+     * @throws IllegalArgumentException if the page includes archived reports, and is sorted by other properties than
+     * {@code id} and {@code createdAt}, or ends after the {@value #MAX_MERGED_RESULTS}th report.
      */
     @Transactional(readOnly = true)
     public Page<ReportDTO> findByCriteria(ReportCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Report> specification = createSpecification(criteria);
-        return reportRepository.findAll(specification, page).map(reportMapper::toDto);
+        if (!reportArchive.mayMatch(criteria)) {
+            return findAll(criteria, specification, page).map(reportMapper::toDto);
+        }
+        // Both sources sort the same way, the ties by id
+        Comparator<ReportDTO> order = ReportArchive.comparator(page.getSort());
+        Sort sort = page.getSort().getOrderFor("id") != null ? page.getSort() : page.getSort().and(Sort.by("id"));
+        if (page.isUnpaged()) {
+            List<ReportDTO> reports = findByCriteria(criteria);
+            reports.sort(order);
+            return new PageImpl<>(reports, page, reports.size());
+        }
+        if (page.getOffset() + page.getPageSize() > MAX_MERGED_RESULTS) {
+            throw new IllegalArgumentException(
+                "Pages including archived reports end at the " + MAX_MERGED_RESULTS + "th report, use keyset pagination instead"
+            );
+        }
+        // Both sources are read up to the end of the page, the archive only reading the blocks which sort before its end
+        int end = (int) (page.getOffset() + page.getPageSize());
+        Page<Report> reports = findAll(criteria, specification, PageRequest.of(0, end, sort));
+        List<ReportDTO> live = reportMapper.toDto(reports.getContent());
+        ReportDTO bound = live.size() == end ? live.get(end - 1) : null;
+        List<ReportDTO> archived = reportArchive.findFirst(criteria, sort, end, bound);
+        List<ReportDTO> merged = merge(live, archived, order);
+        List<ReportDTO> content = merged.subList((int) Math.min(page.getOffset(), merged.size()), Math.min(end, merged.size()));
+        return new PageImpl<>(content, page, reports.getTotalElements() + reportArchive.count(criteria));
+    }
+
+    private Page<Report> findAll(ReportCriteria criteria, Specification<Report> specification, Pageable page) {
+        if (isQueryCacheable(criteria)) {
+            return reportRepository.findAllCached(specification, page);
+        }
+        return reportRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return a {@link Slice} of {@link ReportDTO} which matches the criteria from the database, using keyset
+     * pagination on the id: no offset is skipped and no count query is executed.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param afterId The id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ReportDTO> findByCriteriaAfter(ReportCriteria criteria, Long afterId, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, afterId, size);
+        final Specification<Report> specification = createSpecification(criteria);
+        List<ReportDTO> reports = reportMapper.toDto(reportRepository.findAllAfter(specification, afterId, size + 1));
+        if (reportArchive.mayMatch(criteria)) {
+            ReportCriteria archiveCriteria = criteria != null ? criteria.copy() : new ReportCriteria();
+            if (afterId != null) {
+                Long greaterThan = archiveCriteria.id().getGreaterThan();
+                archiveCriteria.id().setGreaterThan(greaterThan != null ? Math.max(greaterThan, afterId) : afterId);
+            }
+            ReportDTO bound = reports.size() > size ? reports.get(size) : null;
+            Comparator<ReportDTO> byId = ReportArchive.comparator(Sort.by("id"));
+            reports = merge(reports, reportArchive.findFirst(archiveCriteria, Sort.by("id"), size + 1, bound), byId);
+        }
+        boolean hasNext = reports.size() > size;
+        List<ReportDTO> content = hasNext ? reports.subList(0, size) : reports;
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Stream all the {@link ReportDTO} which match the criteria from the database, ordered by id, to a consumer.
+     * Entities are read through a database cursor and detached as they are consumed, so the memory footprint does not
+     * depend on the number of matching entities. Archived reports are not streamed.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the matching entities.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long streamByCriteria(ReportCriteria criteria, Consumer<ReportDTO> consumer) {
+        log.debug("stream by criteria : {}", criteria);
+        final Specification<Report> specification = createSpecification(criteria);
+        long count = 0;
+        try (Stream<Report> reports = reportRepository.streamAll(specification, STREAM_FETCH_SIZE)) {
+            Iterator<Report> iterator = reports.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(reportMapper.toDto(iterator.next()));
+                if (++count % STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
     }
 
     /**
@@ -72,7 +217,119 @@ public class ReportQueryService extends QueryService<Report> {
     public long countByCriteria(ReportCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<Report> specification = createSpecification(criteria);
-        return reportRepository.count(specification);
+        long archived = reportArchive.mayMatch(criteria) ? reportArchive.count(criteria) : 0;
+        if (isQueryCacheable(criteria)) {
+            return reportRepository.countCached(specification) + archived;
+        }
+        return reportRepository.count(specification) + archived;
+    }
+
+    /**
+     * Count the matching entities by group in the database, with a single {@code group by} query.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param groupBy The grouping of the entities: {@code USER}, {@code IP} or {@code DAY}.
+     * @param limit The maximum number of groups, or {@code 0} for all the groups.
+     * @return the non-empty groups, the latest first for the days, and by descending number of entities then key otherwise.
+     */
+    @Transactional(readOnly = true)
+    public List<ReportStatDTO> countByCriteriaGroupedBy(ReportCriteria criteria, ReportStatsService.GroupBy groupBy, int limit) {
+        log.debug("count by criteria : {}, grouped by: {}", criteria, groupBy);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Report> root = query.from(Report.class);
+        Expression<?> key;
+        switch (groupBy) {
+            case USER:
+                key = root.get(Report_.user).get(User_.id);
+                break;
+            case IP:
+                key = root.get(Report_.ipAddress);
+                break;
+            case DAY:
+                key = root.get(Report_.createdAt).as(LocalDate.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Reports cannot be grouped by " + groupBy + " in the database");
+        }
+        Expression<Long> count = builder.count(root);
+        query.multiselect(key, count);
+        Predicate predicate = createSpecification(criteria).toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(key);
+        if (groupBy == ReportStatsService.GroupBy.DAY) {
+            query.orderBy(builder.desc(key));
+        } else {
+            query.orderBy(builder.desc(count), builder.asc(key));
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        List<ReportStatDTO> groups = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            groups.add(new ReportStatDTO(String.valueOf(tuple.get(0)), tuple.get(1, Long.class)));
+        }
+        return groups;
+    }
+
+    /**
+     * Merge two lists sorted in the same order, keeping the order of each list for the elements which the order does not
+     * tell apart.
+     */
+    private static List<ReportDTO> merge(List<ReportDTO> first, List<ReportDTO> second, Comparator<ReportDTO> order) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<ReportDTO> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            if (j == second.size() || (i < first.size() && order.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Whether the results of the criteria should be kept in the query cache: only the unfiltered queries and the queries
+     * filtered by user are, as they are polled the most and have a bounded number of distinct values, while the text
+     * filters would fill the cache with entries which are never read again.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return {@code true} if the query cache should be used.
+     */
+    private boolean isQueryCacheable(ReportCriteria criteria) {
+        return (
+            criteria == null ||
+            (
+                criteria.getId() == null &&
+                criteria.getTitle() == null &&
+                criteria.getDescription() == null &&
+                criteria.getIpAddress() == null &&
+                criteria.getCreatedAt() == null
+            )
+        );
+    }
+
+    /**
+     * Build a specification matching the reports whose IP address belongs to a CIDR block, as a range of the binary form
+     * of the addresses, which is served by the {@code ip_address_bytes} index.
+     * @param range the addresses of the CIDR block.
+     * @return the matching {@link Specification} of the entity.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected Specification<Report> buildCidrSpecification(IpAddresses.Range range) {
+        // byte[] is not Comparable in Java, but the binary columns are compared as unsigned bytes by the databases
+        return (root, query, builder) ->
+            builder.between(
+                (Expression) root.get(Report_.ipAddressBytes),
+                (Expression) builder.literal(range.getFirst()),
+                (Expression) builder.literal(range.getLast())
+            );
     }
 
     /**
@@ -98,6 +355,13 @@ public class ReportQueryService extends QueryService<Report> {
             }
             if (criteria.getIpAddress() != null) {
                 specification = specification.and(buildStringSpecification(criteria.getIpAddress(), Report_.ipAddress));
+                if (criteria.getIpAddress().getInCidr() != null) {
+                    specification = specification.and(buildCidrSpecification(criteria.getIpAddress().getInCidrRange()));
+                }
+            }
+            if (criteria.getCreatedAt() != null) {
+                // A range of created_at only scans the partitions of the range on PostgreSQL
+                specification = specification.and(buildRangeSpecification(criteria.getCreatedAt(), Report_.createdAt));
             }
             if (criteria.getUserId() != null) {
                 specification =
@@ -0,0 +1,27 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.service.dto.ReportDTO;
+
+/**
+ * A report matching a full-text search, with its relevance, which is only comparable to the relevance of the other
+ * results of the same search.
+ */
+public final class ReportSearchResult {
+
+    private final ReportDTO report;
+
+    private final float rank;
+
+    public ReportSearchResult(ReportDTO report, float rank) {
+        this.report = report;
+        this.rank = rank;
+    }
+
+    public ReportDTO getReport() {
+        return report;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+}
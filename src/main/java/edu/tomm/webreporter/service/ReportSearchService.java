@@ -0,0 +1,106 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.ReportSearchHit;
+import edu.tomm.webreporter.service.mapper.ReportMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the full-text search of the {@link Report} titles and descriptions.
+ * <p>
+ * On PostgreSQL, the search is served by the GIN index of the {@code search_vector} column and ranked by
+ * {@code ts_rank_cd}. Other databases are served by the embedded {@link ReportLuceneIndex}. In both cases, results are
+ * ordered by descending relevance then descending id, and paginated with a keyset on both.
+ * <p>
+ * On PostgreSQL, only the {@value #MAX_CANDIDATES} most recent matches of a query are ranked, so that the latency does
+ * not grow with the number of matches: the results of a query matching more reports are the most relevant of the most
+ * recent ones. The embedded index ranks all the matches, which it keeps in memory.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportSearchService {
+
+    /**
+     * Maximum number of matches ranked by the database.
+     */
+    static final int MAX_CANDIDATES = 10000;
+
+    private final Logger log = LoggerFactory.getLogger(ReportSearchService.class);
+
+    private final ReportRepository reportRepository;
+
+    private final ReportMapper reportMapper;
+
+    private final ReportLuceneIndex reportLuceneIndex;
+
+    private final boolean databaseSearch;
+
+    public ReportSearchService(
+        ReportRepository reportRepository,
+        ReportMapper reportMapper,
+        ObjectProvider<ReportLuceneIndex> reportLuceneIndex,
+        @Value("${spring.jpa.database-platform:}") String databasePlatform
+    ) {
+        this.reportRepository = reportRepository;
+        this.reportMapper = reportMapper;
+        this.reportLuceneIndex = reportLuceneIndex.getIfAvailable();
+        this.databaseSearch = databasePlatform.contains("PostgreSQL");
+    }
+
+    /**
+     * Search the reports.
+     *
+     * @param query the search query.
+     * @param afterRank the relevance of the last result of the previous slice, or {@code null} for the first slice.
+     * @param afterId the id of the last result of the previous slice.
+     * @param size the maximum number of results.
+     * @return the matching reports, by descending relevance then descending id.
+     */
+    public Slice<ReportSearchResult> search(String query, Float afterRank, Long afterId, int size) {
+        log.debug("Request to search Reports : {}, after: {}/{}, size: {}", query, afterRank, afterId, size);
+        List<ReportSearchHit> hits = findHits(query, afterRank, afterId, size + 1);
+        boolean hasNext = hits.size() > size;
+        if (hasNext) {
+            hits = hits.subList(0, size);
+        }
+        List<Long> ids = hits.stream().map(ReportSearchHit::getId).collect(Collectors.toList());
+        Map<Long, Report> reports = reportRepository
+            .findAllWithToOneRelationshipsByIdIn(ids)
+            .stream()
+            .collect(Collectors.toMap(Report::getId, Function.identity()));
+        List<ReportSearchResult> results = new ArrayList<>(hits.size());
+        for (ReportSearchHit hit : hits) {
+            // The embedded index is updated after commit, and may still reference a report deleted in the meantime
+            Report report = reports.get(hit.getId());
+            if (report != null) {
+                results.add(new ReportSearchResult(reportMapper.toDto(report), hit.getRank()));
+            }
+        }
+        return new SliceImpl<>(results, PageRequest.of(0, size), hasNext);
+    }
+
+    private List<ReportSearchHit> findHits(String query, Float afterRank, Long afterId, int limit) {
+        if (!databaseSearch) {
+            return reportLuceneIndex.search(query, afterRank, afterId, limit);
+        }
+        PageRequest pageable = PageRequest.of(0, limit);
+        if (afterRank == null) {
+            return reportRepository.search(query, MAX_CANDIDATES, pageable);
+        }
+        return reportRepository.searchAfter(query, MAX_CANDIDATES, afterRank, afterId, pageable);
+    }
+}
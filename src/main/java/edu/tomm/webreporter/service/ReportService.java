@@ -1,16 +1,38 @@
 package edu.tomm.webreporter.service;
 
 import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.domain.User;
 import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.UserRepository;
+import edu.tomm.webreporter.security.SecurityUtils;
+import edu.tomm.webreporter.service.dto.ReportBatchResultDTO;
 import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
 import edu.tomm.webreporter.service.mapper.ReportMapper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service Implementation for managing {@link Report}.
@@ -25,9 +47,40 @@ public class ReportService {
 
     private final ReportMapper reportMapper;
 
-    public ReportService(ReportRepository reportRepository, ReportMapper reportMapper) {
+    private final UserRepository userRepository;
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final int jdbcBatchSize;
+
+    private final ReportCountService reportCountService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReportArchive reportArchive;
+
+    public ReportService(
+        ReportRepository reportRepository,
+        ReportMapper reportMapper,
+        UserRepository userRepository,
+        Validator validator,
+        EntityManager entityManager,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int jdbcBatchSize,
+        ReportCountService reportCountService,
+        ApplicationEventPublisher eventPublisher,
+        ReportArchive reportArchive
+    ) {
         this.reportRepository = reportRepository;
         this.reportMapper = reportMapper;
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.reportCountService = reportCountService;
+        this.eventPublisher = eventPublisher;
+        this.reportArchive = reportArchive;
     }
 
     /**
@@ -40,27 +93,138 @@ public class ReportService {
         log.debug("Request to save Report : {}", reportDTO);
         Report report = reportMapper.toEntity(reportDTO);
         report = reportRepository.save(report);
-        return reportMapper.toDto(report);
+        reportCountService.evictAll();
+        return published(ReportChangedEvent.Type.CREATED, reportMapper.toDto(report));
+    }
+
+    /**
+     * Save a batch of new reports.
+     * <p>
+     * All the items are validated in one pass, and the valid ones are inserted in a single transaction using JDBC
+     * batching: the persistence context is flushed and cleared every {@code hibernate.jdbc.batch_size} reports.
+     * Invalid items (constraint violations, an existing id or an unknown user) are rejected without aborting the batch.
+     * The created reports are published as a single {@link ReportChangedEvent}.
+     *
+     * @param reportDTOs the entities to save.
+     * @return the outcome of each item, in the same order.
+     */
+    public List<ReportBatchResultDTO> saveAll(List<ReportDTO> reportDTOs) {
+        log.debug("Request to save a batch of {} Reports", reportDTOs.size());
+        Set<Long> existingUserIds = userRepository
+            .findAllById(
+                reportDTOs
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .map(ReportDTO::getUser)
+                    .filter(Objects::nonNull)
+                    .map(UserDTO::getId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet())
+            )
+            .stream()
+            .map(User::getId)
+            .collect(Collectors.toSet());
+
+        List<ReportBatchResultDTO> results = new ArrayList<>(reportDTOs.size());
+        List<ReportDTO> createdReports = new ArrayList<>(reportDTOs.size());
+        int pending = 0;
+        for (int index = 0; index < reportDTOs.size(); index++) {
+            ReportDTO reportDTO = reportDTOs.get(index);
+            List<String> errors = validateNewReport(reportDTO, existingUserIds);
+            if (!errors.isEmpty()) {
+                results.add(ReportBatchResultDTO.rejected(index, errors));
+                continue;
+            }
+            Report report = reportRepository.save(reportMapper.toEntity(reportDTO));
+            results.add(ReportBatchResultDTO.created(index, report.getId()));
+            createdReports.add(reportMapper.toDto(report));
+            if (++pending % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        reportCountService.evictAll();
+        if (!createdReports.isEmpty()) {
+            publish(new ReportChangedEvent(ReportChangedEvent.Type.CREATED, createdReports));
+        }
+        return results;
+    }
+
+    private List<String> validateNewReport(ReportDTO reportDTO, Set<Long> existingUserIds) {
+        List<String> errors = new ArrayList<>();
+        if (reportDTO == null) {
+            errors.add("report: must not be null");
+            return errors;
+        }
+        if (reportDTO.getId() != null) {
+            errors.add("id: a new report cannot already have an ID");
+        }
+        for (ConstraintViolation<ReportDTO> violation : validator.validate(reportDTO)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (reportDTO.getUser() == null || reportDTO.getUser().getId() == null) {
+            errors.add("user: must not be null");
+        } else if (!existingUserIds.contains(reportDTO.getUser().getId())) {
+            errors.add("user: does not exist");
+        }
+        return errors;
     }
 
     /**
      * Update a report.
+     * <p>
+     * When the report carries its version, it is written with a single versioned update statement, without loading it
+     * first: only its creation time, which is owned by the server and never updated, is read, which also tells whether
+     * it exists. Otherwise it is loaded to be merged, as before versions were exposed.
      *
      * @param reportDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty when it does not exist.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the report was modified since the
+     * version it carries, or was deleted after its creation time was read.
      */
-    public ReportDTO update(ReportDTO reportDTO) {
+    public Optional<ReportDTO> update(ReportDTO reportDTO) {
         log.debug("Request to update Report : {}", reportDTO);
         Report report = reportMapper.toEntity(reportDTO);
-        report = reportRepository.save(report);
-        return reportMapper.toDto(report);
+        if (reportDTO.getUser() != null && reportDTO.getUser().getId() != null) {
+            report.setUser(entityManager.getReference(User.class, reportDTO.getUser().getId()));
+        }
+        Optional<Report> result;
+        if (report.getVersion() != null) {
+            // The updated state is cached and published as a whole, so it must hold the stored creation time
+            result =
+                reportRepository
+                    .findCreatedAtById(report.getId())
+                    .map(createdAt -> {
+                        report.setCreatedAt(createdAt);
+                        return reportRepository.updateDetached(report);
+                    });
+        } else {
+            result =
+                reportRepository
+                    .findById(report.getId())
+                    .map(existingReport -> {
+                        report.setVersion(existingReport.getVersion());
+                        report.setCreatedAt(existingReport.getCreatedAt());
+                        return reportRepository.saveAndFlush(report);
+                    });
+        }
+        return result.map(updatedReport -> {
+            reportCountService.evictAll();
+            return published(ReportChangedEvent.Type.UPDATED, reportMapper.toDto(updatedReport));
+        });
     }
 
     /**
      * Partially update a report.
+     * <p>
+     * The report is read through the second-level cache and written by dirty checking, without being merged again.
      *
      * @param reportDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty when it does not exist.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the report was modified since the
+     * version carried by {@code reportDTO}, when it carries one.
      */
     public Optional<ReportDTO> partialUpdate(ReportDTO reportDTO) {
         log.debug("Request to partially update Report : {}", reportDTO);
@@ -68,12 +232,14 @@ public class ReportService {
         return reportRepository
             .findById(reportDTO.getId())
             .map(existingReport -> {
+                if (reportDTO.getVersion() != null && !reportDTO.getVersion().equals(existingReport.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Report.class, existingReport.getId());
+                }
                 reportMapper.partialUpdate(existingReport, reportDTO);
-
-                return existingReport;
-            })
-            .map(reportRepository::save)
-            .map(reportMapper::toDto);
+                entityManager.flush();
+                reportCountService.evictAll();
+                return published(ReportChangedEvent.Type.UPDATED, reportMapper.toDto(existingReport));
+            });
     }
 
     /**
@@ -88,6 +254,47 @@ public class ReportService {
         return reportRepository.findAll(pageable).map(reportMapper::toDto);
     }
 
+    /**
+     * Get the reports of the current user.
+     *
+     * @param pageable the pagination information, sorted by id when unsorted.
+     * @return the list of entities, empty when the current user is unknown.
+     */
+    @Transactional(readOnly = true)
+    public Page<ReportDTO> findAllOfCurrentUser(Pageable pageable) {
+        log.debug("Request to get the Reports of the current user");
+        Pageable sortedPageable = pageable.getSort().isSorted()
+            ? pageable
+            : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        return getCurrentUserId()
+            .map(userId -> reportRepository.findAllByUserId(userId, sortedPageable).map(reportMapper::toDto))
+            .orElseGet(() -> Page.empty(sortedPageable));
+    }
+
+    /**
+     * Get a slice of the reports of the current user, ordered by id, using keyset pagination.
+     *
+     * @param afterId the id after which the slice starts, or {@code null} for the first slice.
+     * @param size the maximum number of entities in the slice.
+     * @return the slice of entities, empty when the current user is unknown.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ReportDTO> findAllOfCurrentUserAfter(Long afterId, int size) {
+        log.debug("Request to get the Reports of the current user after: {}, size: {}", afterId, size);
+        Pageable pageable = PageRequest.of(0, size);
+        return getCurrentUserId()
+            .map(userId ->
+                reportRepository
+                    .findAllByUserIdAfter(userId, afterId != null ? afterId : Long.MIN_VALUE, pageable)
+                    .map(reportMapper::toDto)
+            )
+            .orElseGet(() -> new SliceImpl<>(Collections.emptyList(), pageable, false));
+    }
+
+    private Optional<Long> getCurrentUserId() {
+        return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findIdByLogin);
+    }
+
     /**
      * Get all the reports with eager load of many-to-many relationships.
      *
@@ -98,7 +305,7 @@ public class ReportService {
     }
 
     /**
-     * Get one report by id.
+     * Get one report by id, from the database or else from the archive.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -106,16 +313,38 @@ public class ReportService {
     @Transactional(readOnly = true)
     public Optional<ReportDTO> findOne(Long id) {
         log.debug("Request to get Report : {}", id);
-        return reportRepository.findOneWithEagerRelationships(id).map(reportMapper::toDto);
+        return reportRepository.findOneWithEagerRelationships(id).map(reportMapper::toDto).or(() -> reportArchive.findById(id));
     }
 
     /**
      * Delete the report by id.
      *
      * @param id the id of the entity.
+     * @throws ReportArchivedException if the report is archived, as archived reports are read-only.
      */
     public void delete(Long id) {
         log.debug("Request to delete Report : {}", id);
-        reportRepository.deleteById(id);
+        Optional<Report> report = reportRepository.findById(id);
+        if (report.isEmpty()) {
+            if (reportArchive.findById(id).isPresent()) {
+                throw new ReportArchivedException(id);
+            }
+            return;
+        }
+        reportRepository.delete(report.get());
+        reportCountService.evictAll();
+        published(ReportChangedEvent.Type.DELETED, reportMapper.toDto(report.get()));
+    }
+
+    private ReportDTO published(ReportChangedEvent.Type type, ReportDTO reportDTO) {
+        publish(new ReportChangedEvent(type, reportDTO));
+        return reportDTO;
+    }
+
+    private void publish(ReportChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Report changes must be published in a transaction");
+        }
+        eventPublisher.publishEvent(event);
     }
 }
@@ -0,0 +1,201 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.domain.IpAddresses;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.ReportRollup;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.dto.ReportStatDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the statistics of the {@link Report} entities: the number of reports by user, IP address, subnet, day or
+ * month.
+ * <p>
+ * On PostgreSQL, unfiltered statistics are read from the {@code report_rollup} table, maintained incrementally by the
+ * report triggers, so they cost a few index lookups whatever the number of reports. Filtered statistics, and all the
+ * statistics on other databases, are pushed down to the database as a single {@code group by} query.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportStatsService {
+
+    /**
+     * The grouping of the reports.
+     */
+    public enum GroupBy {
+        USER("user"),
+        IP("ip"),
+        SUBNET("ip"),
+        DAY("day"),
+        MONTH("month");
+
+        /**
+         * Dimension of the rollups which the groups are read or aggregated from.
+         */
+        private final String rollupDimension;
+
+        GroupBy(String rollupDimension) {
+            this.rollupDimension = rollupDimension;
+        }
+
+        /**
+         * @return whether the groups are time buckets, which are returned chronologically.
+         */
+        public boolean isTime() {
+            return this == DAY || this == MONTH;
+        }
+    }
+
+    /**
+     * Prefix length of the IPv6 subnets, the usual size of a site.
+     */
+    private static final int IPV6_SUBNET_PREFIX_LENGTH = 64;
+
+    private final Logger log = LoggerFactory.getLogger(ReportStatsService.class);
+
+    private final ReportQueryService reportQueryService;
+
+    private final ReportRepository reportRepository;
+
+    private final boolean rollupsSupported;
+
+    public ReportStatsService(
+        ReportQueryService reportQueryService,
+        ReportRepository reportRepository,
+        @Value("${spring.jpa.database-platform:}") String databasePlatform
+    ) {
+        this.reportQueryService = reportQueryService;
+        this.reportRepository = reportRepository;
+        this.rollupsSupported = databasePlatform.contains("PostgreSQL");
+    }
+
+    /**
+     * Count the reports matching the criteria by group.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @param groupBy the grouping of the reports.
+     * @param limit the maximum number of groups, at least 1.
+     * @param ipv4PrefixLength the prefix length of the IPv4 subnets, when grouping by subnet. IPv6 addresses are grouped
+     * by {@code /64} subnets, and the reports whose IP address is not an address literal are left out.
+     * @return the time buckets with the most recent reports, in chronological order, or the other groups with the most
+     * reports, by descending number of reports then key.
+     */
+    public List<ReportStatDTO> count(ReportCriteria criteria, GroupBy groupBy, int limit, int ipv4PrefixLength) {
+        log.debug("Request to count Reports : {}, grouped by: {}", criteria, groupBy);
+        boolean useRollups = rollupsSupported && ReportCountService.normalize(criteria).equals(new ReportCriteria());
+        List<ReportStatDTO> groups;
+        switch (groupBy) {
+            case SUBNET:
+                List<ReportStatDTO> addresses = useRollups
+                    ? toStats(reportRepository.findTopRollups(groupBy.rollupDimension, Pageable.unpaged()))
+                    : reportQueryService.countByCriteriaGroupedBy(criteria, GroupBy.IP, 0);
+                groups = countBySubnet(addresses, ipv4PrefixLength, limit);
+                break;
+            case MONTH:
+                groups =
+                    useRollups
+                        ? toStats(reportRepository.findLatestRollups(groupBy.rollupDimension, PageRequest.of(0, limit)))
+                        : countByMonth(reportQueryService.countByCriteriaGroupedBy(criteria, GroupBy.DAY, 0), limit);
+                break;
+            default:
+                if (useRollups) {
+                    Pageable page = PageRequest.of(0, limit);
+                    groups =
+                        toStats(
+                            groupBy.isTime()
+                                ? reportRepository.findLatestRollups(groupBy.rollupDimension, page)
+                                : reportRepository.findTopRollups(groupBy.rollupDimension, page)
+                        );
+                } else {
+                    groups = reportQueryService.countByCriteriaGroupedBy(criteria, groupBy, limit);
+                }
+        }
+        if (groupBy.isTime()) {
+            // Time buckets are read the latest first, to keep the most recent ones
+            groups = new ArrayList<>(groups);
+            Collections.reverse(groups);
+        }
+        return groups;
+    }
+
+    /**
+     * Fold the pending deltas of the report triggers into the rollups, so that they stay small. The fold runs on a
+     * single node at a time, and readers add the pending deltas themselves, so it only bounds the cost of reading.
+     */
+    @Scheduled(fixedDelayString = "${application.report-stats.fold-interval:PT10S}")
+    @Transactional
+    public void foldRollups() {
+        if (!rollupsSupported || !reportRepository.tryLockRollupFold()) {
+            return;
+        }
+        int folded = reportRepository.foldRollupDeltas();
+        if (folded > 0) {
+            reportRepository.deleteEmptyRollups();
+            log.debug("Folded the report rollup deltas into {} buckets", folded);
+        }
+    }
+
+    private static List<ReportStatDTO> toStats(List<ReportRollup> rollups) {
+        return rollups.stream().map(rollup -> new ReportStatDTO(rollup.getBucket(), rollup.getReportCount())).collect(Collectors.toList());
+    }
+
+    /**
+     * @param addresses the number of reports by IP address.
+     * @return the subnets with the most reports, by descending number of reports then address order.
+     */
+    private static List<ReportStatDTO> countBySubnet(List<ReportStatDTO> addresses, int ipv4PrefixLength, int limit) {
+        Map<IpAddresses.Range, Long> subnets = new HashMap<>();
+        for (ReportStatDTO address : addresses) {
+            byte[] bytes = IpAddresses.toBytes(address.getKey());
+            if (bytes != null) {
+                int prefixLength = IpAddresses.isIpv4Mapped(bytes)
+                    ? IpAddresses.IPV4_MAPPED_PREFIX_LENGTH + ipv4PrefixLength
+                    : IPV6_SUBNET_PREFIX_LENGTH;
+                subnets.merge(new IpAddresses.Range(bytes, prefixLength), address.getCount(), Long::sum);
+            }
+        }
+        Comparator<Map.Entry<IpAddresses.Range, Long>> byCount = Map.Entry.comparingByValue(Comparator.reverseOrder());
+        Comparator<IpAddresses.Range> byAddress = (a, b) -> Arrays.compareUnsigned(a.getFirst(), b.getFirst());
+        return subnets
+            .entrySet()
+            .stream()
+            .sorted(byCount.thenComparing(Map.Entry.comparingByKey(byAddress)))
+            .limit(limit)
+            .map(subnet -> new ReportStatDTO(subnet.getKey().toString(), subnet.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @param days the number of reports by {@code yyyy-MM-dd} day.
+     * @return the latest months, the latest first.
+     */
+    private static List<ReportStatDTO> countByMonth(List<ReportStatDTO> days, int limit) {
+        TreeMap<String, Long> months = new TreeMap<>(Comparator.reverseOrder());
+        for (ReportStatDTO day : days) {
+            months.merge(day.getKey().substring(0, 7), day.getCount(), Long::sum);
+        }
+        return months
+            .entrySet()
+            .stream()
+            .limit(limit)
+            .map(month -> new ReportStatDTO(month.getKey(), month.getValue()))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,206 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.criteria.ReportCriteriaMatcher;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service pushing the report changes of the whole cluster, broadcast by the {@link ReportChangeBus} once relayed from
+ * the outbox, to Server-Sent Events subscribers, each with its own {@link ReportCriteria}.
+ * <p>
+ * The fan-out never blocks the committing thread: events are appended to a bounded buffer per subscriber, which is
+ * drained by a small pool of sender threads. A subscriber whose buffer is full is too slow to keep up and is
+ * disconnected, so that it reloads the reports once reconnected instead of silently missing some changes. All the
+ * subscribers are disconnected for the same reason when the bus missed some changes.
+ */
+@Service
+public class ReportStreamService implements ReportChangeListener {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Logger log = LoggerFactory.getLogger(ReportStreamService.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final int bufferSize;
+
+    private final long timeoutMillis;
+
+    private final ExecutorService senders;
+
+    private final ScheduledExecutorService heartbeats;
+
+    public ReportStreamService(ApplicationProperties applicationProperties) {
+        ApplicationProperties.ReportStream properties = applicationProperties.getReportStream();
+        this.bufferSize = properties.getBufferSize();
+        this.timeoutMillis = properties.getTimeout().toMillis();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), daemonThreadFactory("report-stream-sender-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("report-stream-heartbeat-"));
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory(String threadNamePrefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * Subscribe to the changes of the reports matching the criteria.
+     *
+     * @param criteria the criteria which the pushed reports should match.
+     * @return the emitter of the subscription, completed on timeout or when the subscriber is too slow.
+     */
+    public SseEmitter subscribe(ReportCriteria criteria) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, criteria != null ? criteria.copy() : null, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Report stream subscribed by criteria: {}, {} subscribers", criteria, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Push a batch of report changes to the matching subscribers.
+     *
+     * @param messages the report changes.
+     */
+    @Override
+    public void onReportChanges(List<ReportOutboxMessage> messages) {
+        for (ReportOutboxMessage message : messages) {
+            for (Subscriber subscriber : subscribers) {
+                if (ReportCriteriaMatcher.matches(subscriber.criteria, message.getReport())) {
+                    enqueue(subscriber, message);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onReportChangesMissed() {
+        log.debug("Report changes were missed, disconnecting {} report stream subscribers", subscribers.size());
+        for (Subscriber subscriber : subscribers) {
+            disconnect(subscriber);
+        }
+    }
+
+    /**
+     * @return the number of open subscriptions.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, HEARTBEAT);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Object event) {
+        if (!subscriber.buffer.offer(event)) {
+            log.debug("Report stream subscriber is {} events behind, disconnecting it", bufferSize);
+            disconnect(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        // The emitter may be blocked by a slow write: let the sender complete it
+        subscriber.disconnecting = true;
+        subscribers.remove(subscriber);
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Object event;
+            while (!subscriber.disconnecting && (event = subscriber.buffer.poll()) != null) {
+                try {
+                    send(subscriber.emitter, event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Report stream subscriber closed: {}", e.getMessage());
+                    subscribers.remove(subscriber);
+                    subscriber.buffer.clear();
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                }
+            }
+            if (subscriber.disconnecting) {
+                subscriber.buffer.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.scheduled.set(false);
+        } while ((!subscriber.buffer.isEmpty() || subscriber.disconnecting) && subscriber.scheduled.compareAndSet(false, true));
+    }
+
+    private void send(SseEmitter emitter, Object event) throws IOException {
+        if (event == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+            return;
+        }
+        ReportOutboxMessage message = (ReportOutboxMessage) event;
+        emitter.send(
+            SseEmitter.event().name(message.getType().name().toLowerCase(Locale.ROOT)).data(message.getReport(), MediaType.APPLICATION_JSON)
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final ReportCriteria criteria;
+
+        private final Queue<Object> buffer;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean disconnecting;
+
+        private Subscriber(SseEmitter emitter, ReportCriteria criteria, int bufferSize) {
+            this.emitter = emitter;
+            this.criteria = criteria;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.domain.IpAddresses;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.SubnetCountDTO;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory index of the report IP addresses by prefix, in an {@link IpPrefixTrie}, serving the report counts by
+ * subnet without querying the database.
+ * <p>
+ * The index is built from the database on startup, then kept up to date from the report changes of the whole cluster,
+ * broadcast by the {@link ReportChangeBus} once relayed from the outbox. Reports whose IP address is not an address
+ * literal are not indexed.
+ */
+@Service
+public class ReportSubnetIndex implements ReportChangeListener {
+
+    private final Logger log = LoggerFactory.getLogger(ReportSubnetIndex.class);
+
+    private final ReportQueryService reportQueryService;
+
+    private final IpPrefixTrie trie = new IpPrefixTrie();
+
+    private final ReportVersions versions = new ReportVersions();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ReportSubnetIndex(ReportQueryService reportQueryService) {
+        this.reportQueryService = reportQueryService;
+    }
+
+    /**
+     * Rebuild the index from all the reports of the database.
+     * <p>
+     * Changes are applied under the same lock, so that a change committed while the index is rebuilt is applied after
+     * the rebuild, and is never overwritten by an older version of the report.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            versions.clear();
+            reportQueryService.streamByCriteria(
+                null,
+                report -> {
+                    versions.indexed(report);
+                    index(report);
+                }
+            );
+            log.debug("Indexed the IP addresses of {} reports", trie.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a batch of report changes to the index. Only the changes newer than the indexed version of a report are
+     * applied, so that redelivered or reordered changes have no effect.
+     *
+     * @param messages the report changes.
+     */
+    @Override
+    public void onReportChanges(List<ReportOutboxMessage> messages) {
+        lock.writeLock().lock();
+        try {
+            for (ReportOutboxMessage message : messages) {
+                if (!versions.apply(message)) {
+                    continue;
+                }
+                if (message.getType() == ReportChangedEvent.Type.DELETED) {
+                    trie.remove(message.getReport().getId());
+                } else {
+                    index(message.getReport());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onReportChangesMissed() {
+        rebuild();
+    }
+
+    private void index(ReportDTO report) {
+        byte[] address = IpAddresses.toBytes(report.getIpAddress());
+        if (address != null) {
+            trie.add(report.getId(), address);
+        } else {
+            trie.remove(report.getId());
+        }
+    }
+
+    /**
+     * Count the reports of a CIDR block by subnet.
+     *
+     * @param cidr the CIDR block.
+     * @param prefixLength the prefix length of the subnets, in the address family of the block.
+     * @param limit the maximum number of subnets.
+     * @return the subnets with the most reports, by descending count then address.
+     * @throws IllegalArgumentException if the block or the prefix length is not valid.
+     */
+    public List<SubnetCountDTO> countBySubnet(String cidr, int prefixLength, int limit) {
+        IpAddresses.Range block = IpAddresses.parseCidr(cidr);
+        int offset = block.isIpv4() ? IpAddresses.IPV4_MAPPED_PREFIX_LENGTH : 0;
+        int subnetLength = offset + prefixLength;
+        if (subnetLength < block.getPrefixLength() || subnetLength > IpAddresses.BITS) {
+            throw new IllegalArgumentException("Invalid subnet prefix length " + prefixLength + " for block " + cidr);
+        }
+        List<IpPrefixTrie.SubnetCount> subnets;
+        lock.readLock().lock();
+        try {
+            subnets = trie.countBySubnet(block, subnetLength);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return subnets
+            .stream()
+            .sorted(Comparator.comparingLong(IpPrefixTrie.SubnetCount::getCount).reversed())
+            .limit(limit)
+            .map(subnet -> new SubnetCountDTO(subnet.getSubnet().toString(), subnet.getCount()))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,56 @@
+package edu.tomm.webreporter.service;
+
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last applied version of each report of an in-memory index, so that the index only applies the newer changes of a
+ * report.
+ * <p>
+ * Outbox ids are allocated in blocks by each node and relayed by concurrent relays, so the changes of a report can be
+ * delivered in another order than they were committed. A deleted report keeps a tombstone, as report ids are never
+ * reused: a change delivered after its deletion is ignored. Not thread-safe, guarded by the lock of the index.
+ */
+final class ReportVersions {
+
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    /**
+     * Record the version of a report read from the database.
+     */
+    void indexed(ReportDTO report) {
+        if (report.getVersion() != null) {
+            versions.put(report.getId(), report.getVersion());
+        }
+    }
+
+    /**
+     * Record a change of a report, if newer than the last applied one.
+     *
+     * @param message the change.
+     * @return whether the change is newer and must be applied. Changes without version are always applied.
+     */
+    boolean apply(ReportOutboxMessage message) {
+        ReportDTO report = message.getReport();
+        Long applied = versions.get(report.getId());
+        if (message.getType() == ReportChangedEvent.Type.DELETED) {
+            versions.put(report.getId(), DELETED);
+            return applied == null || applied != DELETED;
+        }
+        if (report.getVersion() == null) {
+            return applied == null || applied != DELETED;
+        }
+        if (applied != null && applied >= report.getVersion()) {
+            return false;
+        }
+        versions.put(report.getId(), report.getVersion());
+        return true;
+    }
+
+    void clear() {
+        versions.clear();
+    }
+}
@@ -1,5 +1,7 @@
 package edu.tomm.webreporter.service;
 
+import edu.tomm.webreporter.cache.CacheInvalidation;
+import edu.tomm.webreporter.cache.CacheInvalidationBus;
 import edu.tomm.webreporter.config.Constants;
 import edu.tomm.webreporter.domain.Authority;
 import edu.tomm.webreporter.domain.User;
@@ -41,16 +43,20 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final CacheInvalidationBus cacheInvalidationBus;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        CacheInvalidationBus cacheInvalidationBus
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -317,9 +323,13 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
+        List<CacheInvalidation> invalidations = new ArrayList<>();
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        invalidations.add(CacheInvalidation.cache(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin()));
         if (user.getEmail() != null) {
             Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            invalidations.add(CacheInvalidation.cache(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail()));
         }
+        cacheInvalidationBus.publish(invalidations);
     }
 }
@@ -0,0 +1,86 @@
+package edu.tomm.webreporter.service.criteria;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import edu.tomm.webreporter.domain.IpAddresses;
+import java.util.Objects;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Filter of the IP addresses, adding to the {@link StringFilter} operations a CIDR block filter:
+ * {@code ipAddress.inCidr=10.20.0.0/16}, matched against the binary form of the addresses, see {@link IpAddresses}.
+ */
+public class IpAddressFilter extends StringFilter {
+
+    private static final long serialVersionUID = 1L;
+
+    private String inCidr;
+
+    private transient IpAddresses.Range inCidrRange;
+
+    public IpAddressFilter() {}
+
+    public IpAddressFilter(IpAddressFilter filter) {
+        super(filter);
+        this.inCidr = filter.inCidr;
+        this.inCidrRange = filter.inCidrRange;
+    }
+
+    @Override
+    public IpAddressFilter copy() {
+        return new IpAddressFilter(this);
+    }
+
+    public String getInCidr() {
+        return inCidr;
+    }
+
+    /**
+     * @param inCidr the CIDR block the addresses should belong to.
+     * @return this filter.
+     * @throws IllegalArgumentException if the block is not valid, which rejects the request when binding its parameters.
+     */
+    public IpAddressFilter setInCidr(String inCidr) {
+        this.inCidrRange = inCidr != null ? IpAddresses.parseCidr(inCidr) : null;
+        this.inCidr = inCidr;
+        return this;
+    }
+
+    /**
+     * @return the range of the addresses of the {@code inCidr} block, or {@code null} when it is not set.
+     */
+    @JsonIgnore
+    public IpAddresses.Range getInCidrRange() {
+        if (inCidrRange == null && inCidr != null) {
+            inCidrRange = IpAddresses.parseCidr(inCidr);
+        }
+        return inCidrRange;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        return Objects.equals(getInCidrRange(), ((IpAddressFilter) o).getInCidrRange());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), getInCidrRange());
+    }
+
+    @Override
+    public String toString() {
+        String string = super.toString();
+        if (inCidr == null) {
+            return string;
+        }
+        return string.substring(0, string.length() - 1) + "inCidr=" + inCidr + ", ]";
+    }
+}
@@ -11,7 +11,7 @@ import tech.jhipster.service.filter.*;
  * in {@link edu.tomm.webreporter.web.rest.ReportResource} to receive all the possible filtering options from
  * the Http GET request parameters.
  * For example the following could be a valid request:
- * {@code /reports?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * {@code /reports?id.greaterThan=5&attr1.contains=something&attr2.specified=false&ipAddress.inCidr=10.20.0.0/16}
  * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
  * fix type specific filters.
  */
@@ -27,10 +27,12 @@ public class ReportCriteria implements Serializable, Criteria {
 
     private StringFilter description;
 
-    private StringFilter ipAddress;
+    private IpAddressFilter ipAddress;
 
     private LongFilter userId;
 
+    private InstantFilter createdAt;
+
     private Boolean distinct;
 
     public ReportCriteria() {}
@@ -41,6 +43,7 @@ public class ReportCriteria implements Serializable, Criteria {
         this.description = other.description == null ? null : other.description.copy();
         this.ipAddress = other.ipAddress == null ? null : other.ipAddress.copy();
         this.userId = other.userId == null ? null : other.userId.copy();
+        this.createdAt = other.createdAt == null ? null : other.createdAt.copy();
         this.distinct = other.distinct;
     }
 
@@ -94,18 +97,18 @@ public class ReportCriteria implements Serializable, Criteria {
         this.description = description;
     }
 
-    public StringFilter getIpAddress() {
+    public IpAddressFilter getIpAddress() {
         return ipAddress;
     }
 
-    public StringFilter ipAddress() {
+    public IpAddressFilter ipAddress() {
         if (ipAddress == null) {
-            ipAddress = new StringFilter();
+            ipAddress = new IpAddressFilter();
         }
         return ipAddress;
     }
 
-    public void setIpAddress(StringFilter ipAddress) {
+    public void setIpAddress(IpAddressFilter ipAddress) {
         this.ipAddress = ipAddress;
     }
 
@@ -124,6 +127,21 @@ public class ReportCriteria implements Serializable, Criteria {
         this.userId = userId;
     }
 
+    public InstantFilter getCreatedAt() {
+        return createdAt;
+    }
+
+    public InstantFilter createdAt() {
+        if (createdAt == null) {
+            createdAt = new InstantFilter();
+        }
+        return createdAt;
+    }
+
+    public void setCreatedAt(InstantFilter createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public Boolean getDistinct() {
         return distinct;
     }
@@ -147,13 +165,14 @@ public class ReportCriteria implements Serializable, Criteria {
             Objects.equals(description, that.description) &&
             Objects.equals(ipAddress, that.ipAddress) &&
             Objects.equals(userId, that.userId) &&
+            Objects.equals(createdAt, that.createdAt) &&
             Objects.equals(distinct, that.distinct)
         );
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, description, ipAddress, userId, distinct);
+        return Objects.hash(id, title, description, ipAddress, userId, createdAt, distinct);
     }
 
     // prettier-ignore
@@ -165,6 +184,7 @@ public class ReportCriteria implements Serializable, Criteria {
             (description != null ? "description=" + description + ", " : "") +
             (ipAddress != null ? "ipAddress=" + ipAddress + ", " : "") +
             (userId != null ? "userId=" + userId + ", " : "") +
+            (createdAt != null ? "createdAt=" + createdAt + ", " : "") +
             (distinct != null ? "distinct=" + distinct + ", " : "") +
             "}";
     }
@@ -0,0 +1,120 @@
+package edu.tomm.webreporter.service.criteria;
+
+import edu.tomm.webreporter.domain.IpAddresses;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.util.Locale;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Evaluates a {@link ReportCriteria} against a single {@link ReportDTO} in memory, with the same semantics as the
+ * specification built by {@link edu.tomm.webreporter.service.ReportQueryService}: {@code contains} is case-insensitive
+ * and, as in SQL, a {@code null} value only matches {@code specified=false}.
+ */
+public final class ReportCriteriaMatcher {
+
+    private ReportCriteriaMatcher() {}
+
+    /**
+     * Check whether a report matches the criteria.
+     *
+     * @param criteria the criteria, may be {@code null} to match any report.
+     * @param report the report.
+     * @return {@code true} if the report matches every filter of the criteria.
+     */
+    public static boolean matches(ReportCriteria criteria, ReportDTO report) {
+        if (criteria == null) {
+            return true;
+        }
+        return (
+            matches(criteria.getId(), report.getId()) &&
+            matches(criteria.getTitle(), report.getTitle()) &&
+            matches(criteria.getDescription(), report.getDescription()) &&
+            matches(criteria.getIpAddress(), report.getIpAddress()) &&
+            matchesCidr(criteria.getIpAddress(), report.getIpAddress()) &&
+            matches(criteria.getUserId(), report.getUser() != null ? report.getUser().getId() : null) &&
+            matches(criteria.getCreatedAt(), report.getCreatedAt())
+        );
+    }
+
+    private static <T extends Comparable<? super T>> boolean matches(RangeFilter<T> filter, T value) {
+        if (!matches((Filter<T>) filter, value)) {
+            return false;
+        }
+        if (filter == null || value == null) {
+            return true;
+        }
+        return (
+            (filter.getGreaterThan() == null || value.compareTo(filter.getGreaterThan()) > 0) &&
+            (filter.getGreaterThanOrEqual() == null || value.compareTo(filter.getGreaterThanOrEqual()) >= 0) &&
+            (filter.getLessThan() == null || value.compareTo(filter.getLessThan()) < 0) &&
+            (filter.getLessThanOrEqual() == null || value.compareTo(filter.getLessThanOrEqual()) <= 0)
+        );
+    }
+
+    private static boolean matches(StringFilter filter, String value) {
+        if (!matches((Filter<String>) filter, value)) {
+            return false;
+        }
+        if (filter == null || value == null) {
+            return true;
+        }
+        String upperValue = value.toUpperCase(Locale.ROOT);
+        return (
+            (filter.getContains() == null || upperValue.contains(filter.getContains().toUpperCase(Locale.ROOT))) &&
+            (filter.getDoesNotContain() == null || !upperValue.contains(filter.getDoesNotContain().toUpperCase(Locale.ROOT)))
+        );
+    }
+
+    private static boolean matchesCidr(IpAddressFilter filter, String value) {
+        if (filter == null || filter.getInCidr() == null) {
+            return true;
+        }
+        // Addresses which are not IP address literals have no binary form, and never match
+        return filter.getInCidrRange().contains(IpAddresses.toBytes(value));
+    }
+
+    private static <T> boolean matches(Filter<T> filter, T value) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.getSpecified() != null && filter.getSpecified() != (value != null)) {
+            return false;
+        }
+        if (value == null) {
+            // Any comparison with NULL is unknown in SQL, so the row is filtered out
+            return !hasComparison(filter);
+        }
+        return (
+            (filter.getEquals() == null || filter.getEquals().equals(value)) &&
+            (filter.getNotEquals() == null || !filter.getNotEquals().equals(value)) &&
+            (filter.getIn() == null || filter.getIn().contains(value)) &&
+            (filter.getNotIn() == null || !filter.getNotIn().contains(value))
+        );
+    }
+
+    private static boolean hasComparison(Filter<?> filter) {
+        if (filter.getEquals() != null || filter.getNotEquals() != null || filter.getIn() != null || filter.getNotIn() != null) {
+            return true;
+        }
+        if (filter instanceof RangeFilter) {
+            RangeFilter<?> rangeFilter = (RangeFilter<?>) filter;
+            return (
+                rangeFilter.getGreaterThan() != null ||
+                rangeFilter.getGreaterThanOrEqual() != null ||
+                rangeFilter.getLessThan() != null ||
+                rangeFilter.getLessThanOrEqual() != null
+            );
+        }
+        if (filter instanceof StringFilter) {
+            StringFilter stringFilter = (StringFilter) filter;
+            return (
+                stringFilter.getContains() != null ||
+                stringFilter.getDoesNotContain() != null ||
+                (filter instanceof IpAddressFilter && ((IpAddressFilter) filter).getInCidr() != null)
+            );
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package edu.tomm.webreporter.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the estimated number of distinct IP addresses which the reports of a user, or of all the users,
+ * were sent from.
+ */
+public class DistinctIpCountDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long userId;
+
+    private long estimate;
+
+    private double standardError;
+
+    public DistinctIpCountDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public DistinctIpCountDTO(Long userId, long estimate, double standardError) {
+        this.userId = userId;
+        this.estimate = estimate;
+        this.standardError = standardError;
+    }
+
+    /**
+     * @return the id of the user, or {@code null} for all the users.
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getEstimate() {
+        return estimate;
+    }
+
+    public void setEstimate(long estimate) {
+        this.estimate = estimate;
+    }
+
+    /**
+     * @return the relative standard error of the estimate: 68% of the estimates are within this fraction of the exact
+     * count, and 95% within twice this fraction.
+     */
+    public double getStandardError() {
+        return standardError;
+    }
+
+    public void setStandardError(double standardError) {
+        this.standardError = standardError;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DistinctIpCountDTO{" +
+            "userId=" + getUserId() +
+            ", estimate=" + getEstimate() +
+            ", standardError=" + getStandardError() +
+            "}";
+    }
+}
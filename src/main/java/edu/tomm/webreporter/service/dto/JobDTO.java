@@ -0,0 +1,160 @@
+package edu.tomm.webreporter.service.dto;
+
+import edu.tomm.webreporter.domain.Job;
+import edu.tomm.webreporter.domain.enumeration.JobStatus;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO representing the progress of a background {@link Job}.
+ */
+public class JobDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String type;
+
+    private JobStatus status;
+
+    private long processedCount;
+
+    private Long totalCount;
+
+    private boolean cancelRequested;
+
+    private String error;
+
+    private String createdBy;
+
+    private Instant createdDate;
+
+    private Instant startedDate;
+
+    private Instant finishedDate;
+
+    public JobDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public JobDTO(Job job) {
+        this.id = job.getId();
+        this.type = job.getType();
+        this.status = job.getStatus();
+        this.processedCount = job.getProcessedCount();
+        this.totalCount = job.getTotalCount();
+        this.cancelRequested = job.isCancelRequested();
+        this.error = job.getError();
+        this.createdBy = job.getCreatedBy();
+        this.createdDate = job.getCreatedDate();
+        this.startedDate = job.getStartedDate();
+        this.finishedDate = job.getFinishedDate();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(long processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    /**
+     * @return the estimated number of items to process, or {@code null} when unknown.
+     */
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    /**
+     * @return the message of the error which failed the job, if any.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getStartedDate() {
+        return startedDate;
+    }
+
+    public void setStartedDate(Instant startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public Instant getFinishedDate() {
+        return finishedDate;
+    }
+
+    public void setFinishedDate(Instant finishedDate) {
+        this.finishedDate = finishedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "JobDTO{" +
+            "id=" + getId() +
+            ", type='" + getType() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", processedCount=" + getProcessedCount() +
+            ", totalCount=" + getTotalCount() +
+            "}";
+    }
+}
@@ -0,0 +1,93 @@
+package edu.tomm.webreporter.service.dto;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of one item of a batch of {@link ReportDTO}: either the id of the created report,
+ * or the validation errors which caused the item to be rejected.
+ */
+public class ReportBatchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Outcome of a batch item.
+     */
+    public enum Status {
+        CREATED,
+        REJECTED,
+    }
+
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private List<String> errors = Collections.emptyList();
+
+    public ReportBatchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public static ReportBatchResultDTO created(int index, Long id) {
+        ReportBatchResultDTO result = new ReportBatchResultDTO();
+        result.setIndex(index);
+        result.setStatus(Status.CREATED);
+        result.setId(id);
+        return result;
+    }
+
+    public static ReportBatchResultDTO rejected(int index, List<String> errors) {
+        ReportBatchResultDTO result = new ReportBatchResultDTO();
+        result.setIndex(index);
+        result.setStatus(Status.REJECTED);
+        result.setErrors(errors);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReportBatchResultDTO{" +
+            "index=" + getIndex() +
+            ", status=" + getStatus() +
+            ", id=" + getId() +
+            ", errors=" + getErrors() +
+            "}";
+    }
+}
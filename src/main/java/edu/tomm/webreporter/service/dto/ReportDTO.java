@@ -1,6 +1,7 @@
 package edu.tomm.webreporter.service.dto;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 import javax.validation.constraints.*;
 
@@ -23,6 +24,10 @@ public class ReportDTO implements Serializable {
 
     private UserDTO user;
 
+    private Long version;
+
+    private Instant createdAt;
+
     public Long getId() {
         return id;
     }
@@ -63,6 +68,22 @@ public class ReportDTO implements Serializable {
         this.user = user;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -93,6 +114,8 @@ public class ReportDTO implements Serializable {
             ", description='" + getDescription() + "'" +
             ", ipAddress='" + getIpAddress() + "'" +
             ", user=" + getUser() +
+            ", version=" + getVersion() +
+            ", createdAt='" + getCreatedAt() + "'" +
             "}";
     }
 }
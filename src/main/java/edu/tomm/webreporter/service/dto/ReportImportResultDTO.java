@@ -0,0 +1,119 @@
+package edu.tomm.webreporter.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of an import of reports: the number of created, updated, and rejected rows, and the
+ * validation errors of the first rejected rows.
+ */
+public class ReportImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Validation errors of a rejected row.
+     */
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long line;
+
+        private List<String> errors;
+
+        public RowError() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public RowError(long line, List<String> errors) {
+            this.line = line;
+            this.errors = errors;
+        }
+
+        /**
+         * @return the number of the line where the row starts, from 1.
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public void setErrors(List<String> errors) {
+            this.errors = errors;
+        }
+    }
+
+    private long rowCount;
+
+    private long createdCount;
+
+    private long updatedCount;
+
+    private long rejectedCount;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public void setCreatedCount(long createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public long getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(long updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    /**
+     * @return the errors of the first rejected rows, in the order of the input; there are fewer errors than rejected
+     * rows when their number exceeds the limit.
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReportImportResultDTO{" +
+            "rowCount=" + getRowCount() +
+            ", createdCount=" + getCreatedCount() +
+            ", updatedCount=" + getUpdatedCount() +
+            ", rejectedCount=" + getRejectedCount() +
+            "}";
+    }
+}
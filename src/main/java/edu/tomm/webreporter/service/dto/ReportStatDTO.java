@@ -0,0 +1,53 @@
+package edu.tomm.webreporter.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the number of reports of a group, such as the reports of a user or of a day.
+ */
+public class ReportStatDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String key;
+
+    private long count;
+
+    public ReportStatDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ReportStatDTO(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    /**
+     * @return the key of the group: a user id, an IP address, a subnet in CIDR notation, a {@code yyyy-MM-dd} day or a
+     * {@code yyyy-MM} month.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReportStatDTO{" +
+            "key='" + getKey() + "'" +
+            ", count=" + getCount() +
+            "}";
+    }
+}
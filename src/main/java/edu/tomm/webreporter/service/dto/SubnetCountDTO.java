@@ -0,0 +1,52 @@
+package edu.tomm.webreporter.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the number of reports sent from the addresses of a subnet.
+ */
+public class SubnetCountDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String subnet;
+
+    private long count;
+
+    public SubnetCountDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SubnetCountDTO(String subnet, long count) {
+        this.subnet = subnet;
+        this.count = count;
+    }
+
+    /**
+     * @return the subnet, in CIDR notation.
+     */
+    public String getSubnet() {
+        return subnet;
+    }
+
+    public void setSubnet(String subnet) {
+        this.subnet = subnet;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SubnetCountDTO{" +
+            "subnet='" + getSubnet() + "'" +
+            ", count=" + getCount() +
+            "}";
+    }
+}
@@ -14,6 +14,21 @@ public interface ReportMapper extends EntityMapper<ReportDTO, Report> {
     @Mapping(target = "user", source = "user", qualifiedByName = "userLogin")
     ReportDTO toDto(Report s);
 
+    /**
+     * The creation time is owned by the server: it is set when the report is first persisted, and only imports set it
+     * explicitly.
+     */
+    @Override
+    @Mapping(target = "createdAt", ignore = true)
+    Report toEntity(ReportDTO dto);
+
+    @Override
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    void partialUpdate(@MappingTarget Report entity, ReportDTO dto);
+
     @Named("userLogin")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
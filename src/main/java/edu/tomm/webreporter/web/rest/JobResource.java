@@ -0,0 +1,77 @@
+package edu.tomm.webreporter.web.rest;
+
+import edu.tomm.webreporter.service.JobService;
+import edu.tomm.webreporter.service.dto.JobDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for following and cancelling the background {@link edu.tomm.webreporter.domain.Job}s.
+ * <p>
+ * Jobs are started by the endpoints of the long-running operations, such as {@code DELETE /api/reports}, which answer
+ * {@code 202 (Accepted)} with the location of their job.
+ */
+@RestController
+@RequestMapping("/api")
+public class JobResource {
+
+    private final Logger log = LoggerFactory.getLogger(JobResource.class);
+
+    private final JobService jobService;
+
+    public JobResource(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * {@code GET  /jobs} : get the jobs of the current user, or all the jobs for an administrator, the latest first.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body.
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<JobDTO>> getAllJobs(
+        @org.springdoc.api.annotations.ParameterObject @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Jobs");
+        Page<JobDTO> page = jobService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /jobs/:id} : get the progress of the "id" job.
+     *
+     * @param id the id of the job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the job in body, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<JobDTO> getJob(@PathVariable Long id) {
+        log.debug("REST request to get Job : {}", id);
+        return ResponseUtil.wrapOrNotFound(jobService.findOne(id));
+    }
+
+    /**
+     * {@code DELETE  /jobs/:id} : cancel the "id" job, at once if it is queued, or after its current chunk if it is
+     * running. The job is kept, with its progress.
+     *
+     * @param id the id of the job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the job in body, or with status {@code 404 (Not Found)}.
+     */
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<JobDTO> cancelJob(@PathVariable Long id) {
+        log.debug("REST request to cancel Job : {}", id);
+        return ResponseUtil.wrapOrNotFound(jobService.cancel(id));
+    }
+}
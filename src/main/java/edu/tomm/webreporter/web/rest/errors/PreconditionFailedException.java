@@ -0,0 +1,14 @@
+package edu.tomm.webreporter.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class PreconditionFailedException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException() {
+        super(ErrorConstants.PRECONDITION_FAILED_TYPE, "The entity does not match the If-Match header", Status.PRECONDITION_FAILED);
+    }
+}
@@ -0,0 +1,98 @@
+package edu.tomm.webreporter.web.rest.util;
+
+import edu.tomm.webreporter.web.rest.errors.PreconditionFailedException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Utility class for handling the weak entity tags of versioned entities and their lists.
+ * <p>
+ * The entity tag of an entity is its {@code @Version}, so that a client can send it back in an {@code If-Match} header
+ * to update the version it has read. The entity tag of a list is a digest of the versions of its entities. Tags are
+ * weak because the representations also embed related entities, such as the login of a user, which are not versioned.
+ * <p>
+ * Conditional {@code GET} requests need no support here: Spring answers {@code 304 (Not Modified)}, without
+ * serializing the body, when the {@code If-None-Match} header matches the tag of a {@code ResponseEntity}.
+ */
+public final class ETagUtil {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final int LIST_DIGEST_BYTES = 12;
+
+    private ETagUtil() {}
+
+    /**
+     * Generate the weak entity tag of an entity.
+     *
+     * @param version the version of the entity.
+     * @return the entity tag, such as {@code W/"3"}.
+     */
+    public static String weakETag(Long version) {
+        return WEAK_PREFIX + '"' + version + '"';
+    }
+
+    /**
+     * Generate the weak entity tag of a list of entities.
+     *
+     * @param items the entities of the list.
+     * @param versionKey the function returning the identity and version of an entity, such as {@code "id:version"}.
+     * @param qualifiers the other values represented in the response, such as the total count of a page.
+     * @param <T> the type of the entities.
+     * @return the entity tag.
+     */
+    public static <T> String weakETag(Collection<T> items, Function<? super T, ?> versionKey, Object... qualifiers) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (T item : items) {
+            digest.update(String.valueOf(versionKey.apply(item)).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ',');
+        }
+        for (Object qualifier : qualifiers) {
+            digest.update((byte) ';');
+            digest.update(String.valueOf(qualifier).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] hash = Arrays.copyOf(digest.digest(), LIST_DIGEST_BYTES);
+        return WEAK_PREFIX + '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+    }
+
+    /**
+     * Parse the version expected by an {@code If-Match} header.
+     * <p>
+     * Only a single tag generated by {@link #weakETag(Long)}, weak or not, or {@code *} are supported: a list of tags
+     * or a tag which was not issued by this application can never match.
+     *
+     * @param ifMatch the value of the {@code If-Match} header, may be {@code null}.
+     * @return the expected version, or {@code null} when the header is absent or is {@code *}.
+     * @throws PreconditionFailedException if the header can not match any version.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if ("*".equals(tag)) {
+            return null;
+        }
+        if (tag.startsWith(WEAK_PREFIX)) {
+            tag = tag.substring(WEAK_PREFIX.length());
+        }
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException();
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException();
+        }
+    }
+}
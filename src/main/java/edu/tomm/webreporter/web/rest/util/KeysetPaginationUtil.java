@@ -0,0 +1,166 @@
+package edu.tomm.webreporter.web.rest.util;
+
+import edu.tomm.webreporter.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * The position in the result set is carried by an opaque cursor, returned in the {@value #NEXT_CURSOR_HEADER} header
+ * and in a {@code Link} header with {@code rel="next"}, and sent back by the client in the {@value #AFTER_PARAMETER}
+ * request parameter. Unlike {@link tech.jhipster.web.util.PaginationUtil}, no total count is computed.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private static final String RANKED_CURSOR_PREFIX = "rank:";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Encode the id of the last returned entity as an opaque cursor.
+     *
+     * @param lastId the id of the last returned entity.
+     * @return the cursor.
+     */
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously returned by {@link #encodeCursor(Long)}.
+     *
+     * @param cursor the cursor sent by the client, an empty cursor means the first slice.
+     * @param entityName the name of the paginated entity, used in the error response.
+     * @return the id to seek after, or {@code null} for the first slice.
+     * @throws BadRequestAlertException if the cursor is not valid.
+     */
+    public static Long decodeCursor(String cursor, String entityName) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            return Long.valueOf(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Encode the relevance and the id of the last returned entity of a ranked result set as an opaque cursor.
+     *
+     * @param rank the relevance of the last returned entity.
+     * @param lastId the id of the last returned entity.
+     * @return the cursor.
+     */
+    public static String encodeRankedCursor(float rank, Long lastId) {
+        String cursor = RANKED_CURSOR_PREFIX + Float.toString(rank) + ':' + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously returned by {@link #encodeRankedCursor(float, Long)}.
+     *
+     * @param cursor the cursor sent by the client, an empty cursor means the first slice.
+     * @param entityName the name of the paginated entity, used in the error response.
+     * @return the position to seek after, or {@code null} for the first slice.
+     * @throws BadRequestAlertException if the cursor is not valid.
+     */
+    public static RankedCursor decodeRankedCursor(String cursor, String entityName) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(RANKED_CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            String position = decoded.substring(RANKED_CURSOR_PREFIX.length());
+            int separator = position.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            float rank = Float.parseFloat(position.substring(0, separator));
+            if (Float.isNaN(rank)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            return new RankedCursor(rank, Long.valueOf(position.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Generate the keyset pagination headers for a slice: {@value #NEXT_CURSOR_HEADER} and a {@code Link} header
+     * pointing to the next slice, when there is one.
+     *
+     * @param uriBuilder the current request URI.
+     * @param slice the returned slice.
+     * @param lastId the id of the last entity of the slice.
+     * @param <T> the type of the slice content.
+     * @return the headers.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice, Long lastId) {
+        return generateKeysetHttpHeaders(uriBuilder, slice, lastId != null ? encodeCursor(lastId) : null);
+    }
+
+    /**
+     * Generate the keyset pagination headers for a slice, with the cursor of the next slice.
+     *
+     * @param uriBuilder the current request URI.
+     * @param slice the returned slice.
+     * @param cursor the cursor of the next slice, such as one returned by {@link #encodeRankedCursor(float, Long)}.
+     * @param <T> the type of the slice content.
+     * @return the headers.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice, String cursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext() && cursor != null) {
+            headers.add(NEXT_CURSOR_HEADER, cursor);
+            String link = uriBuilder
+                .replaceQueryParam(AFTER_PARAMETER, cursor)
+                .replaceQueryParam("size", slice.getSize())
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    /**
+     * Position in a result set ordered by descending relevance, then by descending id.
+     */
+    public static final class RankedCursor {
+
+        private final float rank;
+
+        private final Long id;
+
+        public RankedCursor(float rank, Long id) {
+            this.rank = rank;
+            this.id = id;
+        }
+
+        public float getRank() {
+            return rank;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
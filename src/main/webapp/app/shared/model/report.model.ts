@@ -5,6 +5,8 @@ export interface IReport {
   title?: string;
   description?: string | null;
   ipAddress?: string;
+  version?: number;
+  createdAt?: string;
   user?: IUser;
 }
 
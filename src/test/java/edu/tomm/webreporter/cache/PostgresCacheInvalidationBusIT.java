@@ -0,0 +1,106 @@
+package edu.tomm.webreporter.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link PostgresCacheInvalidationBus}, with two buses standing for two nodes of a cluster.
+ * <p>
+ * Only meaningful on PostgreSQL: run with the {@code testprod} profile.
+ */
+@IntegrationTest
+class PostgresCacheInvalidationBusIT {
+
+    private static final CacheInvalidation INVALIDATION = CacheInvalidation.cache("usersByLogin", "john");
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CacheInvalidationHandler senderHandler;
+
+    private CacheInvalidationHandler receiverHandler;
+
+    private PostgresCacheInvalidationBus sender;
+
+    private PostgresCacheInvalidationBus receiver;
+
+    @BeforeEach
+    void setup() throws InterruptedException {
+        String databaseProductName = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        assumeTrue("PostgreSQL".equals(databaseProductName), "LISTEN/NOTIFY is only available on PostgreSQL");
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().getInvalidation().setChannel("cache_invalidation_test");
+        senderHandler = mock(CacheInvalidationHandler.class);
+        receiverHandler = mock(CacheInvalidationHandler.class);
+        sender = new PostgresCacheInvalidationBus(dataSourceProperties, jdbcTemplate, objectMapper, applicationProperties, senderHandler);
+        receiver =
+            new PostgresCacheInvalidationBus(dataSourceProperties, jdbcTemplate, objectMapper, applicationProperties, receiverHandler);
+        sender.start();
+        receiver.start();
+        for (int i = 0; i < 100 && !(sender.isListening() && receiver.isListening()); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(sender.isListening()).isTrue();
+        assertThat(receiver.isListening()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sender != null) {
+            sender.stop();
+        }
+        if (receiver != null) {
+            receiver.stop();
+        }
+    }
+
+    @Test
+    void invalidationsAreDeliveredToTheOtherNodesOnCommit() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> sender.publish(List.of(INVALIDATION)));
+
+        verify(receiverHandler, timeout(5000)).apply(argThat(invalidations -> invalidations.contains(INVALIDATION)));
+        verify(senderHandler, after(1000).never()).apply(any());
+    }
+
+    @Test
+    void invalidationsAreDroppedOnRollback() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                sender.publish(List.of(INVALIDATION));
+                status.setRollbackOnly();
+            });
+
+        verify(receiverHandler, after(2000).never()).apply(any());
+    }
+}
@@ -0,0 +1,72 @@
+package edu.tomm.webreporter.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Unit tests for {@link QueryCacheMetrics}.
+ */
+class QueryCacheMetricsTest {
+
+    private static final String REGION = "reportCountQuery";
+
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private QueryCacheMetrics queryCacheMetrics;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = mock(Statistics.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.isOpen()).thenReturn(true);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        ObjectProvider<EntityManagerFactory> entityManagerFactoryProvider = mock(ObjectProvider.class);
+        when(entityManagerFactoryProvider.getIfAvailable()).thenReturn(entityManagerFactory);
+
+        // Meters only keep a weak reference to the binder
+        queryCacheMetrics = new QueryCacheMetrics(entityManagerFactoryProvider, List.of(REGION));
+        queryCacheMetrics.bindTo(meterRegistry);
+    }
+
+    @Test
+    void testRegionHitsAndMisses() {
+        CacheRegionStatistics regionStatistics = mock(CacheRegionStatistics.class);
+        when(regionStatistics.getHitCount()).thenReturn(3L);
+        when(regionStatistics.getMissCount()).thenReturn(1L);
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        when(statistics.getQueryRegionStatistics(REGION)).thenReturn(regionStatistics);
+
+        assertThat(meterRegistry.get(QueryCacheMetrics.GETS_METER_NAME).tags("region", REGION, "result", "hit").functionCounter().count())
+            .isEqualTo(3);
+        assertThat(meterRegistry.get(QueryCacheMetrics.GETS_METER_NAME).tags("region", REGION, "result", "miss").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(QueryCacheMetrics.HIT_RATIO_METER_NAME).tag("region", REGION).gauge().value()).isEqualTo(0.75);
+    }
+
+    @Test
+    void testDisabledStatistics() {
+        when(statistics.isStatisticsEnabled()).thenReturn(false);
+
+        assertThat(meterRegistry.get(QueryCacheMetrics.GETS_METER_NAME).tags("region", REGION, "result", "hit").functionCounter().count())
+            .isZero();
+        assertThat(meterRegistry.get(QueryCacheMetrics.HIT_RATIO_METER_NAME).tag("region", REGION).gauge().value()).isNaN();
+    }
+}
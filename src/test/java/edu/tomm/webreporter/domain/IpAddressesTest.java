@@ -0,0 +1,42 @@
+package edu.tomm.webreporter.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IpAddresses}.
+ */
+class IpAddressesTest {
+
+    @Test
+    void testToBytes() {
+        assertThat(IpAddresses.toBytes("10.20.30.40")).containsExactly(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0xff, 0xff, 10, 20, 30, 40);
+        assertThat(IpAddresses.toBytes(" ::ffff:10.20.30.40 ")).isEqualTo(IpAddresses.toBytes("10.20.30.40"));
+        assertThat(IpAddresses.toBytes("::1")).containsExactly(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1);
+        assertThat(IpAddresses.toBytes("256.0.0.1")).isNull();
+        assertThat(IpAddresses.toBytes("10.20.30")).isNull();
+        assertThat(IpAddresses.toBytes("localhost")).isNull();
+        assertThat(IpAddresses.toBytes("host:name")).isNull();
+        assertThat(IpAddresses.toBytes(null)).isNull();
+    }
+
+    @Test
+    void testParseCidr() {
+        IpAddresses.Range range = IpAddresses.parseCidr("10.20.30.40/16");
+        assertThat(range.getPrefixLength()).isEqualTo(112);
+        assertThat(range.isIpv4()).isTrue();
+        assertThat(range.getFirst()).isEqualTo(IpAddresses.toBytes("10.20.0.0"));
+        assertThat(range.getLast()).isEqualTo(IpAddresses.toBytes("10.20.255.255"));
+        assertThat(range).hasToString("10.20.0.0/16");
+        assertThat(range.contains(IpAddresses.toBytes("10.20.128.1"))).isTrue();
+        assertThat(range.contains(IpAddresses.toBytes("10.21.0.0"))).isFalse();
+
+        assertThat(IpAddresses.parseCidr("2001:db8::/32").contains(IpAddresses.toBytes("2001:db8:ffff::1"))).isTrue();
+        assertThat(IpAddresses.parseCidr("10.0.0.1").getPrefixLength()).isEqualTo(IpAddresses.BITS);
+        assertThatIllegalArgumentException().isThrownBy(() -> IpAddresses.parseCidr("10.0.0.0/33"));
+        assertThatIllegalArgumentException().isThrownBy(() -> IpAddresses.parseCidr("10.0.0.0/x"));
+        assertThatIllegalArgumentException().isThrownBy(() -> IpAddresses.parseCidr("example.org/8"));
+    }
+}
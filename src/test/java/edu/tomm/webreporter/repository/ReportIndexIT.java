@@ -0,0 +1,179 @@
+package edu.tomm.webreporter.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.service.ReportQueryService;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests checking that every filter of the {@link edu.tomm.webreporter.domain.Report} criteria is backed by an index.
+ * <p>
+ * The statements are the ones which Hibernate emits for the queries of {@link ReportQueryService}, captured by a
+ * {@link StatementInspector}, and explained as generic plans, whatever their parameters. The plans are only meaningful on
+ * PostgreSQL: run with the {@code testprod} profile.
+ */
+@IntegrationTest
+@Import(ReportIndexIT.StatementCaptureConfiguration.class)
+@Transactional
+class ReportIndexIT {
+
+    private static final StatementCapture STATEMENT_CAPTURE = new StatementCapture();
+
+    @Autowired
+    private ReportQueryService reportQueryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void assumePostgreSQL() {
+        String databaseProductName = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        assumeTrue("PostgreSQL".equals(databaseProductName), "Query plans are only checked on PostgreSQL");
+        // Make the planner pick any usable index, even on the almost empty test table
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        // The cached queries would not reach the database
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @AfterEach
+    void stopCapture() {
+        STATEMENT_CAPTURE.stop();
+    }
+
+    static Stream<Arguments> filters() {
+        return Stream.of(
+            filter("userId.equals", criteria -> criteria.userId().setEquals(1L)),
+            filter("title.equals", criteria -> criteria.title().setEquals("AAAAAAAAAA")),
+            filter("title.in", criteria -> criteria.title().setIn(List.of("AAAAAAAAAA", "BBBBBBBBBB"))),
+            filter("title.contains", criteria -> criteria.title().setContains("AAAAA")),
+            filter("description.contains", criteria -> criteria.description().setContains("AAAAA")),
+            filter("ipAddress.equals", criteria -> criteria.ipAddress().setEquals("10.0.0.1")),
+            filter("ipAddress.contains", criteria -> criteria.ipAddress().setContains("10.0"))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filters")
+    void filterShouldNotScanReportTable(String name, Consumer<ReportCriteria> filter) {
+        ReportCriteria criteria = new ReportCriteria();
+        filter.accept(criteria);
+
+        STATEMENT_CAPTURE.start();
+        reportQueryService.findByCriteria(criteria, PageRequest.of(0, 20));
+
+        assertStatementsDoNotScanReportTable(STATEMENT_CAPTURE.stop());
+    }
+
+    @Test
+    void keysetSliceOfUserShouldNotScanReportTable() {
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.userId().setEquals(1L);
+
+        STATEMENT_CAPTURE.start();
+        reportQueryService.findByCriteriaAfter(criteria, 100L, 20);
+
+        assertStatementsDoNotScanReportTable(STATEMENT_CAPTURE.stop());
+    }
+
+    private void assertStatementsDoNotScanReportTable(List<String> statements) {
+        List<String> reportStatements = statements.stream().filter(sql -> sql.contains(" from report ")).collect(Collectors.toList());
+        assertThat(reportStatements).isNotEmpty();
+        for (String sql : reportStatements) {
+            List<String> plan = explainGenericPlan(sql);
+            assertThat(plan).as("plan of [%s]", sql).noneMatch(line -> line.contains("Seq Scan on report"));
+        }
+    }
+
+    /**
+     * Explain a statement with JDBC parameters as a prepared statement, whose generic plan does not depend on the
+     * parameters, so that they are all null.
+     */
+    private List<String> explainGenericPlan(String sql) {
+        StringBuilder prepared = new StringBuilder();
+        int parameterCount = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameterCount);
+            } else {
+                prepared.append(c);
+            }
+        }
+        jdbcTemplate.execute("PREPARE report_filter AS " + prepared);
+        try {
+            String parameters = parameterCount == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameterCount, "null")) + ")";
+            return jdbcTemplate.queryForList("EXPLAIN EXECUTE report_filter" + parameters, String.class);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE report_filter");
+        }
+    }
+
+    private static Arguments filter(String name, Consumer<ReportCriteria> filter) {
+        return Arguments.of(name, filter);
+    }
+
+    /**
+     * Records the SQL statements prepared by Hibernate between {@link #start()} and {@link #stop()}.
+     */
+    static class StatementCapture implements StatementInspector {
+
+        private List<String> statements;
+
+        synchronized void start() {
+            statements = new ArrayList<>();
+        }
+
+        synchronized List<String> stop() {
+            List<String> captured = statements != null ? statements : List.of();
+            statements = null;
+            return captured;
+        }
+
+        @Override
+        public synchronized String inspect(String sql) {
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+
+        @Bean
+        HibernatePropertiesCustomizer statementCaptureCustomizer() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, STATEMENT_CAPTURE);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package edu.tomm.webreporter.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import edu.tomm.webreporter.config.ApplicationProperties;
 import edu.tomm.webreporter.management.SecurityMetersService;
 import edu.tomm.webreporter.security.AuthoritiesConstants;
 import io.jsonwebtoken.io.Decoders;
@@ -34,7 +35,7 @@ class JWTFilterTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
         ReflectionTestUtils.setField(tokenProvider, "key", Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
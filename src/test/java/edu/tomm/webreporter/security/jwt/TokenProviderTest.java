@@ -2,6 +2,7 @@ package edu.tomm.webreporter.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import edu.tomm.webreporter.config.ApplicationProperties;
 import edu.tomm.webreporter.management.SecurityMetersService;
 import edu.tomm.webreporter.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
@@ -36,7 +37,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -88,6 +89,42 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testAuthenticateReturnsAuthenticationForValidToken() {
+        Authentication authentication = createAuthentication();
+        String token = tokenProvider.createToken(authentication, false);
+
+        TokenAuthenticationResult result = tokenProvider.authenticate(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getFailure()).isEmpty();
+        assertThat(result.getAuthentication()).isPresent();
+        assertThat(result.getAuthentication().get().getName()).isEqualTo("anonymous");
+        assertThat(result.getAuthentication().get().getCredentials()).hasToString(token);
+        assertThat(result.getAuthentication().get().getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    void testAuthenticateReturnsFailureCause() {
+        assertThat(tokenProvider.authenticate(createTokenWithDifferentSignature()).getFailure())
+            .contains(TokenAuthenticationResult.Failure.INVALID_SIGNATURE);
+        assertThat(tokenProvider.authenticate(createUnsupportedToken()).getFailure())
+            .contains(TokenAuthenticationResult.Failure.UNSUPPORTED);
+        assertThat(tokenProvider.authenticate("").getFailure()).contains(TokenAuthenticationResult.Failure.INVALID);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token.substring(1)).getFailure()).contains(TokenAuthenticationResult.Failure.MALFORMED);
+
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String expiredToken = tokenProvider.createToken(createAuthentication(), false);
+        TokenAuthenticationResult result = tokenProvider.authenticate(expiredToken);
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getAuthentication()).isEmpty();
+        assertThat(result.getFailure()).contains(TokenAuthenticationResult.Failure.EXPIRED);
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -96,7 +133,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -110,7 +147,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
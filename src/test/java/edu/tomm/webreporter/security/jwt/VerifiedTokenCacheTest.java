@@ -0,0 +1,54 @@
+package edu.tomm.webreporter.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.tomm.webreporter.security.AuthoritiesConstants;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class VerifiedTokenCacheTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void testEachLookupReturnsANewAuthentication() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("digest", authentication("user"), NOW + 1000);
+
+        Authentication first = cache.get("digest", NOW);
+        first.setAuthenticated(false);
+        Authentication second = cache.get("digest", NOW);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("user");
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testExpiredEntriesAreNotReturned() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("digest", authentication("user"), NOW);
+
+        assertThat(cache.get("digest", NOW)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        for (int i = 0; i < 100; i++) {
+            cache.put("digest" + i, authentication("user" + i), Long.MAX_VALUE);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.get("digest99", NOW)).isNotNull();
+    }
+
+    private static Authentication authentication(String login) {
+        return new UsernamePasswordAuthenticationToken(login, "token", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+    }
+}
@@ -0,0 +1,76 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link HyperLogLog}.
+ */
+class HyperLogLogTest {
+
+    @Test
+    void testSmallCardinalitiesAreExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertThat(sketch.estimate()).isZero();
+
+        assertThat(sketch.add("10.0.0.1")).isTrue();
+        assertThat(sketch.add("10.0.0.1")).isFalse();
+        sketch.add("10.0.0.2");
+        sketch.add("10.0.0.3");
+
+        assertThat(sketch.estimate()).isEqualTo(3);
+        assertThat(sketch.toBytes()).hasSize(2 + 3 * 3);
+    }
+
+    @Test
+    void testEstimateIsWithinTheErrorBound() {
+        for (int count : new int[] { 1000, 20000, 200000 }) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < count; i++) {
+                sketch.add("192.168." + (i >>> 8) + "." + (i & 0xff));
+            }
+            // Four standard errors: fails once in about 15000 distinct data sets
+            assertThat((double) sketch.estimate()).isCloseTo(count, within(4 * HyperLogLog.STANDARD_ERROR * count));
+        }
+    }
+
+    @Test
+    void testMergeIsTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog all = new HyperLogLog();
+        for (int i = 0; i < 5000; i++) {
+            (i % 3 == 0 ? first : second).add("value" + i);
+            if (i % 2 == 0) {
+                // Values seen by both sketches are counted once
+                first.add("value" + i);
+            }
+            all.add("value" + i);
+        }
+
+        assertThat(first.merge(second)).isTrue();
+        assertThat(first.merge(second)).isFalse();
+        assertThat(first.toBytes()).isEqualTo(all.toBytes());
+    }
+
+    @Test
+    void testSerialization() {
+        HyperLogLog sparse = new HyperLogLog();
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 100000; i++) {
+            if (i < 100) {
+                sparse.add("value" + i);
+            }
+            dense.add("value" + i);
+        }
+
+        assertThat(HyperLogLog.fromBytes(sparse.toBytes()).toBytes()).isEqualTo(sparse.toBytes());
+        assertThat(HyperLogLog.fromBytes(dense.toBytes()).toBytes()).isEqualTo(dense.toBytes());
+        assertThat(HyperLogLog.fromBytes(dense.toBytes()).estimate()).isEqualTo(dense.estimate());
+        assertThat(dense.toBytes()).hasSize(2 + HyperLogLog.REGISTERS * 6 / 8);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 2, 14 })).isInstanceOf(IllegalArgumentException.class);
+    }
+}
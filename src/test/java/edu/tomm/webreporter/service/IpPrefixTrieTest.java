@@ -0,0 +1,95 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.tomm.webreporter.domain.IpAddresses;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IpPrefixTrie}.
+ */
+class IpPrefixTrieTest {
+
+    @Test
+    void testCountAndRemove() {
+        IpPrefixTrie trie = new IpPrefixTrie();
+        trie.add(1, IpAddresses.toBytes("10.20.1.1"));
+        trie.add(2, IpAddresses.toBytes("10.20.1.1"));
+        trie.add(3, IpAddresses.toBytes("10.20.200.3"));
+        trie.add(4, IpAddresses.toBytes("10.21.0.1"));
+        trie.add(5, IpAddresses.toBytes("2001:db8::1"));
+
+        assertThat(trie.count(IpAddresses.parseCidr("0.0.0.0/0"))).isEqualTo(4);
+        assertThat(trie.count(IpAddresses.parseCidr("10.20.0.0/16"))).isEqualTo(3);
+        assertThat(trie.count(IpAddresses.parseCidr("10.20.1.1"))).isEqualTo(2);
+        assertThat(trie.count(IpAddresses.parseCidr("2001:db8::/32"))).isEqualTo(1);
+        assertThat(trie.count(IpAddresses.parseCidr("::/0"))).isEqualTo(5);
+
+        assertThat(trie.remove(1)).isTrue();
+        assertThat(trie.remove(3)).isTrue();
+        assertThat(trie.remove(3)).isFalse();
+        assertThat(trie.size()).isEqualTo(3);
+        assertThat(trie.count(IpAddresses.parseCidr("10.20.0.0/16"))).isEqualTo(1);
+        assertThat(trie.count(IpAddresses.parseCidr("10.0.0.0/8"))).isEqualTo(2);
+    }
+
+    @Test
+    void testAddingAnItemAgainReplacesItsAddress() {
+        IpPrefixTrie trie = new IpPrefixTrie();
+        trie.add(1, IpAddresses.toBytes("10.20.1.1"));
+        trie.add(1, IpAddresses.toBytes("10.20.1.1"));
+        trie.add(2, IpAddresses.toBytes("10.20.1.1"));
+        trie.add(2, IpAddresses.toBytes("192.168.0.1"));
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(trie.count(IpAddresses.parseCidr("10.20.1.1"))).isEqualTo(1);
+        assertThat(trie.count(IpAddresses.parseCidr("192.168.0.0/16"))).isEqualTo(1);
+        assertThat(trie.remove(2)).isTrue();
+        assertThat(trie.count(IpAddresses.parseCidr("192.168.0.0/16"))).isZero();
+    }
+
+    @Test
+    void testCountBySubnet() {
+        IpPrefixTrie trie = new IpPrefixTrie();
+        trie.add(1, IpAddresses.toBytes("10.20.1.1"));
+        trie.add(2, IpAddresses.toBytes("10.20.1.2"));
+        trie.add(3, IpAddresses.toBytes("10.20.200.3"));
+        trie.add(4, IpAddresses.toBytes("192.168.0.1"));
+
+        List<String> subnets = trie
+            .countBySubnet(IpAddresses.parseCidr("10.0.0.0/8"), IpAddresses.IPV4_MAPPED_PREFIX_LENGTH + 24)
+            .stream()
+            .map(subnet -> subnet.getSubnet() + "=" + subnet.getCount())
+            .collect(Collectors.toList());
+        assertThat(subnets).containsExactly("10.20.1.0/24=2", "10.20.200.0/24=1");
+    }
+
+    @Test
+    void testRandomOperationsMatchALinearScan() {
+        Random random = new Random(42);
+        IpPrefixTrie trie = new IpPrefixTrie();
+        Map<Long, byte[]> addresses = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            // Few ids and distinct addresses, so that replacements, duplicates and shared prefixes are frequent
+            long id = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertThat(trie.remove(id)).isEqualTo(addresses.remove(id) != null);
+            } else {
+                byte[] address = IpAddresses.toBytes("10." + random.nextInt(4) + "." + random.nextInt(4) + "." + random.nextInt(8));
+                addresses.put(id, address);
+                trie.add(id, address);
+            }
+        }
+        assertThat(trie.size()).isEqualTo(addresses.size());
+        for (String cidr : List.of("0.0.0.0/0", "10.0.0.0/8", "10.1.0.0/16", "10.2.3.0/24", "10.3.3.4/30", "10.0.0.7")) {
+            IpAddresses.Range block = IpAddresses.parseCidr(cidr);
+            long expected = addresses.values().stream().filter(block::contains).count();
+            assertThat(trie.count(block)).as(cidr).isEqualTo(expected);
+        }
+    }
+}
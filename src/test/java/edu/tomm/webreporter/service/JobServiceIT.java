@@ -0,0 +1,95 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.domain.Job;
+import edu.tomm.webreporter.domain.enumeration.JobStatus;
+import edu.tomm.webreporter.repository.JobRepository;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.UserRepository;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+
+/**
+ * Integration tests for {@link JobService} and {@link JobRunner}.
+ * <p>
+ * Jobs and reports are saved in committed transactions, as the runner executes the jobs in its own.
+ */
+@IntegrationTest
+@WithMockUser
+class JobServiceIT {
+
+    private static final String TITLE = "resumed deletion";
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testAbandonedJobIsResumedFromItsCheckpoint() throws Exception {
+        UserDTO user = new UserDTO(userRepository.findOneByLogin("user").orElseThrow());
+        ReportDTO reportBeforeCheckpoint = reportService.save(createReportDTO(user));
+        ReportDTO firstReportAfterCheckpoint = reportService.save(createReportDTO(user));
+        ReportDTO secondReportAfterCheckpoint = reportService.save(createReportDTO(user));
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.title().setEquals(TITLE);
+        // A deletion whose node stopped after deleting 5 reports, up to the checkpoint
+        Job job = new Job()
+            .type(ReportBulkDeleteService.JOB_TYPE)
+            .parameters(objectMapper.writeValueAsString(criteria))
+            .checkpoint(reportBeforeCheckpoint.getId().toString())
+            .status(JobStatus.RUNNING)
+            .createdBy("user");
+        job.setProcessedCount(5);
+        job.setTotalCount(7L);
+        job.setOwner("stopped-node");
+        job.setStartedDate(Instant.now().minus(Duration.ofHours(1)));
+        job.setHeartbeatDate(Instant.now().minus(Duration.ofHours(1)));
+        job = jobRepository.save(job);
+
+        Job resumedJob = jobRepository.findById(job.getId()).orElseThrow();
+        for (long deadline = System.currentTimeMillis() + 10000; resumedJob.getStatus() == JobStatus.RUNNING; ) {
+            assertThat(System.currentTimeMillis()).as("time waiting for the job").isLessThan(deadline);
+            Thread.sleep(50);
+            resumedJob = jobRepository.findById(job.getId()).orElseThrow();
+        }
+
+        assertThat(resumedJob.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(resumedJob.getProcessedCount()).isEqualTo(7);
+        assertThat(resumedJob.getOwner()).isNull();
+        assertThat(resumedJob.getFinishedDate()).isNotNull();
+        assertThat(reportRepository.existsById(reportBeforeCheckpoint.getId())).isTrue();
+        assertThat(reportRepository.existsById(firstReportAfterCheckpoint.getId())).isFalse();
+        assertThat(reportRepository.existsById(secondReportAfterCheckpoint.getId())).isFalse();
+
+        jobRepository.deleteById(job.getId());
+        reportService.delete(reportBeforeCheckpoint.getId());
+    }
+
+    private static ReportDTO createReportDTO(UserDTO user) {
+        ReportDTO reportDTO = new ReportDTO();
+        reportDTO.setTitle(TITLE);
+        reportDTO.setIpAddress("10.0.0.1");
+        reportDTO.setUser(user);
+        return reportDTO;
+    }
+}
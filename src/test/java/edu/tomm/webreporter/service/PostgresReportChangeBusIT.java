@@ -0,0 +1,148 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link PostgresReportChangeBus}, with two buses standing for two nodes of a cluster.
+ * <p>
+ * Only meaningful on PostgreSQL: run with the {@code testprod} profile.
+ */
+@IntegrationTest
+class PostgresReportChangeBusIT {
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReportChangeListener senderListener;
+
+    private ReportChangeListener receiverListener;
+
+    private PostgresReportChangeBus sender;
+
+    private PostgresReportChangeBus receiver;
+
+    @BeforeEach
+    void setup() throws InterruptedException {
+        String databaseProductName = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        assumeTrue("PostgreSQL".equals(databaseProductName), "LISTEN/NOTIFY is only available on PostgreSQL");
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getReportOutbox().setChannel("report_changes_test");
+        senderListener = mock(ReportChangeListener.class);
+        receiverListener = mock(ReportChangeListener.class);
+        sender = newBus(applicationProperties, senderListener);
+        receiver = newBus(applicationProperties, receiverListener);
+        sender.start();
+        receiver.start();
+        for (int i = 0; i < 100 && !(sender.isListening() && receiver.isListening()); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(sender.isListening()).isTrue();
+        assertThat(receiver.isListening()).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private PostgresReportChangeBus newBus(ApplicationProperties applicationProperties, ReportChangeListener listener) {
+        ObjectProvider<ReportChangeListener> listeners = mock(ObjectProvider.class);
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.of(listener));
+        return new PostgresReportChangeBus(dataSourceProperties, jdbcTemplate, objectMapper, applicationProperties, listeners);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sender != null) {
+            sender.stop();
+        }
+        if (receiver != null) {
+            receiver.stop();
+        }
+    }
+
+    @Test
+    void changesAreDeliveredToEveryNodeOnCommit() {
+        List<ReportOutboxMessage> messages = List.of(message(1, "first"), message(2, "second"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> sender.consume(messages));
+
+        verify(receiverListener, timeout(5000))
+            .onReportChanges(argThat(delivered -> delivered.size() == 2 && delivered.get(1).getReport().getTitle().equals("second")));
+        verify(senderListener, timeout(5000)).onReportChanges(argThat(delivered -> delivered.size() == 2));
+    }
+
+    @Test
+    void largeBatchesAreSplitIntoSeveralNotifications() {
+        List<ReportOutboxMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            messages.add(message(i, "a title long enough for the batch to exceed the payload limit of a notification"));
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> sender.consume(messages));
+
+        verify(receiverListener, timeout(5000).atLeast(2)).onReportChanges(any());
+        verify(receiverListener, never()).onReportChangesMissed();
+    }
+
+    @Test
+    void changesAreDroppedOnRollback() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                sender.consume(List.of(message(1, "first")));
+                status.setRollbackOnly();
+            });
+
+        verify(receiverListener, after(2000).never()).onReportChanges(any());
+    }
+
+    @Test
+    void missedChangesResynchronizeEveryNode() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> sender.publishMissed());
+
+        verify(receiverListener, timeout(5000)).onReportChangesMissed();
+        verify(senderListener, timeout(5000)).onReportChangesMissed();
+    }
+
+    private static ReportOutboxMessage message(long id, String title) {
+        ReportDTO report = new ReportDTO();
+        report.setId(id);
+        report.setTitle(title);
+        report.setIpAddress("10.0.0.1");
+        return new ReportOutboxMessage(id, ReportChangedEvent.Type.CREATED, report, Instant.now());
+    }
+}
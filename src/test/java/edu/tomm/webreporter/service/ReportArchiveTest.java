@@ -0,0 +1,140 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Unit tests for {@link ReportArchive}.
+ */
+class ReportArchiveTest {
+
+    private static final Instant FIRST_CREATED_AT = Instant.parse("2020-01-01T00:00:00Z");
+
+    private static final int REPORT_COUNT = 2500;
+
+    @TempDir
+    Path directory;
+
+    private ReportArchive reportArchive;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getReportArchive().setDirectory(directory.toString());
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        reportArchive = new ReportArchive(objectMapper, applicationProperties);
+    }
+
+    @Test
+    void testPendingSegmentsAreNotRead() {
+        String segment = reportArchive.write(createReports());
+
+        assertThat(reportArchive.mayMatch(null)).isFalse();
+        assertThat(reportArchive.count(null)).isZero();
+        assertThat(reportArchive.findPendingSegments()).singleElement().satisfies(pending -> {
+            assertThat(pending.getName()).isEqualTo(segment);
+            assertThat(pending.getMinId()).isEqualTo(1L);
+        });
+
+        reportArchive.discard(segment);
+
+        assertThat(reportArchive.findPendingSegments()).isEmpty();
+    }
+
+    @Test
+    void testCountPublishedSegments() {
+        reportArchive.publish(reportArchive.write(createReports()));
+
+        assertThat(reportArchive.findPendingSegments()).isEmpty();
+        assertThat(reportArchive.count(null)).isEqualTo(REPORT_COUNT);
+
+        ReportCriteria createdBefore = new ReportCriteria();
+        createdBefore.createdAt().setLessThan(FIRST_CREATED_AT.plusSeconds(1500));
+        assertThat(reportArchive.mayMatch(createdBefore)).isTrue();
+        assertThat(reportArchive.count(createdBefore)).isEqualTo(1500);
+
+        ReportCriteria ofUser = new ReportCriteria();
+        ofUser.userId().setEquals(1L);
+        assertThat(reportArchive.mayMatch(ofUser)).isFalse();
+        assertThat(reportArchive.mayMatch(null)).isFalse();
+        assertThat(reportArchive.count(ofUser)).isEqualTo(REPORT_COUNT / 2);
+
+        ReportCriteria createdAfter = new ReportCriteria();
+        createdAfter.createdAt().setGreaterThan(FIRST_CREATED_AT.plusSeconds(REPORT_COUNT));
+        assertThat(reportArchive.mayMatch(createdAfter)).isFalse();
+        assertThat(reportArchive.count(createdAfter)).isZero();
+    }
+
+    @Test
+    void testFindById() {
+        reportArchive.publish(reportArchive.write(createReports()));
+
+        assertThat(reportArchive.findById(1234L)).hasValueSatisfying(report -> {
+            assertThat(report.getTitle()).isEqualTo("report 1234");
+            assertThat(report.getCreatedAt()).isEqualTo(FIRST_CREATED_AT.plusSeconds(1233));
+            assertThat(report.getUser().getId()).isEqualTo(2L);
+        });
+        assertThat(reportArchive.findById((long) REPORT_COUNT + 1)).isEmpty();
+    }
+
+    @Test
+    void testFindFirstInSortOrderBeforeBound() {
+        reportArchive.publish(reportArchive.write(createReports()));
+        Sort byIdDesc = Sort.by(Sort.Direction.DESC, "id");
+
+        assertThat(ids(reportArchive.findFirst(null, byIdDesc, 3, null))).containsExactly(2500L, 2499L, 2498L);
+
+        ReportDTO bound = new ReportDTO();
+        bound.setId(2000L);
+        assertThat(ids(reportArchive.findFirst(null, byIdDesc, 3, bound))).containsExactly(1999L, 1998L, 1997L);
+
+        ReportCriteria ofUser = new ReportCriteria();
+        ofUser.userId().setEquals(1L);
+        assertThat(ids(reportArchive.findFirst(ofUser, Sort.by("createdAt"), 3, null))).containsExactly(1L, 3L, 5L);
+    }
+
+    @Test
+    void testSortedByIdAndCreationTimeOnly() {
+        assertThatThrownBy(() -> ReportArchive.comparator(Sort.by("title"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> ids(List<ReportDTO> reports) {
+        return reports.stream().map(ReportDTO::getId).collect(Collectors.toList());
+    }
+
+    private static List<ReportDTO> createReports() {
+        List<ReportDTO> reports = new ArrayList<>();
+        for (long id = 1; id <= REPORT_COUNT; id++) {
+            UserDTO user = new UserDTO();
+            user.setId(2 - id % 2);
+            user.setLogin("user" + user.getId());
+            ReportDTO report = new ReportDTO();
+            report.setId(id);
+            report.setTitle("report " + id);
+            report.setIpAddress("10.0." + (id >>> 8) + "." + (id & 0xff));
+            report.setCreatedAt(FIRST_CREATED_AT.plusSeconds(id - 1));
+            report.setUser(user);
+            reports.add(report);
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,116 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Unit tests for {@link ReportCountService}.
+ */
+class ReportCountServiceTest {
+
+    private ReportQueryService reportQueryService;
+
+    private ReportRepository reportRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setup() {
+        reportQueryService = mock(ReportQueryService.class);
+        reportRepository = mock(ReportRepository.class);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getReportCount().setTtl(Duration.ofMinutes(1));
+        when(reportQueryService.countByCriteria(any())).thenReturn(42L);
+    }
+
+    @Test
+    void testCountIsCachedPerNormalizedCriteria() {
+        ReportCountService reportCountService = new ReportCountService(reportQueryService, reportRepository, applicationProperties, "");
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.title().setContains("title");
+        ReportCriteria sameCriteria = criteria.copy();
+        sameCriteria.description();
+
+        assertThat(reportCountService.count(criteria, false)).isEqualTo(42L);
+        assertThat(reportCountService.count(sameCriteria, false)).isEqualTo(42L);
+
+        verify(reportQueryService, times(1)).countByCriteria(any());
+    }
+
+    @Test
+    void testEvictAllInvalidatesCachedCounts() {
+        ReportCountService reportCountService = new ReportCountService(reportQueryService, reportRepository, applicationProperties, "");
+
+        reportCountService.count(new ReportCriteria(), false);
+        reportCountService.evictAll();
+        reportCountService.count(new ReportCriteria(), false);
+
+        verify(reportQueryService, times(2)).countByCriteria(any());
+    }
+
+    @Test
+    void testCountIsNotCachedWithoutTtl() {
+        applicationProperties.getReportCount().setTtl(Duration.ZERO);
+        ReportCountService reportCountService = new ReportCountService(reportQueryService, reportRepository, applicationProperties, "");
+
+        reportCountService.count(new ReportCriteria(), false);
+        reportCountService.count(new ReportCriteria(), false);
+
+        verify(reportQueryService, times(2)).countByCriteria(any());
+    }
+
+    @Test
+    void testApproximateCountUsesEstimateOnPostgreSQL() {
+        when(reportRepository.estimateCount()).thenReturn(1000L);
+        ReportCountService reportCountService = new ReportCountService(
+            reportQueryService,
+            reportRepository,
+            applicationProperties,
+            "tech.jhipster.domain.util.FixedPostgreSQL10Dialect"
+        );
+
+        assertThat(reportCountService.count(new ReportCriteria(), true)).isEqualTo(1000L);
+
+        verify(reportQueryService, never()).countByCriteria(any());
+    }
+
+    @Test
+    void testApproximateCountFallsBackToExactCount() {
+        when(reportRepository.estimateCount()).thenReturn(-1L);
+        ReportCountService reportCountService = new ReportCountService(
+            reportQueryService,
+            reportRepository,
+            applicationProperties,
+            "tech.jhipster.domain.util.FixedPostgreSQL10Dialect"
+        );
+        ReportCriteria filtered = new ReportCriteria();
+        filtered.setTitle((StringFilter) new StringFilter().setEquals("title"));
+
+        assertThat(reportCountService.count(new ReportCriteria(), true)).isEqualTo(42L);
+        assertThat(reportCountService.count(filtered, true)).isEqualTo(42L);
+
+        verify(reportRepository, times(1)).estimateCount();
+    }
+
+    @Test
+    void testApproximateCountIsExactOnOtherDatabases() {
+        ReportCountService reportCountService = new ReportCountService(reportQueryService, reportRepository, applicationProperties, "");
+
+        assertThat(reportCountService.count(new ReportCriteria(), true)).isEqualTo(42L);
+
+        verify(reportRepository, never()).estimateCount();
+    }
+}
@@ -0,0 +1,151 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.domain.ReportOutboxEvent;
+import edu.tomm.webreporter.repository.ReportOutboxEventRepository;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.UserRepository;
+import edu.tomm.webreporter.service.dto.ReportBatchResultDTO;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.CannotAcquireLockException;
+
+/**
+ * Integration tests for {@link ReportOutboxService}.
+ * <p>
+ * The outbox is written just before the transactions commit, so these tests are not transactional: each service call
+ * commits its own transaction.
+ */
+@IntegrationTest
+class ReportOutboxServiceIT {
+
+    @Autowired
+    private ReportOutboxService reportOutboxService;
+
+    @Autowired
+    private ReportOutboxEventRepository reportOutboxEventRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> reportIds = new ArrayList<>();
+
+    private ReportDTO reportDTO;
+
+    @BeforeEach
+    public void init() {
+        reportOutboxEventRepository.deleteAllInBatch();
+        reportDTO = new ReportDTO();
+        reportDTO.setTitle("outbox title");
+        reportDTO.setIpAddress("10.0.0.1");
+        reportDTO.setUser(new UserDTO(userRepository.findOneByLogin("user").orElseThrow()));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        reportRepository.deleteAllByIdInBatch(reportIds);
+        reportOutboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testChangesAreWrittenToTheOutbox() {
+        ReportDTO savedReport = reportService.save(reportDTO);
+        reportIds.add(savedReport.getId());
+        ReportDTO patch = new ReportDTO();
+        patch.setId(savedReport.getId());
+        patch.setTitle("updated title");
+        reportService.partialUpdate(patch);
+        reportService.delete(savedReport.getId());
+
+        List<ReportOutboxEvent> events = reportOutboxEventRepository.findAll();
+        assertThat(events).allMatch(event -> savedReport.getId().equals(event.getReportId()));
+        assertThat(events.stream().map(ReportOutboxEvent::getEventType))
+            .containsExactlyInAnyOrder("CREATED", "UPDATED", "DELETED");
+    }
+
+    @Test
+    void testBatchIsWrittenToTheOutboxInOneEvent() {
+        List<ReportBatchResultDTO> results = reportService.saveAll(List.of(reportDTO, reportDTO, reportDTO));
+        results.forEach(result -> reportIds.add(result.getId()));
+
+        List<ReportOutboxEvent> events = reportOutboxEventRepository.findAll();
+        assertThat(events.stream().map(ReportOutboxEvent::getReportId)).containsExactlyInAnyOrderElementsOf(reportIds);
+        assertThat(events).allMatch(event -> "CREATED".equals(event.getEventType()));
+    }
+
+    @Test
+    void testRelayDeliversAndDeletesTheEvents() {
+        ReportDTO savedReport = reportService.save(reportDTO);
+        reportIds.add(savedReport.getId());
+        List<ReportOutboxMessage> messages = new ArrayList<>();
+
+        int relayed = reportOutboxService.relay(10, List.of(messages::addAll));
+
+        assertThat(relayed).isEqualTo(1);
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0).getType()).isEqualTo(ReportChangedEvent.Type.CREATED);
+        assertThat(messages.get(0).getReport().getTitle()).isEqualTo(savedReport.getTitle());
+        assertThat(messages.get(0).getReport().getVersion()).isEqualTo(savedReport.getVersion());
+        assertThat(reportOutboxEventRepository.count()).isZero();
+        assertThat(reportOutboxService.relay(10, List.of(messages::addAll))).isZero();
+    }
+
+    @Test
+    void testFailedEventIsKeptAndItsAttemptsCounted() {
+        reportIds.add(reportService.save(reportDTO).getId());
+        List<ReportOutboxConsumer> failingConsumers = List.of(messages -> {
+            throw new IllegalStateException("consumer failure");
+        });
+
+        assertThatThrownBy(() -> reportOutboxService.relay(1, failingConsumers)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(reportOutboxEventRepository.findAll().stream().map(ReportOutboxEvent::getAttempts).collect(Collectors.toList()))
+            .containsExactly(1);
+    }
+
+    @Test
+    void testTransientFailureIsNotCounted() {
+        reportIds.add(reportService.save(reportDTO).getId());
+        List<ReportOutboxConsumer> failingConsumers = List.of(messages -> {
+            throw new CannotAcquireLockException("deadlock");
+        });
+
+        assertThatThrownBy(() -> reportOutboxService.relay(1, failingConsumers)).isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(reportOutboxEventRepository.findAll().stream().map(ReportOutboxEvent::getAttempts).collect(Collectors.toList()))
+            .containsExactly(0);
+    }
+
+    @Test
+    void testParkedEventIsRequeued() {
+        reportIds.add(reportService.save(reportDTO).getId());
+        ReportOutboxEvent event = reportOutboxEventRepository.findAll().get(0);
+        event.setAttempts(Integer.MAX_VALUE);
+        reportOutboxEventRepository.saveAndFlush(event);
+        List<ReportOutboxMessage> messages = new ArrayList<>();
+
+        assertThat(reportOutboxService.relay(10, List.of(messages::addAll))).isZero();
+        assertThat(reportOutboxEventRepository.countByAttemptsGreaterThanEqual(1)).isEqualTo(1);
+
+        assertThat(reportOutboxService.requeueParked()).isEqualTo(1);
+
+        assertThat(reportOutboxService.relay(10, List.of(messages::addAll))).isEqualTo(1);
+        assertThat(messages).hasSize(1);
+    }
+}
@@ -0,0 +1,152 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.domain.User;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.ReportRollup;
+import edu.tomm.webreporter.repository.UserRepository;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link ReportPartitionService}.
+ * <p>
+ * Only meaningful on PostgreSQL: run with the {@code testprod} profile. The tests are not transactional, as the
+ * partitions are created and expired in their own transactions.
+ */
+@IntegrationTest
+class ReportPartitionServiceIT {
+
+    private static final YearMonth EXPIRED_MONTH = YearMonth.of(2001, 1);
+
+    @Autowired
+    private ReportPartitionService reportPartitionService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        String databaseProductName = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        assumeTrue("PostgreSQL".equals(databaseProductName), "Partitions are only maintained on PostgreSQL");
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("drop table if exists report_y2001m01");
+    }
+
+    @Test
+    void testCreatePartitionsAhead() {
+        reportPartitionService.createPartitions();
+
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        assertThat(reportRepository.findPartitionMonths()).contains(current, current.plusMonths(1), current.plusMonths(3));
+    }
+
+    @Test
+    void testExpirePartitionKeepsTheRollupsConsistent() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> reportRepository.createPartition(EXPIRED_MONTH));
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        Instant createdAt = EXPIRED_MONTH.atDay(15).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Report expired = reportRepository.saveAndFlush(new Report().title("expired").ipAddress("10.0.0.1").user(user).createdAt(createdAt));
+
+        assertThat(rollups("month")).containsEntry(EXPIRED_MONTH.toString(), 1L);
+        assertRollupsMatchTheReports();
+
+        List<YearMonth> months = reportPartitionService.expirePartitions(EXPIRED_MONTH.plusMonths(1));
+
+        assertThat(months).containsExactly(EXPIRED_MONTH);
+        assertThat(reportRepository.findPartitionMonths()).doesNotContain(EXPIRED_MONTH);
+        assertThat(reportRepository.existsById(expired.getId())).isFalse();
+        assertThat(rollups("month")).doesNotContainKey(EXPIRED_MONTH.toString());
+        assertRollupsMatchTheReports();
+    }
+
+    @Test
+    void testCreatePartitionMovesTheReportsOfTheDefaultPartition() {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        Instant createdAt = EXPIRED_MONTH.atDay(15).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Report report = reportRepository.saveAndFlush(new Report().title("early").ipAddress("10.0.0.1").user(user).createdAt(createdAt));
+        assertThat(countIn("report_default", report)).isEqualTo(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> reportRepository.createPartition(EXPIRED_MONTH));
+
+        assertThat(reportRepository.findPartitionMonths()).contains(EXPIRED_MONTH);
+        assertThat(countIn("report_default", report)).isZero();
+        assertThat(countIn("report_y2001m01", report)).isEqualTo(1);
+        assertRollupsMatchTheReports();
+
+        reportPartitionService.expirePartitions(EXPIRED_MONTH.plusMonths(1));
+        assertRollupsMatchTheReports();
+    }
+
+    @Test
+    void testEstimateCountSumsThePartitions() {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        Report report = reportRepository.saveAndFlush(new Report().title("estimated").ipAddress("10.0.0.1").user(user));
+        try {
+            jdbcTemplate.execute("analyze report");
+
+            assertThat(reportRepository.estimateCount()).isEqualTo(jdbcTemplate.queryForObject("select count(*) from report", Long.class));
+        } finally {
+            reportRepository.deleteById(report.getId());
+        }
+    }
+
+    private Long countIn(String partition, Report report) {
+        return jdbcTemplate.queryForObject("select count(*) from " + partition + " where id = ?", Long.class, report.getId());
+    }
+
+    private void assertRollupsMatchTheReports() {
+        assertThat(rollups("user")).isEqualTo(counts("cast(user_id as text)"));
+        assertThat(rollups("ip")).isEqualTo(counts("ip_address"));
+        assertThat(rollups("day")).isEqualTo(counts("to_char(created_at, 'YYYY-MM-DD')"));
+        assertThat(rollups("month")).isEqualTo(counts("to_char(created_at, 'YYYY-MM')"));
+    }
+
+    private Map<String, Long> rollups(String dimension) {
+        Map<String, Long> rollups = new HashMap<>();
+        for (ReportRollup rollup : reportRepository.findTopRollups(dimension, Pageable.unpaged())) {
+            rollups.put(rollup.getBucket(), rollup.getReportCount());
+        }
+        return rollups;
+    }
+
+    private Map<String, Long> counts(String bucket) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(
+            "select " + bucket + ", count(*) from report group by 1",
+            resultSet -> {
+                counts.put(resultSet.getString(1), resultSet.getLong(2));
+            }
+        );
+        return counts;
+    }
+}
@@ -0,0 +1,170 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.config.ApplicationProperties;
+import edu.tomm.webreporter.domain.Report;
+import edu.tomm.webreporter.domain.User;
+import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.UserRepository;
+import edu.tomm.webreporter.service.criteria.ReportCriteria;
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link ReportQueryService}, merging the reports of the database with those of the
+ * {@link ReportArchive}.
+ * <p>
+ * The reports created at even seconds are archived, and those created at odd seconds are in the database.
+ */
+@IntegrationTest
+@Transactional
+class ReportQueryServiceIT {
+
+    private static final Instant FIRST_CREATED_AT = Instant.parse("2000-01-01T00:00:00Z");
+
+    @Autowired
+    private ReportQueryService reportQueryService;
+
+    @Autowired
+    private ReportArchive reportArchive;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private String segment;
+
+    private ReportCriteria createdFirstDay;
+
+    @BeforeEach
+    public void init() {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        List<ReportDTO> archived = new ArrayList<>();
+        for (int second = 0; second <= 6; second++) {
+            if (second % 2 == 0) {
+                ReportDTO report = new ReportDTO();
+                report.setId((long) second + 1);
+                report.setTitle("merged " + second);
+                report.setIpAddress("10.0.0." + second);
+                report.setCreatedAt(FIRST_CREATED_AT.plusSeconds(second));
+                report.setUser(new UserDTO(user));
+                archived.add(report);
+            } else {
+                reportRepository.saveAndFlush(
+                    new Report()
+                        .title("merged " + second)
+                        .ipAddress("10.0.0." + second)
+                        .user(user)
+                        .createdAt(FIRST_CREATED_AT.plusSeconds(second))
+                );
+            }
+        }
+        segment = reportArchive.write(archived);
+        reportArchive.publish(segment);
+        createdFirstDay = new ReportCriteria();
+        createdFirstDay.createdAt().setLessThan(FIRST_CREATED_AT.plusSeconds(86400));
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Path directory = Paths.get(applicationProperties.getReportArchive().getDirectory());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, segment + ".*")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void testPagesMergeTheArchivedReportsInSortOrder() {
+        Sort byCreatedAtDesc = Sort.by(Sort.Direction.DESC, "createdAt");
+
+        Page<ReportDTO> first = reportQueryService.findByCriteria(createdFirstDay, PageRequest.of(0, 3, byCreatedAtDesc));
+        Page<ReportDTO> second = reportQueryService.findByCriteria(createdFirstDay, PageRequest.of(1, 3, byCreatedAtDesc));
+        Page<ReportDTO> last = reportQueryService.findByCriteria(createdFirstDay, PageRequest.of(2, 3, byCreatedAtDesc));
+
+        assertThat(titles(first.getContent())).containsExactly("merged 6", "merged 5", "merged 4");
+        assertThat(titles(second.getContent())).containsExactly("merged 3", "merged 2", "merged 1");
+        assertThat(titles(last.getContent())).containsExactly("merged 0");
+        assertThat(first.getTotalElements()).isEqualTo(7);
+    }
+
+    @Test
+    void testUnpagedListMergesTheArchivedReportsInSortOrder() {
+        Page<ReportDTO> all = reportQueryService.findByCriteria(createdFirstDay, Pageable.unpaged());
+
+        assertThat(titles(all.getContent()))
+            .containsExactly("merged 0", "merged 2", "merged 4", "merged 6", "merged 1", "merged 3", "merged 5");
+    }
+
+    @Test
+    void testCountIncludesTheArchivedReports() {
+        assertThat(reportQueryService.countByCriteria(createdFirstDay)).isEqualTo(7);
+
+        createdFirstDay.title().setEquals("merged 2");
+        assertThat(reportQueryService.countByCriteria(createdFirstDay)).isEqualTo(1);
+    }
+
+    @Test
+    void testArchiveIsNotReadWithoutIdOrCreationTimeFilter() {
+        ReportCriteria byTitle = new ReportCriteria();
+        byTitle.title().setIn(List.of("merged 2", "merged 3"));
+
+        assertThat(reportQueryService.countByCriteria(byTitle)).isEqualTo(1);
+        assertThat(titles(reportQueryService.findByCriteria(byTitle, PageRequest.of(0, 10)).getContent())).containsExactly("merged 3");
+    }
+
+    @Test
+    void testMergedPagesAreOnlySortedByIdAndCreationTime() {
+        assertThatThrownBy(() -> reportQueryService.findByCriteria(createdFirstDay, PageRequest.of(0, 3, Sort.by("title"))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testMergedPagesEndAtTheMaximum() {
+        int size = 100;
+        Pageable beyond = PageRequest.of(ReportQueryService.MAX_MERGED_RESULTS / size, size);
+
+        assertThatThrownBy(() -> reportQueryService.findByCriteria(createdFirstDay, beyond)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testArchivedReportsCannotBeDeleted() {
+        assertThat(reportService.findOne(1L)).isPresent();
+
+        assertThatThrownBy(() -> reportService.delete(1L)).isInstanceOf(ReportArchivedException.class);
+    }
+
+    private static List<String> titles(List<ReportDTO> reports) {
+        return reports.stream().map(ReportDTO::getTitle).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,53 @@
+package edu.tomm.webreporter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ReportVersions}.
+ */
+class ReportVersionsTest {
+
+    private final ReportVersions versions = new ReportVersions();
+
+    @Test
+    void testOlderChangesAreIgnored() {
+        assertThat(versions.apply(message(1, ReportChangedEvent.Type.CREATED, 0L))).isTrue();
+        assertThat(versions.apply(message(2, ReportChangedEvent.Type.UPDATED, 2L))).isTrue();
+        assertThat(versions.apply(message(3, ReportChangedEvent.Type.UPDATED, 1L))).isFalse();
+        assertThat(versions.apply(message(2, ReportChangedEvent.Type.UPDATED, 2L))).isFalse();
+        assertThat(versions.apply(message(4, ReportChangedEvent.Type.UPDATED, 3L))).isTrue();
+    }
+
+    @Test
+    void testChangesAfterTheDeletionAreIgnored() {
+        assertThat(versions.apply(message(1, ReportChangedEvent.Type.DELETED, 1L))).isTrue();
+        assertThat(versions.apply(message(2, ReportChangedEvent.Type.UPDATED, 2L))).isFalse();
+        assertThat(versions.apply(message(3, ReportChangedEvent.Type.UPDATED, null))).isFalse();
+        assertThat(versions.apply(message(1, ReportChangedEvent.Type.DELETED, 1L))).isFalse();
+    }
+
+    @Test
+    void testChangesOlderThanTheIndexedReportAreIgnored() {
+        ReportDTO indexed = new ReportDTO();
+        indexed.setId(1L);
+        indexed.setVersion(5L);
+        versions.indexed(indexed);
+
+        assertThat(versions.apply(message(1, ReportChangedEvent.Type.UPDATED, 4L))).isFalse();
+        assertThat(versions.apply(message(2, ReportChangedEvent.Type.UPDATED, 6L))).isTrue();
+
+        versions.clear();
+        assertThat(versions.apply(message(3, ReportChangedEvent.Type.UPDATED, 4L))).isTrue();
+    }
+
+    private static ReportOutboxMessage message(long id, ReportChangedEvent.Type type, Long version) {
+        ReportDTO report = new ReportDTO();
+        report.setId(1L);
+        report.setVersion(version);
+        return new ReportOutboxMessage(id, type, report, Instant.now());
+    }
+}
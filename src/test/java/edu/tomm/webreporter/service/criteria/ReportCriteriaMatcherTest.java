@@ -0,0 +1,95 @@
+package edu.tomm.webreporter.service.criteria;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ReportCriteriaMatcher}.
+ */
+class ReportCriteriaMatcherTest {
+
+    private ReportDTO report;
+
+    @BeforeEach
+    public void setup() {
+        report = new ReportDTO();
+        report.setId(10L);
+        report.setTitle("Broken login page");
+        report.setIpAddress("10.0.0.1");
+        UserDTO user = new UserDTO();
+        user.setId(3L);
+        report.setUser(user);
+    }
+
+    @Test
+    void testEmptyCriteriaMatchesAnyReport() {
+        assertThat(ReportCriteriaMatcher.matches(null, report)).isTrue();
+        assertThat(ReportCriteriaMatcher.matches(new ReportCriteria(), report)).isTrue();
+    }
+
+    @Test
+    void testRangeFilters() {
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.id().setGreaterThan(5L);
+        criteria.id().setLessThanOrEqual(10L);
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isTrue();
+
+        criteria.id().setLessThan(10L);
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isFalse();
+    }
+
+    @Test
+    void testStringFiltersAreCaseInsensitiveForContains() {
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.title().setContains("LOGIN");
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isTrue();
+
+        criteria.title().setDoesNotContain("page");
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isFalse();
+    }
+
+    @Test
+    void testEqualsAndInFilters() {
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.ipAddress().setIn(List.of("10.0.0.1", "10.0.0.2"));
+        criteria.userId().setEquals(3L);
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isTrue();
+
+        criteria.userId().setNotIn(List.of(3L));
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isFalse();
+    }
+
+    @Test
+    void testInCidrFilter() {
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.ipAddress().setInCidr("10.0.0.0/8");
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isTrue();
+
+        criteria.ipAddress().setInCidr("10.1.0.0/16");
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isFalse();
+
+        report.setIpAddress("not an address");
+        criteria.ipAddress().setInCidr("0.0.0.0/0");
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isFalse();
+    }
+
+    @Test
+    void testNullValuesOnlyMatchSpecifiedFalse() {
+        ReportCriteria criteria = new ReportCriteria();
+        criteria.description().setSpecified(false);
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isTrue();
+
+        criteria = new ReportCriteria();
+        criteria.description().setNotEquals("anything");
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isFalse();
+
+        criteria = new ReportCriteria();
+        criteria.description().setDoesNotContain("anything");
+        assertThat(ReportCriteriaMatcher.matches(criteria, report)).isFalse();
+    }
+}
@@ -0,0 +1,144 @@
+package edu.tomm.webreporter.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import edu.tomm.webreporter.IntegrationTest;
+import edu.tomm.webreporter.domain.Job;
+import edu.tomm.webreporter.domain.enumeration.JobStatus;
+import edu.tomm.webreporter.repository.JobRepository;
+import edu.tomm.webreporter.security.AuthoritiesConstants;
+import edu.tomm.webreporter.service.ReportBulkDeleteService;
+import java.time.Instant;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link JobResource} REST controller.
+ * <p>
+ * Jobs are created in the transaction of each test, which the job runner does not see.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class JobResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/jobs";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restJobMockMvc;
+
+    private Job createJob(String createdBy, JobStatus status) {
+        Job job = new Job().type(ReportBulkDeleteService.JOB_TYPE).parameters("{}").createdBy(createdBy).status(status);
+        if (status == JobStatus.RUNNING) {
+            job.setOwner("another-node");
+            job.setHeartbeatDate(Instant.now());
+            job.setStartedDate(Instant.now());
+        }
+        return jobRepository.saveAndFlush(job);
+    }
+
+    @Test
+    @Transactional
+    void getAllJobsOfTheCurrentUser() throws Exception {
+        Job ownJob = createJob("user", JobStatus.QUEUED);
+        Job otherJob = createJob("admin", JobStatus.QUEUED);
+
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(ownJob.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherJob.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void getAllJobsAsAdmin() throws Exception {
+        Job otherJob = createJob("admin", JobStatus.QUEUED);
+
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(otherJob.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getJob() throws Exception {
+        Job job = createJob("user", JobStatus.QUEUED);
+
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL_ID, job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(job.getId().intValue()))
+            .andExpect(jsonPath("$.type").value(ReportBulkDeleteService.JOB_TYPE))
+            .andExpect(jsonPath("$.status").value("QUEUED"))
+            .andExpect(jsonPath("$.processedCount").value(0))
+            .andExpect(jsonPath("$.createdBy").value("user"));
+    }
+
+    @Test
+    @Transactional
+    void getJobOfAnotherUser() throws Exception {
+        Job job = createJob("admin", JobStatus.QUEUED);
+
+        restJobMockMvc.perform(get(ENTITY_API_URL_ID, job.getId())).andExpect(status().isNotFound());
+        restJobMockMvc.perform(delete(ENTITY_API_URL_ID, job.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingJob() throws Exception {
+        restJobMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+        restJobMockMvc.perform(delete(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void cancelQueuedJob() throws Exception {
+        Job job = createJob("user", JobStatus.QUEUED);
+
+        restJobMockMvc
+            .perform(delete(ENTITY_API_URL_ID, job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("CANCELLED"))
+            .andExpect(jsonPath("$.finishedDate").exists());
+    }
+
+    @Test
+    @Transactional
+    void cancelRunningJob() throws Exception {
+        Job job = createJob("user", JobStatus.RUNNING);
+
+        restJobMockMvc
+            .perform(delete(ENTITY_API_URL_ID, job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("RUNNING"))
+            .andExpect(jsonPath("$.cancelRequested").value(true));
+
+        em.flush();
+        em.clear();
+        assertThat(jobRepository.findById(job.getId())).hasValueSatisfying(runningJob -> {
+            assertThat(runningJob.getStatus()).isEqualTo(JobStatus.RUNNING);
+            assertThat(runningJob.isCancelRequested()).isTrue();
+        });
+    }
+}
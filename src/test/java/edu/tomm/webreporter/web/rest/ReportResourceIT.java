@@ -1,7 +1,11 @@
 package edu.tomm.webreporter.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -9,29 +13,49 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import edu.tomm.webreporter.IntegrationTest;
 import edu.tomm.webreporter.domain.Report;
 import edu.tomm.webreporter.domain.User;
+import edu.tomm.webreporter.repository.ReportOutboxEventRepository;
 import edu.tomm.webreporter.repository.ReportRepository;
+import edu.tomm.webreporter.repository.UserRepository;
+import edu.tomm.webreporter.security.AuthoritiesConstants;
+import edu.tomm.webreporter.service.ReportBulkDeleteService;
+import edu.tomm.webreporter.service.ReportIpSketchService;
+import edu.tomm.webreporter.service.ReportLuceneIndex;
+import edu.tomm.webreporter.service.ReportOutboxService;
 import edu.tomm.webreporter.service.ReportService;
+import edu.tomm.webreporter.service.ReportSubnetIndex;
 import edu.tomm.webreporter.service.criteria.ReportCriteria;
 import edu.tomm.webreporter.service.dto.ReportDTO;
+import edu.tomm.webreporter.service.dto.UserDTO;
 import edu.tomm.webreporter.service.mapper.ReportMapper;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -70,6 +94,27 @@ class ReportResourceIT {
     @Mock
     private ReportService reportServiceMock;
 
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectProvider<ReportLuceneIndex> reportLuceneIndex;
+
+    @Autowired
+    private ReportSubnetIndex reportSubnetIndex;
+
+    @Autowired
+    private ReportIpSketchService reportIpSketchService;
+
+    @Autowired
+    private ReportOutboxService reportOutboxService;
+
+    @Autowired
+    private ReportOutboxEventRepository reportOutboxEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -134,6 +179,21 @@ class ReportResourceIT {
         assertThat(testReport.getIpAddress()).isEqualTo(DEFAULT_IP_ADDRESS);
     }
 
+    @Test
+    @Transactional
+    void createReportIgnoresTheCreationTimeOfTheClient() throws Exception {
+        Instant before = Instant.now();
+        ReportDTO reportDTO = reportMapper.toDto(report);
+        reportDTO.setCreatedAt(Instant.parse("2001-01-01T00:00:00Z"));
+
+        restReportMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(reportDTO)))
+            .andExpect(status().isCreated());
+
+        List<Report> reportList = reportRepository.findAll();
+        assertThat(reportList.get(reportList.size() - 1).getCreatedAt()).isAfterOrEqualTo(before.truncatedTo(ChronoUnit.SECONDS));
+    }
+
     @Test
     @Transactional
     void createReportWithExistingId() throws Exception {
@@ -153,6 +213,42 @@ class ReportResourceIT {
         assertThat(reportList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createReportsInBatch() throws Exception {
+        int databaseSizeBeforeCreate = reportRepository.findAll().size();
+        // Create a batch with an invalid Report in the middle
+        ReportDTO reportDTO = reportMapper.toDto(report);
+        ReportDTO invalidReportDTO = reportMapper.toDto(report);
+        invalidReportDTO.setTitle(null);
+
+        restReportMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(reportDTO, invalidReportDTO, reportDTO)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.[0].id").isNumber())
+            .andExpect(jsonPath("$.[1].status").value("REJECTED"))
+            .andExpect(jsonPath("$.[1].errors").value(hasItem(startsWith("title:"))))
+            .andExpect(jsonPath("$.[2].status").value("CREATED"));
+
+        // Validate the valid Reports in the database
+        List<Report> reportList = reportRepository.findAll();
+        assertThat(reportList).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    @Test
+    @Transactional
+    void createEmptyReportBatch() throws Exception {
+        restReportMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void checkTitleIsRequired() throws Exception {
@@ -240,6 +336,63 @@ class ReportResourceIT {
             .andExpect(jsonPath("$.ipAddress").value(DEFAULT_IP_ADDRESS));
     }
 
+    @Test
+    @Transactional
+    void getReportNotModified() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        String eTag = "W/\"" + report.getVersion() + "\"";
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL_ID, report.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", eTag));
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL_ID, report.getId()).header("If-None-Match", eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // A modified report is returned again
+        report.setTitle(UPDATED_TITLE);
+        em.flush();
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL_ID, report.getId()).header("If-None-Match", eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "W/\"" + report.getVersion() + "\""))
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+    }
+
+    @Test
+    @Transactional
+    void getAllReportsNotModified() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+
+        String eTag = restReportMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+        assertThat(eTag).startsWith("W/");
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header("If-None-Match", eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // A modified report changes the tag of the list
+        report.setTitle(UPDATED_TITLE);
+        em.flush();
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header("If-None-Match", eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].title").value(hasItem(UPDATED_TITLE)));
+    }
+
     @Test
     @Transactional
     void getReportsByIdFiltering() throws Exception {
@@ -453,6 +606,177 @@ class ReportResourceIT {
         defaultReportShouldBeFound("ipAddress.doesNotContain=" + UPDATED_IP_ADDRESS);
     }
 
+    @Test
+    @Transactional
+    void getAllReportsByIpAddressInCidr() throws Exception {
+        // Initialize the database
+        report.setIpAddress("198.51.100.7");
+        reportRepository.saveAndFlush(report);
+        Report ipv6Report = reportRepository.saveAndFlush(createEntity(em).ipAddress("2001:db8::7"));
+
+        // Get all the reportList where ipAddress in 198.51.100.0/24
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "?ipAddress.inCidr=198.51.100.0/24"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(report.getId().intValue())));
+
+        // Get all the reportList where ipAddress in 198.51.101.0/24
+        defaultReportShouldNotBeFound("ipAddress.inCidr=198.51.101.0/24");
+
+        // Get all the reportList where ipAddress in 2001:db8::/32
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "?ipAddress.inCidr=2001:db8::/32"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(ipv6Report.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllReportsByInvalidCidr() throws Exception {
+        restReportMockMvc.perform(get(ENTITY_API_URL + "?ipAddress.inCidr=198.51.100.0/33")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllReportsByCreatedAtIsInRange() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        String createdAt = report.getCreatedAt().toString();
+        String nextSecond = report.getCreatedAt().plusSeconds(1).toString();
+
+        // Get all the reportList where createdAt in [createdAt, createdAt + 1s)
+        defaultReportShouldBeFound("createdAt.greaterThanOrEqual=" + createdAt + "&createdAt.lessThan=" + nextSecond);
+
+        // Get all the reportList where createdAt before createdAt
+        defaultReportShouldNotBeFound("createdAt.lessThan=" + createdAt);
+
+        // Get all the reportList where createdAt after createdAt + 1s
+        defaultReportShouldNotBeFound("createdAt.greaterThanOrEqual=" + nextSecond);
+    }
+
+    @Test
+    @Transactional
+    void countReportsBySubnet() throws Exception {
+        // Initialize the database
+        report.setIpAddress("203.0.113.7");
+        reportRepository.saveAndFlush(report);
+        reportRepository.saveAndFlush(createEntity(em).ipAddress("203.0.113.8"));
+        reportRepository.saveAndFlush(createEntity(em).ipAddress("203.0.113.130"));
+        // The index is only updated by committed changes
+        reportSubnetIndex.rebuild();
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/subnets?cidr=203.0.113.0/24&prefixLength=25"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].subnet").value(contains("203.0.113.0/25", "203.0.113.128/25")))
+            .andExpect(jsonPath("$.[*].count").value(contains(2, 1)));
+
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/subnets?cidr=203.0.113.0/24&prefixLength=16")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getReportStatsByUser() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        Report sameUserReport = reportRepository.saveAndFlush(createEntity(em).user(report.getUser()));
+        Report otherReport = reportRepository.saveAndFlush(createEntity(em));
+        String userId = report.getUser().getId().toString();
+        String ids = report.getId() + "," + sameUserReport.getId() + "," + otherReport.getId();
+
+        // Filtered statistics are computed by a group by query
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?groupBy=user&id.in=" + ids))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].key").value(contains(userId, otherReport.getUser().getId().toString())))
+            .andExpect(jsonPath("$.[*].count").value(contains(2, 1)));
+
+        // Unfiltered statistics are read from the rollups on PostgreSQL, including the changes of this transaction
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?groupBy=user&limit=1000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.key == '" + userId + "')].count").value(contains(2)));
+    }
+
+    @Test
+    @Transactional
+    void getReportStatsByTimeAndSubnet() throws Exception {
+        // Initialize the database
+        report.setIpAddress("198.51.100.7");
+        reportRepository.saveAndFlush(report);
+        String day = LocalDate.ofInstant(report.getCreatedAt(), ZoneOffset.UTC).toString();
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?groupBy=day&id.equals=" + report.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].key").value(contains(day)))
+            .andExpect(jsonPath("$.[*].count").value(contains(1)));
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?groupBy=month&id.equals=" + report.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].key").value(contains(day.substring(0, 7))))
+            .andExpect(jsonPath("$.[*].count").value(contains(1)));
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?groupBy=subnet&prefixLength=16&id.equals=" + report.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].key").value(contains("198.51.0.0/16")))
+            .andExpect(jsonPath("$.[*].count").value(contains(1)));
+    }
+
+    @Test
+    @Transactional
+    void getReportStatsWithInvalidParameters() throws Exception {
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/stats?groupBy=week")).andExpect(status().isBadRequest());
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/stats?groupBy=user&limit=0")).andExpect(status().isBadRequest());
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/stats?groupBy=subnet&prefixLength=33")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void countDistinctIps() throws Exception {
+        // Initialize the database
+        report.setIpAddress("198.51.100.1");
+        reportRepository.saveAndFlush(report);
+        reportRepository.saveAndFlush(createEntity(em).user(report.getUser()).ipAddress("198.51.100.2"));
+        reportRepository.saveAndFlush(createEntity(em).user(report.getUser()).ipAddress(" ::ffff:198.51.100.1"));
+        Report otherReport = reportRepository.saveAndFlush(createEntity(em).ipAddress("198.51.100.3"));
+        // The sketches are only updated by the relayed changes
+        reportIpSketchService.rebuild();
+        String month = LocalDate.ofInstant(report.getCreatedAt(), ZoneOffset.UTC).toString().substring(0, 7);
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/distinct-ips?userId=" + report.getUser().getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.userId").value(report.getUser().getId().intValue()))
+            .andExpect(jsonPath("$.estimate").value(2))
+            .andExpect(jsonPath("$.standardError").value(0.01625));
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/distinct-ips?from=" + month + "&to=" + month))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.userId").doesNotExist())
+            .andExpect(jsonPath("$.estimate").value(greaterThanOrEqualTo(3)));
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/distinct-ips?userId=" + report.getUser().getId() + "&to=2000-01"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.estimate").value(0));
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/distinct-ips/users?limit=1000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.userId == " + report.getUser().getId() + ")].estimate").value(contains(2)))
+            .andExpect(jsonPath("$[?(@.userId == " + otherReport.getUser().getId() + ")].estimate").value(contains(1)));
+
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/distinct-ips?from=2026-13")).andExpect(status().isBadRequest());
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/distinct-ips/users?limit=0")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllReportsByUserIsEqualToSomething() throws Exception {
@@ -476,6 +800,216 @@ class ReportResourceIT {
         defaultReportShouldNotBeFound("userId.equals=" + (userId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllReportsWithKeysetPagination() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        Report nextReport = createEntity(em);
+        reportRepository.saveAndFlush(nextReport);
+        String filter = "id.in=" + report.getId() + "," + nextReport.getId();
+
+        // Get the first slice, no total count is computed
+        String cursor = restReportMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=1&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(report.getId().intValue())))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the next slice, which is the last one
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "?size=1&" + filter + "&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(nextReport.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllReportsWithInvalidCursor() throws Exception {
+        restReportMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("report-owner")
+    void getMyReports() throws Exception {
+        // Initialize the database
+        report.getUser().setLogin("report-owner");
+        reportRepository.saveAndFlush(report);
+        Report otherReport = createEntity(em);
+        reportRepository.saveAndFlush(otherReport);
+
+        // Get the reports of the current user only
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/mine"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(contains(report.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("report-owner")
+    void getMyReportsWithKeysetPagination() throws Exception {
+        // Initialize the database
+        report.getUser().setLogin("report-owner");
+        reportRepository.saveAndFlush(report);
+        Report nextReport = new Report().title(UPDATED_TITLE).description(UPDATED_DESCRIPTION).ipAddress(UPDATED_IP_ADDRESS);
+        nextReport.setUser(report.getUser());
+        reportRepository.saveAndFlush(nextReport);
+
+        // Get the first slice
+        String cursor = restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/mine?after=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(contains(report.getId().intValue())))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the next slice, which is the last one
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/mine?size=1&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(nextReport.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void searchReports() throws Exception {
+        // Initialize the database
+        report.title("Zephyrine disk failure").description("The disk of the build server failed");
+        reportRepository.saveAndFlush(report);
+        Report descriptionReport = createEntity(em).title("Network outage").description("Caused by a zephyrine switch");
+        reportRepository.saveAndFlush(descriptionReport);
+        reportRepository.saveAndFlush(createEntity(em).title("Unrelated").description("Nothing to see"));
+        // The embedded index is only updated by committed changes
+        reportLuceneIndex.ifAvailable(ReportLuceneIndex::rebuild);
+
+        // A title match ranks above a description match
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?q=zephyrine"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(report.getId().intValue(), descriptionReport.getId().intValue())));
+
+        // All the words must match, after stemming
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?q=zephyrine disks"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(report.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void searchReportsWithKeysetPagination() throws Exception {
+        // Initialize the database, with reports of the same relevance which are ordered by descending id
+        report.title("Quillwort report");
+        reportRepository.saveAndFlush(report);
+        Report secondReport = reportRepository.saveAndFlush(createEntity(em).title("Quillwort report"));
+        Report thirdReport = reportRepository.saveAndFlush(createEntity(em).title("Quillwort report"));
+        reportLuceneIndex.ifAvailable(ReportLuceneIndex::rebuild);
+
+        // Get the first slice
+        String cursor = restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?q=quillwort&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(thirdReport.getId().intValue(), secondReport.getId().intValue())))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the next slice, which is the last one
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?q=quillwort&size=2&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(report.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void searchReportsWithInvalidQueryOrCursor() throws Exception {
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/_search?q= ")).andExpect(status().isBadRequest());
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/_search?q=report&after=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void countReportsApproximately() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+
+        // Filtered counts are always exact
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/count?approximate=true&id.equals=" + report.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    @Test
+    @Transactional
+    void exportReportsAsNdjson() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/export?id.equals=" + report.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(startsWith("{\"id\":" + report.getId() + ",")))
+            .andExpect(content().string(containsString("\"title\":\"" + DEFAULT_TITLE + "\"")))
+            .andExpect(content().string(containsString("\"ipAddress\":\"" + DEFAULT_IP_ADDRESS + "\"")));
+    }
+
+    @Test
+    @Transactional
+    void exportReportsAsCsv() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+
+        restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + report.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(
+                content()
+                    .string(
+                        startsWith(
+                            "id,title,description,ipAddress,userId,userLogin\n" +
+                            report.getId() +
+                            "," +
+                            DEFAULT_TITLE +
+                            "," +
+                            DEFAULT_DESCRIPTION +
+                            "," +
+                            DEFAULT_IP_ADDRESS +
+                            "," +
+                            report.getUser().getId() +
+                            ","
+                        )
+                    )
+            );
+    }
+
+    @Test
+    @Transactional
+    void exportReportsWithUnsupportedFormat() throws Exception {
+        restReportMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -516,6 +1050,192 @@ class ReportResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    void streamReportChangesOnceRelayed() throws Exception {
+        MvcResult result = restReportMockMvc
+            .perform(get(ENTITY_API_URL + "/stream?title.equals=" + UPDATED_TITLE).accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Reports are written through the service, in committed transactions
+        UserDTO user = new UserDTO(userRepository.findOneByLogin("user").orElseThrow());
+        ReportDTO ignoredReport = reportService.save(createReportDTO(DEFAULT_TITLE, user));
+        ReportDTO streamedReport = reportService.save(createReportDTO(UPDATED_TITLE, user));
+        reportService.delete(ignoredReport.getId());
+        reportService.delete(streamedReport.getId());
+        // The changes are pushed once relayed from the outbox, which the tests do explicitly
+        while (reportOutboxService.relay(500) > 0) {
+            // Relay the changes left by the other tests too
+        }
+
+        String content = result.getResponse().getContentAsString();
+        for (long deadline = System.currentTimeMillis() + 10000; !content.contains("event:deleted"); ) {
+            assertThat(System.currentTimeMillis()).as("time waiting for the deleted event").isLessThan(deadline);
+            Thread.sleep(50);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content)
+            .contains("event:created", "\"id\":" + streamedReport.getId())
+            .doesNotContain("\"id\":" + ignoredReport.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void deleteReportsByCriteriaInBackground() throws Exception {
+        // Reports are written through the service, in committed transactions, as the deletion runs in its own
+        UserDTO user = new UserDTO(userRepository.findOneByLogin("user").orElseThrow());
+        ReportDTO keptReport = reportService.save(createReportDTO(DEFAULT_TITLE, user));
+        ReportDTO deletedReport = reportService.save(createReportDTO(UPDATED_TITLE, user));
+        reportService.save(createReportDTO(UPDATED_TITLE, user));
+
+        String location = restReportMockMvc
+            .perform(delete(ENTITY_API_URL + "?title.equals=" + UPDATED_TITLE))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string(HttpHeaders.LOCATION, startsWith("/api/jobs/")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LOCATION);
+
+        String content = restReportMockMvc.perform(get(location)).andReturn().getResponse().getContentAsString();
+        for (long deadline = System.currentTimeMillis() + 10000; isPending(content); ) {
+            assertThat(System.currentTimeMillis()).as("time waiting for the deletion").isLessThan(deadline);
+            Thread.sleep(50);
+            content = restReportMockMvc.perform(get(location)).andReturn().getResponse().getContentAsString();
+        }
+        restReportMockMvc
+            .perform(get(location))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.type").value(ReportBulkDeleteService.JOB_TYPE))
+            .andExpect(jsonPath("$.processedCount").value(greaterThanOrEqualTo(2)));
+
+        assertThat(reportRepository.existsById(deletedReport.getId())).isFalse();
+        assertThat(reportRepository.existsById(keptReport.getId())).isTrue();
+        // The deletions are written to the outbox, for the consumers and the indexes of every node
+        assertThat(hasOutboxEvent(deletedReport.getId(), "DELETED")).isTrue();
+        reportService.delete(keptReport.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void deleteReportsWithoutFilter() throws Exception {
+        restReportMockMvc.perform(delete(ENTITY_API_URL)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteReportsRequiresAdmin() throws Exception {
+        restReportMockMvc.perform(delete(ENTITY_API_URL + "?title.equals=" + UPDATED_TITLE)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importReportsFromCsv() throws Exception {
+        // Reports are imported in committed transactions
+        Long userId = userRepository.findOneByLogin("user").orElseThrow().getId();
+        String csv =
+            "id,title,description,ipAddress,userId\r\n" +
+            ",imported report,\"on two\r\nlines, \"\"quoted\"\"\",10.0.0.1," + userId + "\r\n" +
+            ",x,,10.0.0.2," + userId + "\r\n" +
+            ",imported report,,10.0.0.3," + Long.MAX_VALUE + "\r\n";
+
+        restReportMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowCount").value(3))
+            .andExpect(jsonPath("$.createdCount").value(1))
+            .andExpect(jsonPath("$.updatedCount").value(0))
+            .andExpect(jsonPath("$.rejectedCount").value(2))
+            .andExpect(jsonPath("$.errors.[0].line").value(4))
+            .andExpect(jsonPath("$.errors.[0].errors").value(hasItem(startsWith("title:"))))
+            .andExpect(jsonPath("$.errors.[1].line").value(5))
+            .andExpect(jsonPath("$.errors.[1].errors").value(contains("user: does not exist")));
+
+        List<Report> importedReports = findImportedReports();
+        assertThat(importedReports).hasSize(1);
+        assertThat(importedReports.get(0).getDescription()).isEqualTo("on two\r\nlines, \"quoted\"");
+        assertThat(importedReports.get(0).getIpAddress()).isEqualTo("10.0.0.1");
+        assertThat(importedReports.get(0).getCreatedAt()).isNotNull();
+        importedReports.forEach(report -> reportService.delete(report.getId()));
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importReportsFromNdjson() throws Exception {
+        UserDTO user = new UserDTO(userRepository.findOneByLogin("user").orElseThrow());
+        ReportDTO existingReport = reportService.save(createReportDTO(DEFAULT_TITLE, user));
+        String ndjson =
+            "{\"id\":" + existingReport.getId() + ",\"title\":\"imported report\",\"ipAddress\":\"10.0.0.4\",\"user\":{\"id\":" +
+            user.getId() + "}}\n" +
+            "{\"title\":\"imported report\",\"ipAddress\":\"10.0.0.5\",\"user\":{\"id\":" + user.getId() + "}}\n" +
+            "\n" +
+            "{\"title\":\n";
+
+        restReportMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("application/x-ndjson").content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowCount").value(3))
+            .andExpect(jsonPath("$.createdCount").value(1))
+            .andExpect(jsonPath("$.updatedCount").value(1))
+            .andExpect(jsonPath("$.rejectedCount").value(1))
+            .andExpect(jsonPath("$.errors.[0].line").value(4));
+
+        List<Report> importedReports = findImportedReports();
+        assertThat(importedReports).hasSize(2).extracting(Report::getId).contains(existingReport.getId());
+        assertThat(reportRepository.findById(existingReport.getId())).hasValueSatisfying(report ->
+            assertThat(report.getIpAddress()).isEqualTo("10.0.0.4")
+        );
+        // The imported reports are written to the outbox, as created or updated
+        for (Report importedReport : importedReports) {
+            String eventType = importedReport.getId().equals(existingReport.getId()) ? "UPDATED" : "CREATED";
+            assertThat(hasOutboxEvent(importedReport.getId(), eventType))
+                .as("%s event of report %s", eventType, importedReport.getId())
+                .isTrue();
+        }
+        importedReports.forEach(report -> reportService.delete(report.getId()));
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importReportsWithUnknownCsvColumn() throws Exception {
+        restReportMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content("title,ipAddress,userId,unknown\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importReportsRequiresAdmin() throws Exception {
+        restReportMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content("title,ipAddress,userId\n"))
+            .andExpect(status().isForbidden());
+    }
+
+    private List<Report> findImportedReports() {
+        return reportRepository
+            .findAll()
+            .stream()
+            .filter(report -> "imported report".equals(report.getTitle()))
+            .collect(Collectors.toList());
+    }
+
+    private static boolean isPending(String job) {
+        return job.contains("\"QUEUED\"") || job.contains("\"RUNNING\"");
+    }
+
+    private boolean hasOutboxEvent(Long reportId, String eventType) {
+        return reportOutboxEventRepository
+            .findAll()
+            .stream()
+            .anyMatch(event -> reportId.equals(event.getReportId()) && eventType.equals(event.getEventType()));
+    }
+
+    private static ReportDTO createReportDTO(String title, UserDTO user) {
+        ReportDTO reportDTO = new ReportDTO();
+        reportDTO.setTitle(title);
+        reportDTO.setIpAddress(DEFAULT_IP_ADDRESS);
+        reportDTO.setUser(user);
+        return reportDTO;
+    }
+
     @Test
     @Transactional
     void getNonExistingReport() throws Exception {
@@ -555,6 +1275,116 @@ class ReportResourceIT {
         assertThat(testReport.getIpAddress()).isEqualTo(UPDATED_IP_ADDRESS);
     }
 
+    @Test
+    @Transactional
+    void putExistingReportWithASingleStatement() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        ReportDTO reportDTO = reportMapper.toDto(report);
+        reportDTO.setTitle(UPDATED_TITLE);
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            restReportMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, reportDTO.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+                .andExpect(jsonPath("$.version").value(reportDTO.getVersion() + 1));
+
+            // The report is written without being loaded, the other statements read its creation time and load the user of
+            // the response
+            EntityStatistics reportStatistics = statistics.getEntityStatistics(Report.class.getName());
+            assertThat(reportStatistics.getLoadCount()).isZero();
+            assertThat(reportStatistics.getUpdateCount()).isEqualTo(1);
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @Test
+    @Transactional
+    void putExistingReportKeepsItsCreationTime() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        ReportDTO reportDTO = reportMapper.toDto(report);
+        reportDTO.setTitle(UPDATED_TITLE);
+        reportDTO.setCreatedAt(Instant.parse("2001-01-01T00:00:00Z"));
+        em.clear();
+        String createdAt = reportRepository.findCreatedAtById(report.getId()).orElseThrow().toString();
+
+        restReportMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, reportDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.createdAt").value(createdAt));
+    }
+
+    @Test
+    @Transactional
+    void putReportWithStaleVersion() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        ReportDTO reportDTO = reportMapper.toDto(report);
+        reportDTO.setTitle(UPDATED_TITLE);
+
+        // Concurrent update
+        report.setDescription(UPDATED_DESCRIPTION);
+        em.flush();
+        em.clear();
+
+        restReportMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, reportDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+            )
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void putReportWithIfMatch() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        String eTag = "W/\"" + report.getVersion() + "\"";
+        ReportDTO reportDTO = reportMapper.toDto(report);
+        reportDTO.setVersion(null);
+        reportDTO.setTitle(UPDATED_TITLE);
+        em.detach(report);
+
+        restReportMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, reportDTO.getId())
+                    .header("If-Match", eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "W/\"" + (report.getVersion() + 1) + "\""));
+
+        // The same tag is now stale
+        restReportMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, reportDTO.getId())
+                    .header("If-Match", eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     void putNonExistingReport() throws Exception {
@@ -578,6 +1408,25 @@ class ReportResourceIT {
         assertThat(reportList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void putNonExistingReportWithVersion() throws Exception {
+        int databaseSizeBeforeUpdate = reportRepository.findAll().size();
+        report.setId(count.incrementAndGet());
+        ReportDTO reportDTO = reportMapper.toDto(report);
+        reportDTO.setVersion(0L);
+
+        restReportMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, reportDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(reportRepository.findAll()).hasSize(databaseSizeBeforeUpdate);
+    }
+
     @Test
     @Transactional
     void putWithIdMismatchReport() throws Exception {
@@ -682,6 +1531,57 @@ class ReportResourceIT {
         assertThat(testReport.getIpAddress()).isEqualTo(UPDATED_IP_ADDRESS);
     }
 
+    @Test
+    @Transactional
+    void patchReportWithStaleVersion() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        ReportDTO reportDTO = new ReportDTO();
+        reportDTO.setId(report.getId());
+        reportDTO.setVersion(report.getVersion());
+        reportDTO.setTitle(UPDATED_TITLE);
+
+        // Concurrent update
+        report.setDescription(UPDATED_DESCRIPTION);
+        em.flush();
+
+        restReportMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, reportDTO.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+            )
+            .andExpect(status().isConflict());
+
+        assertThat(reportRepository.findById(report.getId())).get().extracting(Report::getTitle).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void patchReportWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        reportRepository.saveAndFlush(report);
+        String eTag = "W/\"" + report.getVersion() + "\"";
+        ReportDTO reportDTO = new ReportDTO();
+        reportDTO.setId(report.getId());
+        reportDTO.setTitle(UPDATED_TITLE);
+
+        // Concurrent update
+        report.setDescription(UPDATED_DESCRIPTION);
+        em.flush();
+
+        restReportMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, reportDTO.getId())
+                    .header("If-Match", eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(reportDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(reportRepository.findById(report.getId())).get().extracting(Report::getTitle).isEqualTo(DEFAULT_TITLE);
+    }
+
     @Test
     @Transactional
     void patchNonExistingReport() throws Exception {